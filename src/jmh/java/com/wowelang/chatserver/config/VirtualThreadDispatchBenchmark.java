@@ -0,0 +1,102 @@
+package com.wowelang.chatserver.config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.wowelang.chatserver.util.UserContext;
+
+/**
+ * STOMP inbound 처리 실행기의 플랫폼 스레드 풀 / 가상 스레드 모드 비교 벤치마크
+ *
+ * 동시에 도착한 SEND 프레임 burst개를 실행기에 넘기고 모두 처리될 때까지의 시간을 측정합니다.
+ * 각 작업은 DocumentDB 왕복을 blockingMillis 동안의 블로킹으로 근사하며, 처리 중 UserContext가
+ * 다른 작업의 값으로 바뀌지 않는지 확인합니다. SampleTime 결과의 p0.99가 burst 처리 p99 지연입니다.
+ * 플랫폼 스레드 최대 개수는 TearDown 시 출력됩니다.
+ *
+ * 실행: ./gradlew jmh -PjmhInclude=VirtualThreadDispatchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VirtualThreadDispatchBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"512"})
+    private int burst;
+
+    @Param({"5"})
+    private int blockingMillis;
+
+    private ThreadPoolTaskExecutor executor;
+    private ThreadMXBean threads;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // application.yml의 websocket.channels.inbound 기본값과 WebSocketConfig.inboundPool()의 가상 스레드 설정을 따름
+        boolean virtual = "virtual".equals(mode);
+        WebSocketChannelProperties.Pool pool = new WebSocketChannelProperties.Pool();
+        int coreSize = virtual ? pool.getVirtualMaxPoolSize() : 32;
+        int maxSize = virtual ? pool.getVirtualMaxPoolSize() : 64;
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("bench-inbound-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        executor.setRejectedExecutionHandler(pool.getRejectionPolicy().toHandler());
+        executor.setVirtualThreads(virtual);
+        executor.initialize();
+
+        threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n[%s] 플랫폼 스레드 최대 개수: %d%n", mode, threads.getPeakThreadCount());
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public void dispatchBurst() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[burst];
+        for (int i = 0; i < burst; i++) {
+            String userId = "user-" + i;
+            futures[i] = CompletableFuture.runAsync(() -> handle(userId), executor);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    /**
+     * UserIdChannelInterceptor.beforeHandle → @MessageMapping 처리 → afterMessageHandled 흐름을 근사
+     */
+    private void handle(String userId) {
+        UserContext.setUserId(userId);
+        try {
+            Thread.sleep(blockingMillis);
+            if (!userId.equals(UserContext.getUserId())) {
+                throw new IllegalStateException("UserContext가 다른 작업의 값으로 바뀌었습니다: " + UserContext.getUserId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            UserContext.clear();
+        }
+    }
+}
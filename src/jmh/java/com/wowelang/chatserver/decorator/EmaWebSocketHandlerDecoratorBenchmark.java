@@ -0,0 +1,80 @@
+package com.wowelang.chatserver.decorator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+/**
+ * 모든 수신 프레임에 적용되는 EmaWebSocketHandlerDecorator.updateBodyIfNeeded 벤치마크
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EmaWebSocketHandlerDecoratorBenchmark {
+
+    private EmaWebSocketHandlerDecorator decorator;
+    private TextMessage terminatedSend;
+    private TextMessage unterminatedSend;
+    private TextMessage unterminatedConnect;
+    private TextMessage heartbeat;
+    private TextMessage[] frameMix;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        decorator = new EmaWebSocketHandlerDecorator(new TextWebSocketHandler());
+        terminatedSend = new TextMessage("SEND\ndestination:/app/chat.send.room-1\ncontent-type:application/json\n\n"
+                + "{\"type\":\"TEXT\",\"content\":\"안녕하세요\"}\u0000");
+        unterminatedSend = new TextMessage("SEND\ndestination:/app/chat.send.room-1\ncontent-type:application/json\n\n"
+                + "{\"type\":\"TEXT\",\"content\":\"안녕하세요\"}");
+        unterminatedConnect = new TextMessage("CONNECT\naccept-version:1.2\nheart-beat:30000,30000\nX-User-Id:user-a\n");
+        heartbeat = new TextMessage("\n");
+
+        // 실제 트래픽 비율을 근사한 프레임 묶음: 대부분 종결된 SEND, 일부 하트비트/수동 테스트 프레임/비STOMP
+        TextMessage subscribe = new TextMessage("SUBSCRIBE\nid:sub-0\ndestination:/topic/chat.room-1\n");
+        TextMessage ack = new TextMessage("ACK\nid:12345\n\n\u0000");
+        TextMessage notStomp = new TextMessage("{\"hello\":\"world\"}\nnot a frame");
+        frameMix = new TextMessage[] {
+                terminatedSend, terminatedSend, terminatedSend, terminatedSend, terminatedSend,
+                terminatedSend, terminatedSend, heartbeat, heartbeat, ack,
+                unterminatedSend, unterminatedConnect, subscribe, notStomp, terminatedSend,
+                terminatedSend, heartbeat, terminatedSend, terminatedSend, unterminatedSend
+        };
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> terminatedSend() {
+        return decorator.updateBodyIfNeeded(terminatedSend);
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> unterminatedSend() {
+        return decorator.updateBodyIfNeeded(unterminatedSend);
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> unterminatedConnect() {
+        return decorator.updateBodyIfNeeded(unterminatedConnect);
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> heartbeat() {
+        return decorator.updateBodyIfNeeded(heartbeat);
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> frameMix() {
+        TextMessage frame = frameMix[cursor];
+        cursor = (cursor + 1) % frameMix.length;
+        return decorator.updateBodyIfNeeded(frame);
+    }
+}
@@ -0,0 +1,56 @@
+package com.wowelang.chatserver.dto;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wowelang.chatserver.model.ChatMessage.MessageType;
+
+/**
+ * 브로드캐스트마다 수행되는 ChatMessageDto JSON 직렬화/역직렬화 벤치마크
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChatMessageDtoSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ChatMessageDto dto;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        // 애플리케이션과 같은 설정 (JavaTimeModule, 날짜를 ISO 문자열로)
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        dto = ChatMessageDto.builder()
+                .id("6650f1a2b3c4d5e6f7a8b9c0")
+                .roomId("6650f1a2b3c4d5e6f7a8b9c1")
+                .senderId("user-a")
+                .type(MessageType.CORRECTION)
+                .originalMessage("I goed to school yesterday.")
+                .content("I went to school yesterday.")
+                .createdAt(Instant.now())
+                .build();
+        json = objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public ChatMessageDto deserialize() throws Exception {
+        return objectMapper.readValue(json, ChatMessageDto.class);
+    }
+}
@@ -0,0 +1,132 @@
+package com.wowelang.chatserver.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wowelang.chatserver.model.MatchRequest;
+import com.wowelang.chatserver.model.MatchRequest.MatchStatus;
+
+/**
+ * 매치 요청 목록 첫 페이지: requesterId/targetId $or 쿼리 vs 받은/보낸 요청함 인덱스 구간 두 번 + 병합
+ *
+ * 사용자 한 명이 requests개씩 요청을 받고 보낸 상태에서 최신 pageSize개를 읽는 지연을 측정합니다.
+ * 요청함 조회의 실행 계획(IXSCAN, SORT 단계 없음)은 MatchRequestRepositoryExplainTest에서 확인합니다.
+ *
+ * 실제 MongoDB가 필요합니다 (기본 mongodb://localhost:27017, -Dbench.mongo.uri로 변경). chat_bench 데이터베이스를 사용 후 삭제합니다.
+ *
+ * 실행: ./gradlew jmh -PjmhInclude=MatchRequestListBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MatchRequestListBenchmark {
+
+    private static final String USER = "user-popular";
+
+    @Param({"100", "10000"})
+    private int requests;
+
+    @Param({"30"})
+    private int pageSize;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private MatchRequestRepositoryCustomImpl repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("bench.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, "chat_bench");
+        mongoTemplate.dropCollection(MatchRequest.class);
+        repository = new MatchRequestRepositoryCustomImpl(mongoTemplate);
+
+        // MatchRequest의 인덱스와 같은 인덱스
+        mongoTemplate.indexOps(MatchRequest.class).ensureIndex(new Index()
+                .on("requesterId", Sort.Direction.ASC).on("targetId", Sort.Direction.ASC).unique().named("requester_target_idx"));
+        mongoTemplate.indexOps(MatchRequest.class).ensureIndex(new Index()
+                .on("targetId", Sort.Direction.ASC).on("status", Sort.Direction.ASC)
+                .on("updatedAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC).named("target_status_updated_idx"));
+        mongoTemplate.indexOps(MatchRequest.class).ensureIndex(new Index()
+                .on("requesterId", Sort.Direction.ASC).on("status", Sort.Direction.ASC)
+                .on("updatedAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC).named("requester_status_updated_idx"));
+
+        // 받은 요청과 보낸 요청을 번갈아 만들고, 절반은 이미 처리된 상태
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        List<MatchRequest> batch = new ArrayList<>();
+        for (int i = 0; i < requests * 2; i++) {
+            String other = "user-" + (i / 2);
+            boolean received = i % 2 == 0;
+            Instant at = start.plusSeconds(i);
+            batch.add(MatchRequest.builder()
+                    .requesterId(received ? other : USER)
+                    .targetId(received ? USER : other)
+                    .status(i % 4 < 2 ? MatchStatus.PENDING : MatchStatus.REJECTED)
+                    .createdAt(at)
+                    .updatedAt(at)
+                    .build());
+            if (batch.size() == 10000) {
+                mongoTemplate.insert(batch, MatchRequest.class);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, MatchRequest.class);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Benchmark
+    public List<MatchRequest> orQuery() {
+        // 이전 MatchRequestRepository.findByUserIdAndStatus에 페이지 크기만 더한 쿼리
+        return mongoTemplate.find(new Query(new Criteria().orOperator(
+                        Criteria.where("requesterId").is(USER),
+                        Criteria.where("targetId").is(USER))
+                .and("status").is(MatchStatus.PENDING))
+                .with(Sort.by(Sort.Direction.DESC, "updatedAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(pageSize), MatchRequest.class);
+    }
+
+    @Benchmark
+    public List<MatchRequest> mergedBoxes() {
+        // MatchRequestService.getMatchRequests와 같은 방식 (병합은 정렬된 두 목록을 합친 뒤 pageSize개만 사용)
+        List<MatchRequest> inbox = repository.findInboxPage(USER, MatchStatus.PENDING, null, pageSize);
+        List<MatchRequest> outbox = repository.findOutboxPage(USER, MatchStatus.PENDING, null, pageSize);
+
+        List<MatchRequest> merged = new ArrayList<>(pageSize);
+        int i = 0;
+        int j = 0;
+        while (merged.size() < pageSize && (i < inbox.size() || j < outbox.size())) {
+            if (j >= outbox.size() || (i < inbox.size() && !inbox.get(i).getUpdatedAt().isBefore(outbox.get(j).getUpdatedAt()))) {
+                merged.add(inbox.get(i++));
+            } else {
+                merged.add(outbox.get(j++));
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,174 @@
+package com.wowelang.chatserver.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wowelang.chatserver.job.MessageArchiveJob;
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.ChatMessage.MessageType;
+import com.wowelang.chatserver.model.ChatRoom;
+import com.wowelang.chatserver.model.MessageSegment;
+import com.wowelang.chatserver.util.MessageCursor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 메시지 보관(콜드 티어) 벤치마크
+ *
+ * 메시지 수가 같은 채팅방 두 개를 만들고, 오래된 방만 MessageArchiveJob으로 보관 세그먼트에 옮깁니다.
+ * 보관 전후 chat_messages와 chat_message_segments의 데이터/인덱스 크기(collStats)를 출력하고,
+ * 기록 중간의 임의 위치에서 pageSize개 페이지를 읽는 지연을 chat_messages(hotPage)와 보관 세그먼트(coldPage)에서 비교합니다.
+ * cacheSegments=0이면 매번 세그먼트 압축을 풉니다.
+ *
+ * 실제 MongoDB가 필요합니다 (기본 mongodb://localhost:27017, -Dbench.mongo.uri로 변경). chat_bench 데이터베이스를 사용 후 삭제합니다.
+ *
+ * 실행: ./gradlew jmh -PjmhInclude=MessageArchiveBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageArchiveBenchmark {
+
+    private static final String HOT_ROOM_ID = "6650f1a2b3c4d5e6f7a8b9c1";
+    private static final String COLD_ROOM_ID = "6650f1a2b3c4d5e6f7a8b9c2";
+
+    @Param({"300000"})
+    private int messages;
+
+    @Param({"30"})
+    private int pageSize;
+
+    @Param({"0", "100"})
+    private long cacheSegments;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private ChatMessageRepositoryCustomImpl hotRepository;
+    private MongoMessageArchive archive;
+    private MessageCursor[] hotCursors;
+    private MessageCursor[] coldCursors;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("bench.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, "chat_bench");
+        mongoTemplate.dropCollection(ChatMessage.class);
+        mongoTemplate.dropCollection(ChatRoom.class);
+        mongoTemplate.dropCollection(MessageSegment.class);
+
+        // ChatMessage, MessageSegment의 인덱스와 같은 인덱스
+        mongoTemplate.indexOps(ChatMessage.class).ensureIndex(new Index()
+                .on("roomId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                .named("room_created_id_idx"));
+        mongoTemplate.indexOps(MessageSegment.class).ensureIndex(new Index()
+                .on("roomId", Sort.Direction.ASC).on("maxCreatedAt", Sort.Direction.DESC).named("room_max_created_idx"));
+        mongoTemplate.indexOps(MessageSegment.class).ensureIndex(new Index()
+                .on("roomId", Sort.Direction.ASC).on("minCreatedAt", Sort.Direction.ASC).named("room_min_created_idx"));
+
+        // 보관 대상(1년 전)과 최근 채팅방
+        hotCursors = insertRoom(HOT_ROOM_ID, Instant.now().minus(Duration.ofDays(1)).minusSeconds(messages));
+        coldCursors = insertRoom(COLD_ROOM_ID, Instant.now().minus(Duration.ofDays(365)));
+
+        archive = new MongoMessageArchive(mongoTemplate, Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(archive, "cacheSegments", cacheSegments);
+        archive.init();
+
+        printStats("보관 전");
+        MessageArchiveJob archiveJob = new MessageArchiveJob(mongoTemplate, archive, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(archiveJob, "minAgeDays", 90);
+        ReflectionTestUtils.setField(archiveJob, "segmentSize", 1000);
+        archiveJob.init();
+        archiveJob.run();
+        printStats("보관 후");
+
+        hotRepository = new ChatMessageRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Benchmark
+    public List<ChatMessage> hotPage() {
+        return hotRepository.findRoomPage(HOT_ROOM_ID, randomCursor(hotCursors), null, pageSize);
+    }
+
+    @Benchmark
+    public List<ChatMessage> coldPage() {
+        return archive.findRoomPage(COLD_ROOM_ID, randomCursor(coldCursors), null, pageSize);
+    }
+
+    private MessageCursor randomCursor(MessageCursor[] cursors) {
+        return cursors[ThreadLocalRandom.current().nextInt(pageSize, messages)];
+    }
+
+    private MessageCursor[] insertRoom(String roomId, Instant start) {
+        mongoTemplate.insert(ChatRoom.builder()
+                .id(roomId)
+                .participants(List.of("user-a", "user-b"))
+                .deleted(false)
+                .messageCount((long) messages)
+                .build());
+
+        MessageCursor[] cursors = new MessageCursor[messages];
+        List<ChatMessage> batch = new ArrayList<>();
+        for (int i = 0; i < messages; i++) {
+            ChatMessage message = ChatMessage.builder()
+                    .id(new ObjectId().toHexString())
+                    .roomId(roomId)
+                    .senderId(i % 2 == 0 ? "user-a" : "user-b")
+                    .type(MessageType.TEXT)
+                    .content("안녕하세요! Nice to meet you. 오늘 날씨가 정말 좋네요. #" + i)
+                    .createdAt(start.plusSeconds(i))
+                    .seq(i + 1L)
+                    .build();
+            cursors[i] = MessageCursor.of(message);
+            batch.add(message);
+            if (batch.size() == 10000) {
+                mongoTemplate.insert(batch, ChatMessage.class);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, ChatMessage.class);
+        }
+        return cursors;
+    }
+
+    private void printStats(String label) {
+        for (String collection : List.of("chat_messages", "chat_message_segments")) {
+            Document stats = mongoTemplate.getDb().runCommand(new Document("collStats", collection));
+            System.out.printf("%n[%s, %s] count=%s, size=%.1f MB, storageSize=%.1f MB, totalIndexSize=%.1f MB%n",
+                    label, collection, stats.get("count"),
+                    ((Number) stats.getOrDefault("size", 0)).doubleValue() / 1024 / 1024,
+                    ((Number) stats.getOrDefault("storageSize", 0)).doubleValue() / 1024 / 1024,
+                    ((Number) stats.getOrDefault("totalIndexSize", 0)).doubleValue() / 1024 / 1024);
+        }
+    }
+}
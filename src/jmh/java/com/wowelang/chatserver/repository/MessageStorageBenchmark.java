@@ -0,0 +1,175 @@
+package com.wowelang.chatserver.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wowelang.chatserver.job.MessageBucketMigrationJob;
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.ChatMessage.MessageType;
+import com.wowelang.chatserver.model.MessageBucket;
+import com.wowelang.chatserver.util.MessageCursor;
+
+/**
+ * 메시지 저장 방식 비교: 메시지당 문서 하나(DocumentMessageStore) vs 순번 구간별 묶음(BucketMessageStore)
+ *
+ * messages개 메시지가 있는 채팅방 하나를 chat_messages에 만들고 MessageBucketMigrationJob으로 묶음 컬렉션에 복사한 뒤,
+ * 기록 중간의 임의 위치에서 pageSize개 페이지를 읽는 지연과 메시지 하나를 저장하는 지연을 측정합니다.
+ * 셋업에서 두 컬렉션의 데이터 크기와 인덱스 크기(collStats)를 출력합니다.
+ *
+ * 실제 MongoDB가 필요합니다 (기본 mongodb://localhost:27017, -Dbench.mongo.uri로 변경). chat_bench 데이터베이스를 사용 후 삭제합니다.
+ *
+ * 실행: ./gradlew jmh -PjmhInclude=MessageStorageBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageStorageBenchmark {
+
+    private static final String ROOM_ID = "6650f1a2b3c4d5e6f7a8b9c1";
+
+    @Param({"300000"})
+    private int messages;
+
+    @Param({"30"})
+    private int pageSize;
+
+    @Param({"200"})
+    private int bucketSize;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private DocumentMessageStore documentStore;
+    private BucketMessageStore bucketStore;
+    private MessageCursor[] cursors;
+    private final AtomicLong documentSeq = new AtomicLong();
+    private final AtomicLong bucketSeq = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("bench.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, "chat_bench");
+        mongoTemplate.dropCollection(ChatMessage.class);
+        mongoTemplate.dropCollection(MessageBucket.class);
+
+        // ChatMessage, MessageBucket의 인덱스와 같은 인덱스
+        mongoTemplate.indexOps(ChatMessage.class).ensureIndex(new Index()
+                .on("roomId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                .named("room_created_id_idx"));
+        mongoTemplate.indexOps(ChatMessage.class).ensureIndex(new Index()
+                .on("roomId", Sort.Direction.ASC).on("seq", Sort.Direction.ASC).unique().named("room_seq_idx"));
+        mongoTemplate.indexOps(MessageBucket.class).ensureIndex(new Index()
+                .on("roomId", Sort.Direction.ASC).on("maxCreatedAt", Sort.Direction.DESC).on("minCreatedAt", Sort.Direction.DESC)
+                .named("room_max_created_idx"));
+        mongoTemplate.indexOps(MessageBucket.class).ensureIndex(new Index()
+                .on("roomId", Sort.Direction.ASC).on("minCreatedAt", Sort.Direction.ASC).named("room_min_created_idx"));
+        mongoTemplate.indexOps(MessageBucket.class).ensureIndex(new Index()
+                .on("messages._id", Sort.Direction.ASC).named("message_id_idx"));
+
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        cursors = new MessageCursor[messages];
+        List<ChatMessage> batch = new ArrayList<>();
+        for (int i = 0; i < messages; i++) {
+            ChatMessage message = newMessage(i + 1, start.plusMillis(i * 1000L));
+            cursors[i] = MessageCursor.of(message);
+            batch.add(message);
+            if (batch.size() == 10000) {
+                mongoTemplate.insert(batch, ChatMessage.class);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, ChatMessage.class);
+        }
+
+        MessageBucketMigrationJob migrationJob = new MessageBucketMigrationJob(mongoTemplate);
+        ReflectionTestUtils.setField(migrationJob, "batchSize", 1000);
+        ReflectionTestUtils.setField(migrationJob, "bucketSize", bucketSize);
+        migrationJob.run();
+
+        printStats("chat_messages");
+        printStats("chat_message_buckets");
+
+        ChatMessageRepository repository = new MongoRepositoryFactory(mongoTemplate)
+                .getRepository(ChatMessageRepository.class, RepositoryFragments.just(new ChatMessageRepositoryCustomImpl(mongoTemplate)));
+        documentStore = new DocumentMessageStore(repository, mongoTemplate);
+        bucketStore = new BucketMessageStore(mongoTemplate);
+        ReflectionTestUtils.setField(bucketStore, "bucketSize", bucketSize);
+
+        documentSeq.set(messages);
+        bucketSeq.set(messages);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Benchmark
+    public List<ChatMessage> documentPage() {
+        return documentStore.findRoomPage(ROOM_ID, randomCursor(), null, pageSize);
+    }
+
+    @Benchmark
+    public List<ChatMessage> bucketPage() {
+        return bucketStore.findRoomPage(ROOM_ID, randomCursor(), null, pageSize);
+    }
+
+    @Benchmark
+    public ChatMessage documentInsert() {
+        return documentStore.insert(newMessage(documentSeq.incrementAndGet(), Instant.now()));
+    }
+
+    @Benchmark
+    public ChatMessage bucketInsert() {
+        return bucketStore.insert(newMessage(bucketSeq.incrementAndGet(), Instant.now()));
+    }
+
+    private MessageCursor randomCursor() {
+        return cursors[ThreadLocalRandom.current().nextInt(pageSize, messages)];
+    }
+
+    private ChatMessage newMessage(long seq, Instant createdAt) {
+        return ChatMessage.builder()
+                .id(new ObjectId().toHexString())
+                .roomId(ROOM_ID)
+                .senderId(seq % 2 == 0 ? "user-a" : "user-b")
+                .type(MessageType.TEXT)
+                .content("안녕하세요! Nice to meet you. 오늘 날씨가 정말 좋네요. #" + seq)
+                .createdAt(createdAt)
+                .seq(seq)
+                .build();
+    }
+
+    private void printStats(String collection) {
+        Document stats = mongoTemplate.getDb().runCommand(new Document("collStats", collection));
+        System.out.printf("%n[%s] count=%s, size=%.1f MB, totalIndexSize=%.1f MB%n", collection, stats.get("count"),
+                ((Number) stats.get("size")).doubleValue() / 1024 / 1024,
+                ((Number) stats.get("totalIndexSize")).doubleValue() / 1024 / 1024);
+    }
+}
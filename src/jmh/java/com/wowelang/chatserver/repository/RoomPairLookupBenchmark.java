@@ -0,0 +1,109 @@
+package com.wowelang.chatserver.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wowelang.chatserver.model.ChatRoom;
+
+/**
+ * 참여자 쌍으로 채팅방 찾기: participants $all (멀티키 인덱스) vs pairKey (유니크 인덱스)
+ *
+ * 인기 사용자 한 명이 rooms개 채팅방에 참여한 상태에서, 그 사용자와 다른 사용자 한 명의 채팅방을 찾는 지연을 측정합니다.
+ * $all 조회는 첫 참여자의 인덱스 항목을 모두 훑으므로 rooms에 비례하고, pairKey 조회는 rooms와 관계없이 일정해야 합니다.
+ *
+ * 실제 MongoDB가 필요합니다 (기본 mongodb://localhost:27017, -Dbench.mongo.uri로 변경). chat_bench 데이터베이스를 사용 후 삭제합니다.
+ *
+ * 실행: ./gradlew jmh -PjmhInclude=RoomPairLookupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoomPairLookupBenchmark {
+
+    private static final String POPULAR_USER = "user-popular";
+
+    @Param({"10", "1000", "100000"})
+    private int rooms;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private String[] partners;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("bench.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, "chat_bench");
+        mongoTemplate.dropCollection(ChatRoom.class);
+
+        // ChatRoom의 participants_idx, pair_key_idx와 같은 인덱스
+        mongoTemplate.indexOps(ChatRoom.class).ensureIndex(new Index().on("participants", Sort.Direction.ASC).named("participants_idx"));
+        mongoTemplate.indexOps(ChatRoom.class).ensureIndex(new Index().on("pairKey", Sort.Direction.ASC).unique().sparse().named("pair_key_idx"));
+
+        partners = new String[rooms];
+        List<ChatRoom> batch = new ArrayList<>();
+        for (int i = 0; i < rooms; i++) {
+            partners[i] = "user-" + i;
+            batch.add(ChatRoom.builder()
+                    .participants(List.of(POPULAR_USER, partners[i]))
+                    .pairKey(ChatRoom.pairKeyOf(POPULAR_USER, partners[i]))
+                    .deleted(false)
+                    .messageCount(0L)
+                    .build());
+            if (batch.size() == 10000) {
+                mongoTemplate.insert(batch, ChatRoom.class);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, ChatRoom.class);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Benchmark
+    public ChatRoom participantsAll() {
+        // ChatRoomRepository.findAllByParticipants와 같은 쿼리 (중복 표시 조건 제외)
+        return mongoTemplate.findOne(new Query(Criteria.where("participants").all(POPULAR_USER, nextPartner())
+                .and("deleted").is(false)), ChatRoom.class);
+    }
+
+    @Benchmark
+    public ChatRoom pairKey() {
+        // ChatRoomRepository.findByPairKey와 같은 쿼리
+        return mongoTemplate.findOne(new Query(Criteria.where("pairKey").is(ChatRoom.pairKeyOf(POPULAR_USER, nextPartner()))),
+                ChatRoom.class);
+    }
+
+    private String nextPartner() {
+        String partner = partners[cursor++];
+        if (cursor >= rooms) {
+            cursor = 0;
+        }
+        return partner;
+    }
+}
@@ -0,0 +1,121 @@
+package com.wowelang.chatserver.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.ChatMessage.MessageType;
+
+/**
+ * 채팅방 목록의 마지막 메시지/메시지 수: 채팅방마다 조회 두 번 vs summarizeRooms 집계 한 번
+ *
+ * 사용자 한 명이 rooms개 채팅방에 참여하고 채팅방마다 messagesPerRoom개 메시지가 있는 상태에서, 모든 채팅방의 요약을 만드는 지연을 측정합니다.
+ * 채팅방마다 조회하는 방식은 왕복 횟수가 2 x rooms이고, 집계는 rooms와 관계없이 한 번입니다.
+ *
+ * 실제 MongoDB가 필요합니다 (기본 mongodb://localhost:27017, -Dbench.mongo.uri로 변경). chat_bench 데이터베이스를 사용 후 삭제합니다.
+ *
+ * 실행: ./gradlew jmh -PjmhInclude=RoomSummaryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RoomSummaryBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int rooms;
+
+    @Param({"50"})
+    private int messagesPerRoom;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private ChatMessageRepositoryCustomImpl repository;
+    private List<String> roomIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("bench.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, "chat_bench");
+        mongoTemplate.dropCollection(ChatMessage.class);
+        repository = new ChatMessageRepositoryCustomImpl(mongoTemplate);
+
+        // ChatMessage의 room_created_id_idx와 같은 인덱스
+        mongoTemplate.indexOps(ChatMessage.class).ensureIndex(new Index()
+                .on("roomId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                .named("room_created_id_idx"));
+
+        // 채팅방마다 10개 중 1개는 삭제된 메시지
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        roomIds = new ArrayList<>(rooms);
+        List<ChatMessage> batch = new ArrayList<>();
+        for (int room = 0; room < rooms; room++) {
+            String roomId = "room-" + room;
+            roomIds.add(roomId);
+            for (int i = 0; i < messagesPerRoom; i++) {
+                batch.add(ChatMessage.builder()
+                        .roomId(roomId)
+                        .senderId(i % 2 == 0 ? "user-popular" : "user-" + room)
+                        .type(MessageType.TEXT)
+                        .content("안녕하세요! Nice to meet you. #" + i)
+                        .createdAt(start.plusSeconds((long) room * messagesPerRoom + i))
+                        .deleted(i % 10 == 9)
+                        .build());
+                if (batch.size() == 10000) {
+                    mongoTemplate.insert(batch, ChatMessage.class);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, ChatMessage.class);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Benchmark
+    public Map<String, Object[]> perRoomQueries() {
+        // 이전 getUserRooms와 같은 방식 (ChatMessageRepository.findFirstByRoomIdAndDeletedFalseOrderByCreatedAtDesc + countByRoomIdAndDeletedFalse)
+        Map<String, Object[]> summaries = new HashMap<>();
+        for (String roomId : roomIds) {
+            Criteria criteria = Criteria.where("roomId").is(roomId).and("deleted").is(false);
+            ChatMessage last = mongoTemplate.findOne(new Query(criteria).with(Sort.by(Sort.Direction.DESC, "createdAt")),
+                    ChatMessage.class);
+            long count = mongoTemplate.count(new Query(criteria), ChatMessage.class);
+            summaries.put(roomId, new Object[] {last, count});
+        }
+        return summaries;
+    }
+
+    @Benchmark
+    public Map<String, RoomMessageSummary> aggregation() {
+        // ChatRoomService.getUserRooms가 DocumentMessageStore를 통해 호출하는 집계
+        return repository.summarizeRooms(roomIds);
+    }
+}
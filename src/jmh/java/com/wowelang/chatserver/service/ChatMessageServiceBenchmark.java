@@ -0,0 +1,76 @@
+package com.wowelang.chatserver.service;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.wowelang.chatserver.dto.ChatMessageDto;
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.ChatMessage.MessageType;
+
+/**
+ * ChatMessageService의 순수 연산(DTO 변환, 메시지 검증) 벤치마크
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChatMessageServiceBenchmark {
+
+    private ChatMessageService service;
+    private ChatMessage message;
+    private ChatMessageDto textDto;
+    private ChatMessageDto correctionDto;
+    private ChatMessageDto imageDto;
+
+    @Setup
+    public void setUp() {
+        service = new ChatMessageService(null, null, null, null, null, null, null, Optional.empty());
+        ReflectionTestUtils.setField(service, "maxTextLength", 2000);
+
+        message = ChatMessage.builder()
+                .id("6650f1a2b3c4d5e6f7a8b9c0")
+                .roomId("6650f1a2b3c4d5e6f7a8b9c1")
+                .senderId("user-a")
+                .type(MessageType.TEXT)
+                .content("안녕하세요! Nice to meet you. 오늘 날씨가 정말 좋네요.")
+                .createdAt(Instant.now())
+                .build();
+
+        textDto = ChatMessageDto.builder()
+                .type(MessageType.TEXT)
+                .content(message.getContent())
+                .build();
+        correctionDto = ChatMessageDto.builder()
+                .type(MessageType.CORRECTION)
+                .originalMessage("I goed to school yesterday.")
+                .content("I went to school yesterday.")
+                .build();
+        imageDto = ChatMessageDto.builder()
+                .type(MessageType.IMAGE)
+                .s3Key("uploads/2f1c3e0a-8d7b-4c2e-9a51-0c6f3b7d9e21.jpg")
+                .build();
+    }
+
+    @Benchmark
+    public ChatMessageDto convertToDto() {
+        return service.convertToDto(message);
+    }
+
+    @Benchmark
+    public void validateMessageContent(Blackhole blackhole) {
+        service.validateMessageContent(textDto);
+        service.validateMessageContent(correctionDto);
+        service.validateMessageContent(imageDto);
+        blackhole.consume(textDto);
+    }
+}
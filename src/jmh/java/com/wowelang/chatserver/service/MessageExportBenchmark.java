@@ -0,0 +1,90 @@
+package com.wowelang.chatserver.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.ChatMessage.MessageType;
+import com.wowelang.chatserver.repository.DocumentMessageStore;
+import com.wowelang.chatserver.repository.MessageArchive;
+
+/**
+ * 메시지 기록 내보내기(NDJSON) 벤치마크
+ *
+ * MongoTemplate.stream을 messages개 메시지를 지연 생성하는 대역으로 바꾸고, 방 전체를 버리는 출력 스트림으로 내보냅니다.
+ * 1회 실행(SingleShotTime)이 방 하나를 내보내는 시간입니다. (-prof gc로 할당량도 확인 가능)
+ * 힙 사용량이 방 크기에 비례하지 않는지는 MessageExportServiceTest에서 확인합니다.
+ *
+ * 실행: ./gradlew jmh -PjmhInclude=MessageExportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MessageExportBenchmark {
+
+    private static final String ROOM_ID = "6650f1a2b3c4d5e6f7a8b9c1";
+
+    @Param({"1000000"})
+    private int messages;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private MessageExportService exportService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.stream(any(Query.class), eq(ChatMessage.class))).thenAnswer(invocation ->
+                LongStream.range(0, messages).mapToObj(i -> ChatMessage.builder()
+                        .id(new ObjectId().toHexString())
+                        .roomId(ROOM_ID)
+                        .senderId(i % 2 == 0 ? "user-a" : "user-b")
+                        .type(MessageType.TEXT)
+                        .content("안녕하세요! Nice to meet you. 오늘 날씨가 정말 좋네요. #" + i)
+                        .createdAt(start.plusMillis(i))
+                        .seq(i + 1)
+                        .build()));
+
+        ChatMessageService chatMessageService = new ChatMessageService(null, null, null, null, null, null, null, Optional.empty());
+        exportService = new MessageExportService(new DocumentMessageStore(null, mongoTemplate), mock(MessageArchive.class), null,
+                chatMessageService, Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(exportService, "batchSize", 1000);
+    }
+
+    @Benchmark
+    public long exportRoom() throws Exception {
+        OutputStream sink = OutputStream.nullOutputStream();
+        if (gzip) {
+            try (GZIPOutputStream compressed = new GZIPOutputStream(sink, 8192)) {
+                return exportService.writeNdjson(ROOM_ID, null, null, null, compressed);
+            }
+        }
+        return exportService.writeNdjson(ROOM_ID, null, null, null, sink);
+    }
+}
@@ -0,0 +1,128 @@
+package com.wowelang.chatserver.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.wowelang.chatserver.dto.PresignedUrlResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+/**
+ * 이미지 images개 화면의 Presigned URL 발급 지연: 단건 엔드포인트 images회 호출 vs 일괄 엔드포인트 1회 호출
+ *
+ * 실제 S3Presigner(SigV4 서명, 네트워크 없음)를 사용하며, HTTP 왕복은 요청마다 roundTripMicros 동안의 블로킹으로 근사합니다.
+ * GET URL 캐시는 끄고 측정하므로 모든 항목이 새로 서명됩니다.
+ *
+ * 실행: ./gradlew jmh -PjmhInclude=PresignBatchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PresignBatchBenchmark {
+
+    @Param({"50"})
+    private int images;
+
+    @Param({"0", "20000"})
+    private int roundTripMicros;
+
+    private S3Presigner presigner;
+    private ThreadPoolTaskExecutor executor;
+    private S3Service s3Service;
+    private List<String> s3Keys;
+    private List<String> mimeTypes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        presigner = S3Presigner.builder()
+                .region(Region.AP_NORTHEAST_2)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("AKIABENCHMARK", "benchmark-secret")))
+                .build();
+
+        // AwsS3Config.presignExecutor()의 기본 설정을 따름
+        int poolSize = Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("bench-presign-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(1000);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+
+        s3Service = new S3Service(presigner, new SimpleMeterRegistry(), executor);
+        ReflectionTestUtils.setField(s3Service, "bucketName", "wowelang-chat-media-dev");
+        ReflectionTestUtils.setField(s3Service, "presignedUrlExpirationMinutes", 15);
+        ReflectionTestUtils.setField(s3Service, "getUrlCacheMaxSize", 0L);
+        ReflectionTestUtils.setField(s3Service, "safetyMarginSeconds", 120L);
+        ReflectionTestUtils.setField(s3Service, "maxBatchSize", 100);
+        s3Service.init();
+
+        s3Keys = new ArrayList<>();
+        mimeTypes = new ArrayList<>();
+        for (int i = 0; i < images; i++) {
+            s3Keys.add("uploads/2f1c3e0a-8d7b-4c2e-9a51-" + String.format("%012d", i) + ".jpg");
+            mimeTypes.add("image/jpeg");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+        presigner.close();
+    }
+
+    @Benchmark
+    public void singleGetUrls(Blackhole blackhole) {
+        for (String s3Key : s3Keys) {
+            roundTrip();
+            blackhole.consume(s3Service.generatePresignedGetUrl(s3Key));
+        }
+    }
+
+    @Benchmark
+    public List<PresignedUrlResponse> batchGetUrls() {
+        roundTrip();
+        return s3Service.generatePresignedGetUrls(s3Keys);
+    }
+
+    @Benchmark
+    public void singlePutUrls(Blackhole blackhole) {
+        for (String mimeType : mimeTypes) {
+            roundTrip();
+            blackhole.consume(s3Service.generatePresignedUrl(mimeType));
+        }
+    }
+
+    @Benchmark
+    public List<PresignedUrlResponse> batchPutUrls() {
+        roundTrip();
+        return s3Service.generatePresignedUrls(mimeTypes);
+    }
+
+    private void roundTrip() {
+        if (roundTripMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.wowelang.chatserver.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.wowelang.chatserver.cluster.LoopbackClusterBus;
+import com.wowelang.chatserver.model.ChatRoom;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 메시지 순번 할당 비용 벤치마크 (메시지당)
+ *
+ * lastSeq $inc(findAndModify)를 roundTripMicros 동안 블로킹하는 대역으로 바꾸고, rooms개 방에 번갈아 순번을 할당합니다.
+ * leaseSize=1은 메시지마다 DB 왕복, leaseSize=100은 100건마다 한 번 왕복하는 구성입니다.
+ * DB 왕복 횟수는 TearDown 시 출력됩니다.
+ *
+ * 실행: ./gradlew jmh -PjmhInclude=RoomSequenceAllocatorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoomSequenceAllocatorBenchmark {
+
+    @Param({"1", "100"})
+    private int leaseSize;
+
+    @Param({"500"})
+    private int roundTripMicros;
+
+    @Param({"1000"})
+    private int rooms;
+
+    private RoomSequenceAllocator allocator;
+    private LoopbackClusterBus clusterBus;
+    private final AtomicLong roundTrips = new AtomicLong();
+    private String[] roomIds;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, AtomicLong> lastSeqs = new ConcurrentHashMap<>();
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ChatRoom.class)))
+                .thenAnswer(invocation -> {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+                    roundTrips.incrementAndGet();
+                    String roomId = invocation.getArgument(0, Query.class).getQueryObject().getString("_id");
+                    long lastSeq = lastSeqs.computeIfAbsent(roomId, id -> new AtomicLong()).addAndGet(leaseSize);
+                    return ChatRoom.builder().id(roomId).lastSeq(lastSeq).build();
+                });
+
+        clusterBus = new LoopbackClusterBus("bench-node");
+        allocator = new RoomSequenceAllocator(mongoTemplate, clusterBus, new SimpleMeterRegistry(),
+                leaseSize, rooms * 2L, 300);
+
+        roomIds = new String[rooms];
+        for (int i = 0; i < rooms; i++) {
+            roomIds[i] = "room-" + i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n[leaseSize=%d] DB 왕복 %d회%n", leaseSize, roundTrips.get());
+        clusterBus.close();
+    }
+
+    @Benchmark
+    public long allocate() {
+        String roomId = roomIds[cursor++];
+        if (cursor >= rooms) {
+            cursor = 0;
+        }
+        return allocator.next(roomId);
+    }
+}
@@ -0,0 +1,170 @@
+package com.wowelang.chatserver.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.types.ObjectId;
+import org.mockito.Answers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.result.UpdateResult;
+import com.wowelang.chatserver.cluster.LoopbackClusterBus;
+import com.wowelang.chatserver.cluster.RoomInterestTracker;
+import com.wowelang.chatserver.dto.ChatMessageDto;
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.ChatMessage.MessageType;
+import com.wowelang.chatserver.model.ChatRoom;
+import com.wowelang.chatserver.repository.ChatMessageRepository;
+import com.wowelang.chatserver.repository.ChatRoomRepository;
+import com.wowelang.chatserver.repository.DocumentMessageStore;
+import com.wowelang.chatserver.repository.MessageArchive;
+import com.wowelang.chatserver.repository.ReadCursorRepository;
+import com.wowelang.chatserver.util.UserContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 프로세스 내 STOMP 전송 → 브로드캐스트 경로 벤치마크
+ * 
+ * 실제 ChatMessageService/ChatRoomService/ReadCursorService/RoomMembershipCache와 SimpleBroker를 사용하고,
+ * Mongo 계층(리포지토리, MongoTemplate)만 즉시 응답하는 대역으로 바꿔 애플리케이션 자체의 오버헤드를 측정합니다.
+ * 수신 측 세션 하나가 /topic/chat.{roomId}를 구독하고 있습니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StompSendBroadcastBenchmark {
+
+    private static final String ROOM_ID = "6650f1a2b3c4d5e6f7a8b9c1";
+
+    private ChatMessageService chatMessageService;
+    private SimpleBrokerMessageHandler broker;
+    private final AtomicLong delivered = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        // Mongo 대역
+        ChatMessageRepository chatMessageRepository = mock(ChatMessageRepository.class);
+        when(chatMessageRepository.save(any(ChatMessage.class))).thenAnswer(invocation -> {
+            ChatMessage message = invocation.getArgument(0);
+            message.setId(new ObjectId().toHexString());
+            message.setCreatedAt(Instant.now());
+            return message;
+        });
+
+        ChatRoomRepository chatRoomRepository = mock(ChatRoomRepository.class);
+        ChatRoom room = ChatRoom.builder()
+                .id(ROOM_ID)
+                .participants(List.of("user-a", "user-b"))
+                .messageCount(0L)
+                .build();
+        when(chatRoomRepository.findById(anyString())).thenReturn(Optional.of(room));
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class, invocation ->
+                invocation.getMethod().getReturnType() == UpdateResult.class
+                        ? UpdateResult.acknowledged(1, 1L, null)
+                        : Answers.RETURNS_DEFAULTS.answer(invocation));
+        AtomicLong lastSeq = new AtomicLong();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ChatRoom.class)))
+                .thenAnswer(invocation -> ChatRoom.builder().id(ROOM_ID).lastSeq(lastSeq.addAndGet(100)).build());
+
+        // 인프로세스 브로커
+        ExecutorSubscribableChannel clientInboundChannel = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel clientOutboundChannel = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        clientOutboundChannel.subscribe(message -> delivered.incrementAndGet());
+
+        broker = new SimpleBrokerMessageHandler(clientInboundChannel, clientOutboundChannel, brokerChannel, List.of("/topic", "/queue"));
+        broker.start();
+
+        SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        subscribe.setSessionId("session-b");
+        subscribe.setSubscriptionId("sub-0");
+        subscribe.setDestination("/topic/chat." + ROOM_ID);
+        broker.handleMessage(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate(brokerChannel);
+        messagingTemplate.setMessageConverter(converter);
+
+        // 실제 서비스 구성
+        DocumentMessageStore messageStore = new DocumentMessageStore(chatMessageRepository, mongoTemplate);
+        ReadCursorService readCursorService = new ReadCursorService(mock(ReadCursorRepository.class), mongoTemplate, messageStore);
+        RoomMembershipCache membershipCache = new RoomMembershipCache(chatRoomRepository, new SimpleMeterRegistry(), 1000, 300);
+        MessageArchive messageArchive = mock(MessageArchive.class);
+        ChatRoomService chatRoomService = new ChatRoomService(chatRoomRepository, messageStore, messageArchive, mongoTemplate,
+                readCursorService, membershipCache);
+
+        // 단일 노드 구성: 루프백 버스에 다른 노드가 없으므로 발행은 로컬 전달 외 비용만 측정됨
+        LoopbackClusterBus clusterBus = new LoopbackClusterBus("bench-node");
+        RoomBroadcaster roomBroadcaster = new RoomBroadcaster(messagingTemplate, clusterBus, objectMapper);
+        RecentMessageCache recentMessageCache = new RecentMessageCache(clusterBus, new RoomInterestTracker(clusterBus),
+                objectMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(recentMessageCache, "enabled", true);
+        ReflectionTestUtils.setField(recentMessageCache, "perRoomSize", 50);
+        ReflectionTestUtils.setField(recentMessageCache, "maxBytes", 64L * 1024 * 1024);
+        recentMessageCache.init();
+
+        RoomSequenceAllocator sequenceAllocator = new RoomSequenceAllocator(mongoTemplate, clusterBus,
+                new SimpleMeterRegistry(), 100, 1000, 300);
+
+        chatMessageService = new ChatMessageService(messageStore, messageArchive, chatRoomService, roomBroadcaster,
+                readCursorService, recentMessageCache, sequenceAllocator, Optional.empty());
+        ReflectionTestUtils.setField(chatMessageService, "maxTextLength", 2000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        broker.stop();
+        if (delivered.get() == 0) {
+            throw new IllegalStateException("No message reached the subscriber");
+        }
+    }
+
+    @Benchmark
+    public ChatMessageDto sendAndBroadcast() {
+        UserContext.setUserId("user-a");
+        try {
+            ChatMessageDto dto = ChatMessageDto.builder()
+                    .roomId(ROOM_ID)
+                    .type(MessageType.TEXT)
+                    .content("안녕하세요! Nice to meet you.")
+                    .build();
+            return chatMessageService.sendMessage(dto);
+        } finally {
+            UserContext.clear();
+        }
+    }
+}
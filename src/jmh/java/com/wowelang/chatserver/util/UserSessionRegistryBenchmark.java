@@ -0,0 +1,140 @@
+package com.wowelang.chatserver.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wowelang.chatserver.cluster.LoopbackClusterBus;
+import com.wowelang.chatserver.cluster.SessionSyncMessage;
+import com.wowelang.chatserver.cluster.SessionSyncMessage.Kind;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 클러스터 세션 레지스트리 벤치마크 (동시 세션 sessions개, 노드 nodes개)
+ *
+ * 루프백 버스로 연결된 노드들이 세션을 고르게 나눠 가진 상태에서, 한 노드의 조회 지연(로컬 + 복제본)과
+ * 세션 변경 churn건을 담은 DELTA 페이로드 인코딩 비용을 측정합니다.
+ * DELTA/스냅샷 바이트 수(대역폭 추정치)는 Setup 시 출력됩니다.
+ *
+ * 실행: ./gradlew jmh -PjmhInclude=UserSessionRegistryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserSessionRegistryBenchmark {
+
+    @Param({"100000"})
+    private int sessions;
+
+    @Param({"4"})
+    private int nodes;
+
+    @Param({"100"})
+    private int churn; // delta-interval-ms(100ms) 동안의 연결 + 해제 수
+
+    private final List<LoopbackClusterBus> buses = new ArrayList<>();
+    private final List<UserSessionRegistry> registries = new ArrayList<>();
+    private UserSessionRegistry registry;
+    private ObjectMapper objectMapper;
+    private String[] userIds;
+    private String[] sessionIds;
+    private SessionSyncMessage delta;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        for (int n = 0; n < nodes; n++) {
+            LoopbackClusterBus bus = new LoopbackClusterBus("node-" + n);
+            UserSessionRegistry nodeRegistry = new UserSessionRegistry(bus, objectMapper, new SimpleMeterRegistry());
+            ReflectionTestUtils.setField(nodeRegistry, "leaseMs", 15000L);
+            ReflectionTestUtils.setField(nodeRegistry, "snapshotChunkSize", 5000);
+            nodeRegistry.init();
+            buses.add(bus);
+            registries.add(nodeRegistry);
+        }
+
+        userIds = new String[sessions];
+        sessionIds = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            userIds[i] = "user-" + i;
+            sessionIds[i] = "session-" + Integer.toHexString(i * 31 + 7) + "-" + i;
+            registries.get(i % nodes).registerSession(userIds[i], sessionIds[i]);
+        }
+        registries.forEach(UserSessionRegistry::flushDeltas);
+        registry = registries.get(0);
+
+        if (registry.getUserSessionCount(userIds[1]) != 1) {
+            throw new IllegalStateException("Remote sessions were not replicated");
+        }
+
+        // churn건의 변경(절반 연결, 절반 해제)을 담은 DELTA
+        Map<String, String> added = new HashMap<>();
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < churn; i++) {
+            if (i % 2 == 0) {
+                added.put(sessionIds[i], userIds[i]);
+            } else {
+                removed.add(sessionIds[i]);
+            }
+        }
+        delta = SessionSyncMessage.builder().kind(Kind.DELTA).epoch(System.currentTimeMillis()).seq(1)
+                .added(added).removed(removed).build();
+
+        int deltaBytes = objectMapper.writeValueAsBytes(delta).length;
+        Map<String, String> all = new HashMap<>();
+        for (int i = 0; i < sessions; i++) {
+            all.put(sessionIds[i], userIds[i]);
+        }
+        int snapshotBytes = objectMapper.writeValueAsBytes(SessionSyncMessage.builder()
+                .kind(Kind.SNAPSHOT).epoch(System.currentTimeMillis()).seq(1).added(all).reset(true).build()).length;
+        System.out.printf("%nDELTA (%d건): %d bytes (100ms 간격 시 노드당 %.1f KB/s), 전체 스냅샷 (%d 세션): %.1f MB%n",
+                churn, deltaBytes, deltaBytes * 10 / 1024.0, sessions, snapshotBytes / 1024.0 / 1024.0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        buses.forEach(LoopbackClusterBus::close);
+    }
+
+    @Benchmark
+    public int sessionCountLookup() {
+        int i = cursor++ % sessions;
+        if (cursor >= sessions) {
+            cursor = 0;
+        }
+        return registry.getUserSessionCount(userIds[i]);
+    }
+
+    @Benchmark
+    public String userIdBySessionLookup() {
+        int i = cursor++ % sessions;
+        if (cursor >= sessions) {
+            cursor = 0;
+        }
+        return registry.getUserIdBySessionId(sessionIds[i]);
+    }
+
+    @Benchmark
+    public byte[] encodeDelta() throws Exception {
+        return objectMapper.writeValueAsBytes(delta);
+    }
+}
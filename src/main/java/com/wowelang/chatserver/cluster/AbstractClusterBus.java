@@ -0,0 +1,96 @@
+package com.wowelang.chatserver.cluster;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.util.StringUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 리스너/관심 목록 관리와 수신 이벤트 분배를 담당하는 ClusterBus 공통 구현
+ */
+@Slf4j
+public abstract class AbstractClusterBus implements ClusterBus {
+
+    private final String nodeId;
+    private final Map<String, List<Consumer<ClusterEvent>>> listeners = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> interests = new ConcurrentHashMap<>();
+
+    protected AbstractClusterBus(String nodeId) {
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString();
+        log.info("클러스터 버스 노드 ID: {} ({})", this.nodeId, getClass().getSimpleName());
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void subscribe(String type, Consumer<ClusterEvent> listener) {
+        listeners.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add(listener);
+        onSubscriptionChanged();
+    }
+
+    @Override
+    public void setInterest(String type, Set<String> channels) {
+        interests.put(type, Set.copyOf(channels));
+        onSubscriptionChanged();
+    }
+
+    /**
+     * @return 리스너가 등록된 이벤트 type
+     */
+    protected Set<String> subscribedTypes() {
+        return Collections.unmodifiableSet(listeners.keySet());
+    }
+
+    /**
+     * @return type의 관심 channel 목록 (관심 목록을 지정하지 않았으면 null = 전체 수신)
+     */
+    protected Set<String> interestOf(String type) {
+        return interests.get(type);
+    }
+
+    /**
+     * 리스너나 관심 목록이 바뀌었을 때 호출됩니다. 저장소 측 필터를 다시 구성해야 하는 구현이 재정의합니다.
+     */
+    protected void onSubscriptionChanged() {
+    }
+
+    /**
+     * 다른 노드에서 받은 이벤트를 리스너에 전달합니다.
+     * 자신이 발행한 이벤트와 관심 목록에 없는 channel의 이벤트는 버립니다.
+     */
+    protected void dispatch(ClusterEvent event) {
+        if (nodeId.equals(event.getSourceNodeId())) {
+            return;
+        }
+        
+        List<Consumer<ClusterEvent>> typeListeners = listeners.get(event.getType());
+        if (typeListeners == null) {
+            return;
+        }
+        
+        Set<String> interest = interests.get(event.getType());
+        if (interest != null && !interest.contains(event.getChannel())) {
+            return;
+        }
+        
+        for (Consumer<ClusterEvent> listener : typeListeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("클러스터 이벤트 처리 실패: type={}, channel={}, source={}",
+                        event.getType(), event.getChannel(), event.getSourceNodeId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.wowelang.chatserver.cluster;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 노드 간 이벤트 버스
+ * 
+ * chat.cluster.bus 설정으로 구현을 선택합니다.
+ * - loopback (기본값): 같은 JVM 안의 노드끼리만 전달 (단일 인스턴스 운영, 테스트용)
+ * - mongo: cluster_events 컬렉션의 change stream으로 전달 (레플리카 셋 필요)
+ * 
+ * 자신이 발행한 이벤트는 자신에게 다시 전달되지 않으므로, 로컬 처리는 발행하는 쪽에서 직접 합니다.
+ */
+public interface ClusterBus {
+
+    /**
+     * @return 이 노드의 ID (chat.cluster.node-id, 미설정 시 기동마다 새로 생성)
+     */
+    String getNodeId();
+
+    /**
+     * @return 다른 프로세스의 노드와 이벤트를 주고받는 구현이면 true
+     *         (false이면 이 노드가 유일한 발행자이므로 로컬 상태만으로 일관성이 보장됨)
+     */
+    boolean isClustered();
+
+    /**
+     * 다른 노드에 이벤트를 발행합니다. 발행 실패는 예외 대신 로그로 남깁니다.
+     */
+    void publish(ClusterEvent event);
+
+    /**
+     * type의 이벤트를 수신할 리스너를 등록합니다.
+     * setInterest를 호출하지 않은 type은 모든 channel의 이벤트를 받습니다.
+     */
+    void subscribe(String type, Consumer<ClusterEvent> listener);
+
+    /**
+     * type의 이벤트 중 channels에 속한 것만 받도록 관심 목록을 교체합니다.
+     * 구현에 따라 필터링은 발행 측 저장소(change stream 파이프라인)에서 이루어집니다.
+     */
+    void setInterest(String type, Set<String> channels);
+}
@@ -0,0 +1,27 @@
+package com.wowelang.chatserver.cluster;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 노드 간에 전달되는 이벤트
+ * 
+ * type으로 수신자를 구분하고, channel(예: 채팅방 ID)로 관심 필터링을 합니다.
+ * payload는 직렬화된 JSON 문자열로, 발행 노드에서 한 번만 직렬화됩니다.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterEvent {
+    
+    private String type;
+    
+    private String channel;
+    
+    private String sourceNodeId; // 발행 노드 ID (버스가 채움)
+    
+    private String payload;
+}
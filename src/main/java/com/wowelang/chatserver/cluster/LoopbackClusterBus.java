@@ -0,0 +1,47 @@
+package com.wowelang.chatserver.cluster;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 같은 JVM 안에서 생성된 버스 인스턴스끼리 이벤트를 주고받는 구현 (chat.cluster.bus=loopback, 기본값)
+ * 
+ * 단일 인스턴스 운영에서는 전달 대상이 없으므로 발행 비용이 거의 없고,
+ * 테스트에서는 노드 ID가 다른 인스턴스를 여러 개 만들어 다중 노드 전달을 재현할 수 있습니다.
+ * 이벤트는 발행 스레드에서 동기적으로 전달됩니다.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.cluster.bus", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackClusterBus extends AbstractClusterBus {
+
+    private static final Set<LoopbackClusterBus> NODES = new CopyOnWriteArraySet<>();
+
+    public LoopbackClusterBus(@Value("${chat.cluster.node-id:}") String nodeId) {
+        super(nodeId);
+        NODES.add(this);
+    }
+
+    @Override
+    public boolean isClustered() {
+        return false;
+    }
+
+    @Override
+    public void publish(ClusterEvent event) {
+        ClusterEvent stamped = event.toBuilder().sourceNodeId(getNodeId()).build();
+        for (LoopbackClusterBus node : NODES) {
+            node.dispatch(stamped);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        NODES.remove(this);
+    }
+}
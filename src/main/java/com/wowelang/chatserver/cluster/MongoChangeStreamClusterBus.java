@@ -0,0 +1,217 @@
+package com.wowelang.chatserver.cluster;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * MongoDB change stream 기반 클러스터 버스 (chat.cluster.bus=mongo)
+ *
+ * 발행: cluster_events 컬렉션에 이벤트를 insert합니다. 문서는 TTL 인덱스로 ttl-seconds 후 삭제됩니다.
+ * 수신: 전용 스레드가 change stream을 구독하며, 파이프라인의 $match로 다른 노드가 발행했고
+ *       관심 목록에 속한 이벤트만 받습니다. 즉 구독자가 없는 방의 이벤트는 이 노드로 전송되지 않습니다.
+ *
+ * 관심 목록이 바뀌면 restart-debounce-ms 동안 변경을 모은 뒤 마지막 resume token부터 새 파이프라인으로
+ * change stream을 다시 엽니다. 재시작 사이에 발행된 이벤트도 새 필터로 다시 평가되므로 유실되지 않습니다.
+ *
+ * change stream은 레플리카 셋(로컬은 mongod --replSet)이 필요하며, DocumentDB에서는 컬렉션 단위로
+ * change stream을 활성화해야 합니다 (modifyChangeStreams).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.cluster.bus", havingValue = "mongo")
+public class MongoChangeStreamClusterBus extends AbstractClusterBus {
+
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final long ERROR_BACKOFF_MS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final String collectionName;
+    private final long ttlSeconds;
+    private final long restartDebounceMs;
+
+    private final AtomicBoolean filterChanged = new AtomicBoolean();
+    private volatile boolean running;
+    private Thread listener;
+    private BsonDocument resumeToken; // listener 스레드에서만 사용
+
+    public MongoChangeStreamClusterBus(MongoTemplate mongoTemplate,
+                                       @Value("${chat.cluster.node-id:}") String nodeId,
+                                       @Value("${chat.cluster.mongo.collection:cluster_events}") String collectionName,
+                                       @Value("${chat.cluster.mongo.ttl-seconds:60}") long ttlSeconds,
+                                       @Value("${chat.cluster.mongo.restart-debounce-ms:200}") long restartDebounceMs) {
+        super(nodeId);
+        this.mongoTemplate = mongoTemplate;
+        this.collectionName = collectionName;
+        this.ttlSeconds = ttlSeconds;
+        this.restartDebounceMs = restartDebounceMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        mongoTemplate.indexOps(collectionName).ensureIndex(new Index()
+                .on("createdAt", Sort.Direction.ASC)
+                .expire(ttlSeconds, TimeUnit.SECONDS)
+                .named("created_at_ttl"));
+
+        running = true;
+        listener = new Thread(this::listen, "cluster-bus-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (listener != null) {
+            listener.join(restartDebounceMs * 5);
+        }
+    }
+
+    @Override
+    public boolean isClustered() {
+        return true;
+    }
+
+    @Override
+    public void publish(ClusterEvent event) {
+        Document document = new Document("type", event.getType())
+                .append("channel", event.getChannel())
+                .append("source", getNodeId())
+                .append("payload", event.getPayload())
+                .append("createdAt", new Date());
+        try {
+            collection().insertOne(document);
+        } catch (MongoException e) {
+            log.warn("클러스터 이벤트 발행 실패: type={}, channel={}", event.getType(), event.getChannel(), e);
+        }
+    }
+
+    @Override
+    protected void onSubscriptionChanged() {
+        filterChanged.set(true);
+    }
+
+    private void listen() {
+        while (running) {
+            filterChanged.set(false);
+            try {
+                watchUntilFilterChanges();
+                // 구독/해제가 몰릴 때 재시작을 한 번으로 모음
+                Thread.sleep(restartDebounceMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    log.warn("change stream resume token이 만료되어 현재 시점부터 다시 구독합니다.");
+                    resumeToken = null;
+                } else {
+                    log.error("클러스터 이벤트 수신 오류", e);
+                }
+                backoff();
+            } catch (MongoException e) {
+                if (running) {
+                    log.error("클러스터 이벤트 수신 오류", e);
+                    backoff();
+                }
+            }
+        }
+    }
+
+    private void watchUntilFilterChanges() {
+        ChangeStreamIterable<Document> stream = collection().watch(buildPipeline())
+                .maxAwaitTime(restartDebounceMs, TimeUnit.MILLISECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            while (running && !filterChanged.get()) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change == null) {
+                    // 이벤트가 없어도 post-batch resume token으로 재시작 지점을 앞당김
+                    // 단, tryNext 중에 관심 목록이 바뀌었으면 이번 구간은 이전 필터로 걸러졌으므로 앞당기지 않고 새 필터로 다시 읽음
+                    if (cursor.getResumeToken() != null && !filterChanged.get()) {
+                        resumeToken = cursor.getResumeToken();
+                    }
+                    continue;
+                }
+
+                resumeToken = change.getResumeToken();
+                Document document = change.getFullDocument();
+                if (document != null) {
+                    dispatch(ClusterEvent.builder()
+                            .type(document.getString("type"))
+                            .channel(document.getString("channel"))
+                            .sourceNodeId(document.getString("source"))
+                            .payload(document.getString("payload"))
+                            .build());
+                }
+            }
+        }
+    }
+
+    /**
+     * insert 이벤트 중 다른 노드가 발행했고, 리스너가 있는 type이며, 관심 목록에 속한 channel만 통과시킵니다.
+     */
+    private List<Bson> buildPipeline() {
+        List<Bson> clauses = new ArrayList<>();
+        for (String type : subscribedTypes()) {
+            Set<String> interest = interestOf(type);
+            if (interest == null) {
+                clauses.add(Filters.eq("fullDocument.type", type));
+            } else if (!interest.isEmpty()) {
+                clauses.add(Filters.and(Filters.eq("fullDocument.type", type), Filters.in("fullDocument.channel", interest)));
+            }
+        }
+        if (clauses.isEmpty()) {
+            // 받을 이벤트가 없어도 resume token을 계속 갱신하기 위해 아무것도 통과하지 않는 필터로 구독 유지
+            clauses.add(Filters.in("fullDocument.type", List.of()));
+        }
+
+        return List.of(Aggregates.match(Filters.and(
+                Filters.eq("operationType", "insert"),
+                Filters.ne("fullDocument.source", getNodeId()),
+                Filters.or(clauses))));
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(collectionName);
+    }
+
+    private void backoff() {
+        try {
+            Thread.sleep(ERROR_BACKOFF_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
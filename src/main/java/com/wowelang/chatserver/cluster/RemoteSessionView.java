@@ -0,0 +1,195 @@
+package com.wowelang.chatserver.cluster;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 다른 노드들의 세션 복제본
+ * 
+ * 변경(apply*, expire)은 버스 수신 스레드에서 직렬화되어 일어나고, 조회는 ConcurrentHashMap을 락 없이 읽습니다.
+ * 세션 변경은 노드별 seq 순서대로 적용되며, 누락이 감지되면 호출자에게 false를 반환하여 스냅샷 요청을 유도합니다.
+ */
+public class RemoteSessionView {
+
+    private final Map<String, NodeState> nodes = new ConcurrentHashMap<>();
+    
+    // 사용자 ID → 세션 ID 집합 (모든 원격 노드)
+    private final Map<String, Set<String>> userSessions = new ConcurrentHashMap<>();
+    
+    // 세션 ID → 소유 정보
+    private final Map<String, SessionOwner> sessionOwners = new ConcurrentHashMap<>();
+
+    public record SessionOwner(String nodeId, String userId) {
+    }
+
+    private static class NodeState {
+        private final long epoch;
+        private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+        private long lastSeq;
+        private long lastSeenAt;
+
+        private NodeState(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    /**
+     * 세션 변경을 적용합니다.
+     * 
+     * @return 순서대로 적용되었으면 true, 처음 보는 노드이거나 누락이 있으면 false (스냅샷 필요)
+     */
+    public synchronized boolean applyDelta(String nodeId, long epoch, long seq,
+                                           Map<String, String> added, Collection<String> removed, long now) {
+        NodeState node = nodes.get(nodeId);
+        boolean inOrder = node != null && node.epoch == epoch && seq == node.lastSeq + 1;
+        if (node != null && node.epoch == epoch && seq <= node.lastSeq) {
+            node.lastSeenAt = now;
+            return true; // 이미 반영된 변경 (스냅샷에 포함된 경우)
+        }
+        
+        node = stateOf(nodeId, epoch);
+        apply(nodeId, node, added, removed);
+        node.lastSeq = seq;
+        node.lastSeenAt = now;
+        return inOrder;
+    }
+
+    /**
+     * 스냅샷 청크를 적용합니다. reset이면 노드의 기존 세션을 모두 지운 뒤 적용합니다.
+     */
+    public synchronized void applySnapshot(String nodeId, long epoch, long asOfSeq,
+                                           Map<String, String> sessions, boolean reset, long now) {
+        NodeState node = stateOf(nodeId, epoch);
+        if (reset) {
+            clear(nodeId, node);
+        }
+        apply(nodeId, node, sessions, null);
+        node.lastSeq = Math.max(node.lastSeq, asOfSeq);
+        node.lastSeenAt = now;
+    }
+
+    /**
+     * 하트비트를 기록합니다.
+     * 
+     * @return 상태가 최신이면 true, 처음 보는 노드이거나 DELTA를 놓쳤으면 false (스냅샷 필요)
+     */
+    public synchronized boolean heartbeat(String nodeId, long epoch, long seq, long now) {
+        NodeState node = nodes.get(nodeId);
+        if (node == null || node.epoch != epoch) {
+            return false;
+        }
+        node.lastSeenAt = now;
+        return node.lastSeq >= seq;
+    }
+
+    /**
+     * 세션을 소유 노드의 DELTA를 기다리지 않고 바로 제거합니다 (KICK 전송 시).
+     */
+    public synchronized void removeSessions(Collection<String> sessionIds) {
+        for (String sessionId : sessionIds) {
+            SessionOwner owner = sessionOwners.get(sessionId);
+            NodeState node = owner != null ? nodes.get(owner.nodeId()) : null;
+            if (node != null) {
+                apply(owner.nodeId(), node, null, List.of(sessionId));
+            }
+        }
+    }
+
+    /**
+     * lease 동안 소식이 없는 노드의 세션을 모두 제거합니다.
+     * 
+     * @return 제거된 노드 ID 목록
+     */
+    public synchronized List<String> expire(long now, long leaseMs) {
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, NodeState> entry : nodes.entrySet()) {
+            if (now - entry.getValue().lastSeenAt > leaseMs) {
+                expired.add(entry.getKey());
+            }
+        }
+        expired.forEach(this::removeNode);
+        return expired;
+    }
+
+    public synchronized void removeNode(String nodeId) {
+        NodeState node = nodes.remove(nodeId);
+        if (node != null) {
+            clear(nodeId, node);
+        }
+    }
+
+    public Set<String> getUserSessions(String userId) {
+        return userSessions.getOrDefault(userId, Collections.emptySet());
+    }
+
+    public int getUserSessionCount(String userId) {
+        Set<String> sessions = userSessions.get(userId);
+        return sessions != null ? sessions.size() : 0;
+    }
+
+    public SessionOwner getOwner(String sessionId) {
+        return sessionOwners.get(sessionId);
+    }
+
+    public Set<String> getUsers() {
+        return Collections.unmodifiableSet(userSessions.keySet());
+    }
+
+    public int getSessionCount() {
+        return sessionOwners.size();
+    }
+
+    private NodeState stateOf(String nodeId, long epoch) {
+        NodeState node = nodes.get(nodeId);
+        if (node != null && node.epoch != epoch) {
+            // 같은 노드 ID로 재기동: 이전 실행의 세션은 더 이상 유효하지 않음
+            removeNode(nodeId);
+            node = null;
+        }
+        if (node == null) {
+            node = new NodeState(epoch);
+            nodes.put(nodeId, node);
+        }
+        return node;
+    }
+
+    private void apply(String nodeId, NodeState node, Map<String, String> added, Collection<String> removed) {
+        if (added != null) {
+            for (Map.Entry<String, String> entry : added.entrySet()) {
+                String sessionId = entry.getKey();
+                String userId = entry.getValue();
+                SessionOwner previous = sessionOwners.put(sessionId, new SessionOwner(nodeId, userId));
+                if (previous != null && !previous.userId().equals(userId)) {
+                    removeUserSession(previous.userId(), sessionId);
+                }
+                node.sessions.add(sessionId);
+                userSessions.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(sessionId);
+            }
+        }
+        if (removed != null) {
+            for (String sessionId : removed) {
+                node.sessions.remove(sessionId);
+                SessionOwner owner = sessionOwners.remove(sessionId);
+                if (owner != null) {
+                    removeUserSession(owner.userId(), sessionId);
+                }
+            }
+        }
+    }
+
+    private void clear(String nodeId, NodeState node) {
+        apply(nodeId, node, null, new ArrayList<>(node.sessions));
+    }
+
+    private void removeUserSession(String userId, String sessionId) {
+        userSessions.computeIfPresent(userId, (k, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+}
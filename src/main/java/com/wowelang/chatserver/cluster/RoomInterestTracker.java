@@ -0,0 +1,135 @@
+package com.wowelang.chatserver.cluster;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import com.wowelang.chatserver.service.RoomBroadcaster;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 이 노드에 구독자가 있는 채팅방을 추적하여 클러스터 버스 관심 목록으로 반영합니다.
+ * 
+ * 방별 로컬 구독 수가 0 ↔ 1로 바뀔 때만 관심 목록을 갱신하므로, 같은 방에 구독이 추가되는 경우는 비용이 없습니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomInterestTracker {
+
+    private final ClusterBus clusterBus;
+
+    // 세션 ID → (구독 ID → 채팅방 ID)
+    private final Map<String, Map<String, String>> sessionSubscriptions = new ConcurrentHashMap<>();
+    
+    // 채팅방 ID → 로컬 구독 수
+    private final Map<String, AtomicInteger> roomSubscriberCounts = new ConcurrentHashMap<>();
+    
+    // 방의 마지막 로컬 구독이 해제될 때 호출 (이후 그 방의 다른 노드 이벤트는 이 노드로 오지 않음)
+    private final List<Consumer<String>> releaseListeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        // 관심 목록을 지정하지 않으면 모든 방의 이벤트를 받으므로, 시작 시 빈 목록으로 설정
+        publishInterest();
+    }
+
+    /**
+     * @return 이 노드에 채팅방 구독자가 있으면 true (= 클러스터 버스로 그 방의 이벤트를 받고 있음)
+     */
+    public boolean hasLocalSubscribers(String roomId) {
+        return roomSubscriberCounts.containsKey(roomId);
+    }
+
+    public void addReleaseListener(Consumer<String> listener) {
+        releaseListeners.add(listener);
+    }
+
+    @EventListener
+    public void handleSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String roomId = RoomBroadcaster.roomIdOf(accessor.getDestination());
+        if (roomId == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        
+        String previous = sessionSubscriptions
+                .computeIfAbsent(accessor.getSessionId(), k -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), roomId);
+        if (previous != null) {
+            release(previous);
+        }
+        acquire(roomId);
+    }
+
+    @EventListener
+    public void handleUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = sessionSubscriptions.get(accessor.getSessionId());
+        if (subscriptions == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        
+        String roomId = subscriptions.remove(accessor.getSubscriptionId());
+        if (roomId != null) {
+            release(roomId);
+        }
+    }
+
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessionSubscriptions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    private void acquire(String roomId) {
+        boolean[] added = new boolean[1];
+        roomSubscriberCounts.compute(roomId, (k, count) -> {
+            if (count == null) {
+                added[0] = true;
+                return new AtomicInteger(1);
+            }
+            count.incrementAndGet();
+            return count;
+        });
+        if (added[0]) {
+            publishInterest();
+        }
+    }
+
+    private void release(String roomId) {
+        boolean[] removed = new boolean[1];
+        roomSubscriberCounts.computeIfPresent(roomId, (k, count) -> {
+            if (count.decrementAndGet() <= 0) {
+                removed[0] = true;
+                return null;
+            }
+            return count;
+        });
+        if (removed[0]) {
+            publishInterest();
+            releaseListeners.forEach(listener -> listener.accept(roomId));
+        }
+    }
+
+    // 스냅샷 생성과 반영을 직렬화하여 나중에 반영된 목록이 항상 최신 상태가 되도록 함
+    private synchronized void publishInterest() {
+        clusterBus.setInterest(RoomBroadcaster.EVENT_TYPE, roomSubscriberCounts.keySet());
+        log.debug("채팅방 관심 목록 갱신: {}개 방", roomSubscriberCounts.size());
+    }
+}
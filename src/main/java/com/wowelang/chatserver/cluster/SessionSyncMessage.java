@@ -0,0 +1,41 @@
+package com.wowelang.chatserver.cluster;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 노드 간 세션 레지스트리 동기화 메시지 (ClusterEvent.payload)
+ * 
+ * epoch는 노드 기동 시각으로, 같은 노드 ID로 재기동한 경우 이전 상태를 버리는 데 사용합니다.
+ * seq는 DELTA마다 1씩 증가하며, 수신 측은 누락을 감지하면 SYNC_REQUEST로 전체 스냅샷을 요청합니다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class SessionSyncMessage {
+    
+    private Kind kind;
+    
+    private long epoch;
+    
+    private long seq; // DELTA: 이 변경의 번호, HEARTBEAT/SNAPSHOT: 마지막으로 발행한 DELTA 번호
+    
+    private Map<String, String> added; // 세션 ID → 사용자 ID
+    
+    private List<String> removed; // 세션 ID
+    
+    private boolean reset; // SNAPSHOT 첫 청크: 기존 상태를 지우고 다시 채움
+    
+    public enum Kind {
+        DELTA, HEARTBEAT, SNAPSHOT, SYNC_REQUEST, KICK, LEAVE
+    }
+}
@@ -1,8 +1,11 @@
 package com.wowelang.chatserver.config;
 
+import java.util.concurrent.ThreadPoolExecutor;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
@@ -21,6 +24,12 @@ public class AwsS3Config {
     
     @Value("${aws.secretKey}")
     private String secretKey;
+    
+    @Value("${aws.s3.presign-batch.pool-size:0}")
+    private int presignPoolSize;
+    
+    @Value("${aws.s3.presign-batch.queue-capacity:1000}")
+    private int presignQueueCapacity;
 
     @Bean
     public S3Client s3Client() {
@@ -45,4 +54,22 @@ public class AwsS3Config {
                 .credentialsProvider(StaticCredentialsProvider.create(awsCredentials))
                 .build();
     }
-} 
\ No newline at end of file
+
+    /**
+     * 일괄 Presigned URL 서명용 실행기
+     * 서명은 CPU 작업이므로 기본 스레드 수는 코어 수이며, 큐가 가득 차면 요청 스레드에서 직접 서명합니다.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor presignExecutor() {
+        int poolSize = presignPoolSize > 0 ? presignPoolSize : Runtime.getRuntime().availableProcessors();
+        
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("s3-presign-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(presignQueueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
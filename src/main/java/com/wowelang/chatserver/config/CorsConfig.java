@@ -4,6 +4,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.wowelang.chatserver.controller.ChatMessageController;
+
 @Configuration
 public class CorsConfig implements WebMvcConfigurer {
 
@@ -13,6 +15,7 @@ public class CorsConfig implements WebMvcConfigurer {
 			.addMapping("/**")
 			.allowedHeaders("*")
 			.allowedOrigins("*")
-			.allowedMethods("*");
+			.allowedMethods("*")
+			.exposedHeaders(ChatMessageController.NEXT_CURSOR_HEADER);
 	}
 }
@@ -2,6 +2,7 @@ package com.wowelang.chatserver.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
@@ -16,9 +17,11 @@ import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 /**
  * 로우 레벨의 WebSocket 프레임을 디버깅하기 위한 커스텀 핸들러 설정
+ * 프레임을 16진수로 덤프하므로 wire-debug 프로필에서만 디버그 엔드포인트를 등록합니다.
  */
 @Slf4j
 @Configuration
+@Profile("wire-debug")
 public class CustomStompWebSocketHandlerConfig implements WebSocketConfigurer {
 
     @Value("${websocket.endpoint}")
@@ -17,6 +17,8 @@ import com.wowelang.chatserver.model.ChatRoom;
 import com.wowelang.chatserver.model.MatchRequest;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
@@ -44,6 +46,19 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         return database;
     }
 
+    // 기동 중에는 인덱스를 만들지 않음. 기존 데이터의 중복으로 유니크 인덱스 생성이 실패해도 기동이 멈추지 않도록
+    // 중복 정리 후 MongoIndexJob이 만듦 (spring.data.mongodb.auto-index-creation)
+    @Override
+    protected boolean autoIndexCreation() {
+        return false;
+    }
+
+    // 기동 시 엔티티를 미리 등록해 MongoTemplate으로만 쓰는 컬렉션(message_buckets 등)의 인덱스도 MongoIndexJob이 만들 수 있도록 함
+    @Override
+    protected Collection<String> getMappingBasePackages() {
+        return List.of(ChatRoom.class.getPackageName());
+    }
+
     // 모든 인증서를 신뢰하는 SSLSocketFactory 생성
     private SSLSocketFactory createTrustAllSSLSocketFactory() {
         try {
@@ -0,0 +1,12 @@
+package com.wowelang.chatserver.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 주기 작업(@Scheduled) 활성화 설정
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
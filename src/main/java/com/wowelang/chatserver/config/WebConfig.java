@@ -23,6 +23,8 @@ public class WebConfig implements WebMvcConfigurer {
                     "/chat-websocket/**",
                     "/web/**",
                     "/error",
+                    // 액추에이터는 별도 관리 포트(management.server.port)에서만 제공
+                    "/actuator/**",
                     "/favicon.ico",
                     "/test.html"
                 );
@@ -0,0 +1,54 @@
+package com.wowelang.chatserver.config;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * STOMP 채널(clientInbound, clientOutbound, broker)별 실행기 설정
+ * 
+ * websocket.channels.inbound.core-pool-size=16 과 같이 채널마다 지정합니다.
+ */
+@Data
+@ConfigurationProperties(prefix = "websocket.channels")
+public class WebSocketChannelProperties {
+
+    private Pool inbound = new Pool();
+
+    private Pool outbound = new Pool();
+
+    private Pool broker = new Pool();
+
+    @Data
+    public static class Pool {
+
+        private int corePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+
+        private int maxPoolSize = Runtime.getRuntime().availableProcessors() * 2;
+
+        private int queueCapacity = 10000;
+
+        private int keepAliveSeconds = 60;
+
+        private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+
+        private boolean virtualThreads = false; // true이면 풀 스레드를 가상 스레드로 생성 (Java 21)
+
+        private int virtualMaxPoolSize = 1024; // spring.threads.virtual.enabled=true일 때 동시 처리 한도 (core=max로 사용)
+    }
+
+    public enum RejectionPolicy {
+        ABORT, CALLER_RUNS, DISCARD;
+
+        public RejectedExecutionHandler toHandler() {
+            return switch (this) {
+                case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+                case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+                case DISCARD -> new ThreadPoolExecutor.DiscardPolicy();
+            };
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.wowelang.chatserver.config;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -14,14 +22,19 @@ import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
 
+import com.wowelang.chatserver.interceptor.SampledFrameLogger;
 import com.wowelang.chatserver.interceptor.StompFrameDebugInterceptor;
 import com.wowelang.chatserver.interceptor.UserIdChannelInterceptor;
 import com.wowelang.chatserver.decorator.EmaWebSocketHandlerDecorator;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@EnableConfigurationProperties(WebSocketChannelProperties.class)
 @RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
@@ -33,19 +46,28 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
     @Value("${websocket.heartbeat.client-to-server:30000}")
     private long clientToServerHeartbeat;
+    
+    // Tomcat 요청 처리와 동일한 스위치로 STOMP inbound 처리도 가상 스레드로 전환
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
 
     // allowedOrigins 변수는 현재 setAllowedOriginPatterns("*")로 대체되었으므로 주석 처리하거나 삭제 가능
     // @Value("${websocket.allowed-origins}")
     // private String allowedOrigins;
 
     private final UserIdChannelInterceptor userIdChannelInterceptor;
-    private final StompFrameDebugInterceptor stompFrameDebugInterceptor;
+    private final SampledFrameLogger sampledFrameLogger;
+    private final Optional<StompFrameDebugInterceptor> stompFrameDebugInterceptor; // wire-debug 프로필에서만 존재
+    private final WebSocketChannelProperties channelProperties;
+    private final MeterRegistry meterRegistry;
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.enableSimpleBroker("/topic", "/queue")
                 .setHeartbeatValue(new long[]{serverToClientHeartbeat, clientToServerHeartbeat}) // 하트비트 주기 설정
                 .setTaskScheduler(taskScheduler()); // 하트비트를 위한 스케줄러 설정
+        registry.configureBrokerChannel()
+                .taskExecutor(createChannelExecutor("broker", channelProperties.getBroker()));
         registry.setApplicationDestinationPrefixes("/app");
         registry.setUserDestinationPrefix("/user");
     }
@@ -58,8 +80,18 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        // StompFrameDebugInterceptor를 먼저 등록하여 원시 프레임을 먼저 로깅
-        registration.interceptors(stompFrameDebugInterceptor, userIdChannelInterceptor);
+        // wire-debug 프로필에서는 StompFrameDebugInterceptor를 먼저 등록하여 원시 프레임을 먼저 로깅
+        // 그 외에는 샘플링 로거만 사용
+        List<ChannelInterceptor> interceptors = new ArrayList<>();
+        stompFrameDebugInterceptor.ifPresentOrElse(interceptors::add, () -> interceptors.add(sampledFrameLogger));
+        interceptors.add(userIdChannelInterceptor);
+        registration.interceptors(interceptors.toArray(new ChannelInterceptor[0]));
+        registration.taskExecutor(createChannelExecutor("inbound", inboundPool()));
+    }
+    
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(createChannelExecutor("outbound", channelProperties.getOutbound()));
     }
     
     @Override
@@ -72,6 +104,78 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         });
     }
     
+    /**
+     * inbound 채널 풀 설정
+     * 
+     * 가상 스레드 모드에서는 Mongo/S3 호출로 블로킹되는 @MessageMapping 처리를 가상 스레드에서 실행합니다.
+     * 가상 스레드는 생성 비용이 낮으므로 core=max=virtual-max-pool-size로 두고 동시 처리 한도로만 사용합니다.
+     */
+    private WebSocketChannelProperties.Pool inboundPool() {
+        WebSocketChannelProperties.Pool pool = channelProperties.getInbound();
+        if (!virtualThreadsEnabled) {
+            return pool;
+        }
+        
+        WebSocketChannelProperties.Pool virtualPool = new WebSocketChannelProperties.Pool();
+        virtualPool.setCorePoolSize(pool.getVirtualMaxPoolSize());
+        virtualPool.setMaxPoolSize(pool.getVirtualMaxPoolSize());
+        virtualPool.setQueueCapacity(pool.getQueueCapacity());
+        virtualPool.setKeepAliveSeconds(pool.getKeepAliveSeconds());
+        virtualPool.setRejectionPolicy(pool.getRejectionPolicy());
+        virtualPool.setVirtualThreads(true);
+        return virtualPool;
+    }
+    
+    /**
+     * STOMP 채널용 실행기를 생성하고 메트릭을 등록합니다.
+     * 
+     * 메트릭 (tag channel=inbound|outbound|broker):
+     * - websocket.channel.queue.size / active / pool.size: 대기 작업 수, 실행 중 스레드 수, 풀 크기
+     * - websocket.channel.task.wait: 작업이 큐에서 대기한 시간
+     * - websocket.channel.task.duration: 작업 실행 시간
+     */
+    private ThreadPoolTaskExecutor createChannelExecutor(String channel, WebSocketChannelProperties.Pool pool) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ws-" + channel + "-");
+        executor.setCorePoolSize(pool.getCorePoolSize());
+        executor.setMaxPoolSize(Math.max(pool.getCorePoolSize(), pool.getMaxPoolSize()));
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        executor.setKeepAliveSeconds(pool.getKeepAliveSeconds());
+        executor.setRejectedExecutionHandler(pool.getRejectionPolicy().toHandler());
+        executor.setVirtualThreads(pool.isVirtualThreads());
+        
+        Timer waitTimer = Timer.builder("websocket.channel.task.wait")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Timer durationTimer = Timer.builder("websocket.channel.task.duration")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        executor.setTaskDecorator(task -> {
+            long queuedAt = System.nanoTime();
+            return () -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } finally {
+                    durationTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            };
+        });
+        
+        Gauge.builder("websocket.channel.queue.size", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .tag("channel", channel)
+                .register(meterRegistry);
+        
+        return executor;
+    }
+    
     /**
      * WebSocket 하트비트를 위한 TaskScheduler Bean 생성
      */
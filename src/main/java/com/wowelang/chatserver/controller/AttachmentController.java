@@ -1,5 +1,9 @@
 package com.wowelang.chatserver.controller;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -8,6 +12,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.wowelang.chatserver.dto.BatchPresignRequest;
+import com.wowelang.chatserver.dto.BatchPresignedGetRequest;
 import com.wowelang.chatserver.dto.PresignedUrlRequest;
 import com.wowelang.chatserver.dto.PresignedUrlResponse;
 import com.wowelang.chatserver.service.S3Service;
@@ -42,6 +48,34 @@ public class AttachmentController {
      */
     @GetMapping("/presigned-url")
     public ResponseEntity<PresignedUrlResponse> getPresignedGetUrl(@RequestParam("s3Key") String s3Key) {
-        return ResponseEntity.ok(s3Service.generatePresignedGetUrl(s3Key));
+        PresignedUrlResponse response = s3Service.generatePresignedGetUrl(s3Key);
+        
+        // URL이 유효한 동안(safety-margin 제외) 요청한 클라이언트만 같은 응답을 재사용하도록 함
+        // 응답은 X-User-Id로 인증된 사용자의 것이므로 CDN/공유 캐시에 저장되지 않도록 private
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(s3Service.getReusableSeconds(response), TimeUnit.SECONDS).cachePrivate())
+                .body(response);
+    }
+    
+    /**
+     * 여러 파일의 업로드용 PUT Presigned URL을 한 번에 생성합니다. (최대 aws.s3.presign-batch.max-size개)
+     * 
+     * @param request MIME 타입 목록
+     * @return 요청 순서대로의 Presigned URL 정보 목록
+     */
+    @PostMapping("/presign/batch")
+    public ResponseEntity<List<PresignedUrlResponse>> getPresignedUrls(@Valid @RequestBody BatchPresignRequest request) {
+        return ResponseEntity.ok(s3Service.generatePresignedUrls(request.getMimeTypes()));
+    }
+    
+    /**
+     * 여러 파일의 GET Presigned URL을 한 번에 반환합니다. (최대 aws.s3.presign-batch.max-size개)
+     * 
+     * @param request S3 객체 키 목록
+     * @return 요청 순서대로의 Presigned URL 정보 목록
+     */
+    @PostMapping("/presigned-url/batch")
+    public ResponseEntity<List<PresignedUrlResponse>> getPresignedGetUrls(@Valid @RequestBody BatchPresignedGetRequest request) {
+        return ResponseEntity.ok(s3Service.generatePresignedGetUrls(request.getS3Keys()));
     }
-} 
\ No newline at end of file
+}
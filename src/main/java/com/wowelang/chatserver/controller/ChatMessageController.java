@@ -2,8 +2,11 @@ package com.wowelang.chatserver.controller;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -12,12 +15,16 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.wowelang.chatserver.dto.ChatMessageDto;
+import com.wowelang.chatserver.dto.MessagePageDto;
+import com.wowelang.chatserver.dto.ReadReceiptDto;
 import com.wowelang.chatserver.service.ChatMessageService;
-import com.wowelang.chatserver.util.UserContext;
+import com.wowelang.chatserver.service.MessageExportService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -27,36 +34,87 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ChatMessageController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ChatMessageService chatMessageService;
+    private final MessageExportService messageExportService;
 
     @MessageMapping("/chat.send.{roomId}")
     public void sendMessage(@DestinationVariable String roomId, @Valid ChatMessageDto messageDto, StompHeaderAccessor accessor) {
-        // 헤더에서 직접 사용자 ID 가져오기
+        // 헤더에서 직접 사용자 ID 가져오기 (UserContext는 UserIdChannelInterceptor.beforeHandle에서 설정됨)
         String userId = accessor.getUser() != null ? accessor.getUser().getName() : null;
         
-        // UserContext에 사용자 ID 설정
-        if (userId != null) {
-            UserContext.setUserId(userId);
-        }
-        
         messageDto.setRoomId(roomId);
         messageDto.setSenderId(userId); // 메시지에 발신자 ID 명시적으로 설정
         
         chatMessageService.sendMessage(messageDto);
     }
 
+    @MessageMapping("/chat.read.{roomId}")
+    public void markRead(@DestinationVariable String roomId, ReadReceiptDto receipt) {
+        chatMessageService.markRead(roomId, receipt);
+    }
+
+    /**
+     * 메시지 기록 조회 (최신순)
+     * 본문은 메시지 배열이며, 다음 페이지가 있으면 X-Next-Cursor 헤더로 커서를 반환합니다.
+     */
     @GetMapping
     public ResponseEntity<List<ChatMessageDto>> getMessages(
             @PathVariable String roomId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant before,
+            @RequestParam(required = false) String cursor,
             @RequestParam(required = false) Integer size) {
         
-        return ResponseEntity.ok(chatMessageService.getRoomMessages(roomId, before, size));
+        MessagePageDto page = chatMessageService.getRoomMessages(roomId, before, cursor, size);
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getMessages());
+    }
+
+    /**
+     * 메시지 기록 내보내기 (오래된 순, 한 줄에 메시지 하나인 NDJSON)
+     * Accept-Encoding에 gzip이 있으면 gzip으로 압축하여 응답합니다.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportMessages(
+            @PathVariable String roomId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String senderId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        
+        // 스트리밍은 다른 스레드에서 진행되므로 권한 확인은 응답을 시작하기 전에 요청 스레드에서 수행
+        messageExportService.validateExport(roomId, from, to);
+        
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                // 쓰기 오류(연결 끊김 등)로 중단되어도 Deflater의 네이티브 메모리를 바로 해제
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 8192)) {
+                    messageExportService.writeNdjson(roomId, from, to, senderId, compressed);
+                }
+            } else {
+                messageExportService.writeNdjson(roomId, from, to, senderId, out);
+            }
+        };
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"room-" + roomId + ".ndjson\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
     @DeleteMapping("/{messageId}")
-    public ResponseEntity<Void> deleteMessage(@PathVariable String messageId) {
-        chatMessageService.deleteMessage(messageId);
+    public ResponseEntity<Void> deleteMessage(@PathVariable String roomId, @PathVariable String messageId) {
+        chatMessageService.deleteMessage(roomId, messageId);
         return ResponseEntity.noContent().build();
     }
 } 
\ No newline at end of file
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.wowelang.chatserver.dto.MatchRequestDto;
+import com.wowelang.chatserver.dto.MatchRequestPageDto;
 import com.wowelang.chatserver.model.MatchRequest.MatchStatus;
 import com.wowelang.chatserver.service.MatchRequestService;
 
@@ -38,15 +39,48 @@ public class MatchController {
         return ResponseEntity.ok(matchRequestService.rejectMatchRequest(requestId));
     }
     
+    /**
+     * 받은 요청과 보낸 요청을 합친 목록 (updatedAt 최신순)
+     * 본문은 요청 배열이며, 다음 페이지가 있으면 X-Next-Cursor 헤더로 커서를 반환합니다.
+     */
     @GetMapping
     public ResponseEntity<List<MatchRequestDto>> getMatchRequests(
-            @RequestParam(required = false, defaultValue = "PENDING") MatchStatus status) {
+            @RequestParam(required = false, defaultValue = "PENDING") MatchStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         
-        if (status == MatchStatus.PENDING) {
-            return ResponseEntity.ok(matchRequestService.getPendingRequests());
-        }
+        return toResponse(matchRequestService.getMatchRequests(status, cursor, size));
+    }
+    
+    /**
+     * 받은 요청 목록 (updatedAt 최신순)
+     */
+    @GetMapping("/inbox")
+    public ResponseEntity<List<MatchRequestDto>> getInbox(
+            @RequestParam(required = false, defaultValue = "PENDING") MatchStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         
-        // 다른 상태의 요청은 아직 구현하지 않음
-        return ResponseEntity.ok(List.of());
+        return toResponse(matchRequestService.getInbox(status, cursor, size));
+    }
+    
+    /**
+     * 보낸 요청 목록 (updatedAt 최신순)
+     */
+    @GetMapping("/outbox")
+    public ResponseEntity<List<MatchRequestDto>> getOutbox(
+            @RequestParam(required = false, defaultValue = "PENDING") MatchStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        
+        return toResponse(matchRequestService.getOutbox(status, cursor, size));
+    }
+    
+    private ResponseEntity<List<MatchRequestDto>> toResponse(MatchRequestPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(ChatMessageController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getRequests());
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
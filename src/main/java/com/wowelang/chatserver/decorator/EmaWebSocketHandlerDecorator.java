@@ -1,6 +1,7 @@
 package com.wowelang.chatserver.decorator;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,11 +16,19 @@ import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
  * 웹소켓 핸들러 데코레이터로 STOMP 프로토콜을 수동으로 테스트할 수 있게 해줍니다.
  * 클라이언트 측에서 null 문자가 없이 전송된 메시지에 자동으로 null 문자를 추가합니다.
  * 또한 필요한 경우 캐리지 리턴을 추가합니다.
+ * 
+ * 모든 수신 프레임에 적용되므로 이미 종결된 프레임은 할당 없이 그대로 통과시키고,
+ * 명령 인식은 예외 없이 미리 만든 길이별 테이블로 처리합니다.
  */
 public class EmaWebSocketHandlerDecorator extends WebSocketHandlerDecorator {
 
     private static final Logger logger = LoggerFactory.getLogger(EmaWebSocketHandlerDecorator.class);
 
+    private static final char NULL_CHAR = '\u0000';
+
+    // 명령 이름 길이 -> 해당 길이의 STOMP 명령 목록
+    private static final StompCommand[][] COMMANDS_BY_LENGTH = buildCommandTable();
+
     public EmaWebSocketHandlerDecorator(WebSocketHandler webSocketHandler) {
         super(webSocketHandler);
     }
@@ -33,58 +42,77 @@ public class EmaWebSocketHandlerDecorator extends WebSocketHandlerDecorator {
      * 지정된 메시지의 내용을 업데이트합니다. 메시지가 TextMessage이고 끝에 null 문자가 없는 경우에만 
      * 업데이트됩니다. 명령이 본문을 필요로 하지 않는 경우 캐리지 리턴이 누락되었다면 추가됩니다.
      */
-    private WebSocketMessage<?> updateBodyIfNeeded(WebSocketMessage<?> message) {
-        if (!(message instanceof TextMessage) || ((TextMessage) message).getPayload().endsWith("\u0000")) {
+    WebSocketMessage<?> updateBodyIfNeeded(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage textMessage)) {
             return message;
         }
 
-        String payload = ((TextMessage) message).getPayload();
-        
-        logger.debug("메시지 페이로드: '{}'", payload);
+        String payload = textMessage.getPayload();
+        int length = payload.length();
+
+        if (length > 0 && payload.charAt(length - 1) == NULL_CHAR) {
+            return message;
+        }
 
-        final Optional<StompCommand> stompCommand = getStompCommand(payload);
+        StompCommand stompCommand = getStompCommand(payload);
 
-        if (!stompCommand.isPresent()) {
+        if (stompCommand == null) {
             logger.debug("STOMP 명령을 인식할 수 없습니다. 원본 메시지 반환");
             return message;
         }
 
-        logger.debug("STOMP 명령 감지: {}", stompCommand.get());
-
-        if (!stompCommand.get().isBodyAllowed() && !payload.endsWith("\n\n")) {
-            logger.debug("본문이 불필요한 명령에 개행 문자 추가");
-            if (payload.endsWith("\n")) {
-                payload += "\n";
-            } else {
-                payload += "\n\n";
-            }
+        String suffix;
+        if (!stompCommand.isBodyAllowed() && !payload.endsWith("\n\n")) {
+            // 본문이 불필요한 명령에 개행 문자 추가
+            suffix = payload.endsWith("\n") ? "\n\u0000" : "\n\n\u0000";
+        } else {
+            suffix = "\u0000";
         }
 
-        payload += "\u0000";
-        
-        logger.debug("업데이트된 페이로드: '{}'", payload);
+        if (logger.isDebugEnabled()) {
+            logger.debug("STOMP 명령 {} 프레임에 종결자 추가 (페이로드 {}자)", stompCommand, length);
+        }
 
-        return new TextMessage(payload);
+        return new TextMessage(payload.concat(suffix));
     }
 
     /**
-     * 지정된 페이로드와 연관된 STOMP 명령을 반환합니다.
+     * 지정된 페이로드와 연관된 STOMP 명령을 반환합니다. 인식할 수 없으면 null을 반환합니다.
      */
-    private Optional<StompCommand> getStompCommand(String payload) {
+    static StompCommand getStompCommand(String payload) {
         final int firstCarriageReturn = payload.indexOf('\n');
 
-        if (firstCarriageReturn < 0) {
-            return Optional.empty();
+        if (firstCarriageReturn <= 0 || firstCarriageReturn >= COMMANDS_BY_LENGTH.length) {
+            return null;
         }
 
-        try {
-            return Optional.of(
-                    StompCommand.valueOf(payload.substring(0, firstCarriageReturn))
-            );
-        } catch (IllegalArgumentException e) {
-            logger.trace("STOMP 명령 파싱 중 오류 발생.", e);
+        for (StompCommand command : COMMANDS_BY_LENGTH[firstCarriageReturn]) {
+            if (payload.startsWith(command.name())) {
+                return command;
+            }
+        }
+
+        return null;
+    }
+
+    private static StompCommand[][] buildCommandTable() {
+        int maxLength = 0;
+        for (StompCommand command : StompCommand.values()) {
+            maxLength = Math.max(maxLength, command.name().length());
+        }
+
+        List<List<StompCommand>> byLength = new ArrayList<>();
+        for (int i = 0; i <= maxLength; i++) {
+            byLength.add(new ArrayList<>());
+        }
+        for (StompCommand command : StompCommand.values()) {
+            byLength.get(command.name().length()).add(command);
+        }
 
-            return Optional.empty();
+        StompCommand[][] table = new StompCommand[maxLength + 1][];
+        for (int i = 0; i <= maxLength; i++) {
+            table[i] = byLength.get(i).toArray(new StompCommand[0]);
         }
+        return table;
     }
-} 
\ No newline at end of file
+}
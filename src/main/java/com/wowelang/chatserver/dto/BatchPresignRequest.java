@@ -0,0 +1,21 @@
+package com.wowelang.chatserver.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 여러 파일의 업로드용 Presigned URL 일괄 요청
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPresignRequest {
+    
+    @NotEmpty
+    private List<@NotBlank String> mimeTypes;
+}
@@ -0,0 +1,27 @@
+package com.wowelang.chatserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 재연결 catch-up 결과를 구독자에게 알리는 응답 (/user/queue/catchup)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatchUpStatusDto {
+    
+    private String roomId;
+    
+    private CatchUpStatus status;
+    
+    private int count; // 구독으로 재전송한 메시지 수
+    
+    public enum CatchUpStatus {
+        COMPLETE, // 워터마크 이후 메시지를 모두 재전송함
+        RESYNC_REQUIRED // 빈틈이 너무 크거나 조회할 수 없음, REST로 기록을 다시 받아야 함
+    }
+}
@@ -38,5 +38,7 @@ public class ChatMessageDto {
     
     private Instant createdAt;
     
+    private Long seq; // 채팅방 내 순번, 순번이 건너뛰면 누락 가능성이 있으므로 클라이언트는 기록을 다시 확인 (빈 순번일 수도 있음)
+    
     private boolean deleted;
 } 
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.wowelang.chatserver.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 매치 요청 한 페이지 (updatedAt 최신순)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchRequestPageDto {
+    
+    private List<MatchRequestDto> requests;
+    
+    private String nextCursor; // 다음(더 오래된) 페이지 커서, 마지막 페이지면 null
+}
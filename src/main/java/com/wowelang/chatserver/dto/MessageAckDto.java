@@ -0,0 +1,28 @@
+package com.wowelang.chatserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 비동기 저장 모드에서 메시지 저장 결과를 발신자에게 알리는 응답 (/user/queue/acks)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageAckDto {
+    
+    private String messageId;
+    
+    private String roomId;
+    
+    private AckStatus status;
+    
+    private String reason; // 실패 시 사유
+    
+    public enum AckStatus {
+        PERSISTED, FAILED
+    }
+}
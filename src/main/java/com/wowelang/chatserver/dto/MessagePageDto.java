@@ -0,0 +1,22 @@
+package com.wowelang.chatserver.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 메시지 기록 한 페이지 (최신순)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePageDto {
+    
+    private List<ChatMessageDto> messages;
+    
+    private String nextCursor; // 다음(더 오래된) 페이지 커서, 마지막 페이지면 null
+}
@@ -1,5 +1,7 @@
 package com.wowelang.chatserver.dto;
 
+import java.time.Instant;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,5 +15,6 @@ public class PresignedUrlResponse {
     
     private String url;
     private String s3Key;
-    private int expiresInMinutes;
+    private int expiresInMinutes; // 남은 유효 시간 (분, 내림)
+    private Instant expiresAt;
 } 
\ No newline at end of file
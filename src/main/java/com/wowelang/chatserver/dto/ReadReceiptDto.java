@@ -0,0 +1,19 @@
+package com.wowelang.chatserver.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptDto {
+    
+    private String messageId; // 마지막으로 읽은 메시지 ID
+    
+    private Instant readAt; // 마지막으로 읽은 메시지의 createdAt (없으면 현재 시각까지 모두 읽음)
+}
@@ -0,0 +1,71 @@
+package com.wowelang.chatserver.interceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 운영 환경용 STOMP 프레임 샘플링 로거
+ * 전체 Message/헤더를 문자열로 만드는 대신 N개 중 1개 프레임의 command, destination, 세션, 크기만 기록합니다.
+ * 메시지 본문은 개인정보가 포함되므로 websocket.frame-log.max-payload-chars가 0보다 크고 DEBUG 레벨일 때만 앞부분을 기록합니다.
+ * (운영은 0이며 로그 레벨도 INFO이므로 본문이 기록되지 않음)
+ * websocket.frame-log.sample-rate가 0이면 아무것도 기록하지 않습니다.
+ */
+@Slf4j
+@Component
+public class SampledFrameLogger implements ChannelInterceptor {
+
+    private final long sampleRate;
+    private final int maxPayloadChars;
+    private final AtomicLong frameCounter = new AtomicLong();
+
+    public SampledFrameLogger(@Value("${websocket.frame-log.sample-rate:1000}") long sampleRate,
+                              @Value("${websocket.frame-log.max-payload-chars:0}") int maxPayloadChars) {
+        this.sampleRate = sampleRate;
+        this.maxPayloadChars = maxPayloadChars;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (sampleRate <= 0 || !log.isInfoEnabled()) {
+            return message;
+        }
+        
+        if (frameCounter.incrementAndGet() % sampleRate != 0) {
+            return message;
+        }
+        
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        
+        Object payload = message.getPayload();
+        int payloadSize = payload instanceof byte[] bytes ? bytes.length : -1;
+        
+        log.info("STOMP 프레임 샘플 (1/{}): command={}, destination={}, sessionId={}, size={}",
+                sampleRate, accessor.getCommand(), accessor.getDestination(), accessor.getSessionId(), payloadSize);
+        if (maxPayloadChars > 0 && log.isDebugEnabled()) {
+            log.debug("STOMP 프레임 샘플 본문: sessionId={}, payload='{}'", accessor.getSessionId(), preview(payload));
+        }
+        return message;
+    }
+
+    private String preview(Object payload) {
+        if (payload instanceof byte[] bytes) {
+            int length = Math.min(bytes.length, maxPayloadChars);
+            String text = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            return bytes.length > length ? text + "...(truncated)" : text;
+        }
+        return payload.getClass().getSimpleName();
+    }
+}
@@ -1,5 +1,6 @@
 package com.wowelang.chatserver.interceptor;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.support.ChannelInterceptor;
@@ -9,7 +10,9 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * STOMP 프레임 디버깅을 위한 인터셉터
+ * 모든 프레임의 전체 내용을 기록하므로 wire-debug 프로필에서만 등록됩니다.
  */
+@Profile("wire-debug")
 @Component
 @Slf4j
 public class StompFrameDebugInterceptor implements ChannelInterceptor {
@@ -2,9 +2,10 @@ package com.wowelang.chatserver.interceptor;
 
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
-import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.stereotype.Component;
 
@@ -15,29 +16,27 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * WebSocket 채널 인터셉터
- * 메시지가 전송되기 전에 사용자 ID를 처리합니다.
+ * CONNECT 시 사용자 ID를 세션에 설정하고, 메시지 처리 스레드에서 UserContext를 설정/정리합니다.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class UserIdChannelInterceptor implements ChannelInterceptor {
+public class UserIdChannelInterceptor implements ExecutorChannelInterceptor {
 
     private static final String USER_ID_HEADER = "X-User-Id";
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
-        log.debug("UserIdChannelInterceptor preSend 진입. Message: {}", message); // 추가된 로그
+        // 프레임마다 호출되므로 Message/헤더 전체를 문자열로 만드는 로그는 남기지 않음 (샘플링은 SampledFrameLogger 담당)
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
-        log.debug("StompHeaderAccessor: {}", accessor); // 추가된 로그
         
-        // 추가된 로그: preSend 메서드 호출 및 StompCommand 확인
         if (accessor != null) {
-            log.debug("UserIdChannelInterceptor preSend 호출: Command={}", accessor.getCommand());
+            log.trace("UserIdChannelInterceptor preSend 호출: Command={}", accessor.getCommand());
 
             try {
                 // 연결 시 사용자 ID 설정
                 if (StompCommand.CONNECT.equals(accessor.getCommand())) {
-                    log.debug("STOMP CONNECT 처리 시작. Native Headers: {}", accessor.toNativeHeaderMap());
+                    log.debug("STOMP CONNECT 처리 시작. SessionId={}", accessor.getSessionId());
                     String userId = accessor.getFirstNativeHeader(USER_ID_HEADER);
                     if (userId != null) {
                         accessor.setUser(() -> userId);
@@ -49,26 +48,10 @@ public class UserIdChannelInterceptor implements ChannelInterceptor {
                         // 하지만 현재는 경고만 로깅하고 연결은 시도합니다.
                     }
                 } 
-                // 메시지 전송 시 사용자 컨텍스트 설정
-                else if (StompCommand.SEND.equals(accessor.getCommand()) || StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
-                    if (accessor.getUser() != null) {
-                        String userId = accessor.getUser().getName();
-                        UserContext.setUserId(userId);
-                        log.debug("메시지 전송/구독 시 사용자 ID 설정: {}. SessionId={}", userId, accessor.getSessionId());
-                    } else {
-                        log.warn("SEND/SUBSCRIBE: accessor.getUser()가 null입니다. UserContext 설정 불가. SessionId={}", accessor.getSessionId());
-                    }
-                }
-                // 연결 해제 시 사용자 컨텍스트 정리
+                // 연결 해제 로그 (UserContext 설정/정리는 처리 스레드에서 beforeHandle/afterMessageHandled가 담당)
                 else if (StompCommand.DISCONNECT.equals(accessor.getCommand())) {
-                    if (accessor.getUser() != null) {
-                        String userId = accessor.getUser().getName();
-                        log.debug("사용자 연결 해제: ID={}. SessionId={}", userId, accessor.getSessionId());
-                        UserContext.clear();
-                    } else {
-                        log.debug("DISCONNECT: accessor.getUser()가 null입니다. SessionId={}", accessor.getSessionId());
-                        UserContext.clear(); // 사용자 정보가 없더라도 컨텍스트는 클리어
-                    }
+                    log.debug("사용자 연결 해제: ID={}. SessionId={}",
+                            accessor.getUser() != null ? accessor.getUser().getName() : null, accessor.getSessionId());
                 }
             } catch (Exception e) {
                 log.error("UserIdChannelInterceptor preSend 처리 중 예외 발생: Command={}, SessionId={}", accessor.getCommand(), accessor.getSessionId(), e);
@@ -82,25 +65,34 @@ public class UserIdChannelInterceptor implements ChannelInterceptor {
         return message;
     }
     
+    /**
+     * 메시지를 실제로 처리하는 실행기 스레드에서 호출됩니다.
+     * preSend는 웹소켓 수신 스레드에서 실행되므로 ThreadLocal인 UserContext는 여기서 설정해야
+     * @MessageMapping 핸들러와 같은 스레드(플랫폼/가상 스레드 모두)에 보입니다.
+     */
     @Override
-    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
         
-        // 메시지 전송 후 ThreadLocal 정리
-        if (accessor != null && 
-            (StompCommand.SEND.equals(accessor.getCommand()) || 
-             StompCommand.SUBSCRIBE.equals(accessor.getCommand()))) {
-            UserContext.clear();
-            // 추가된 로그
-            if (accessor.getUser() != null) {
-                log.debug("afterSendCompletion: UserContext 클리어. UserId={}", accessor.getUser().getName());
-            } else {
-                log.debug("afterSendCompletion: UserContext 클리어 (사용자 정보 없음).");
-            }
+        if (accessor != null && accessor.getUser() != null
+                && (StompCommand.SEND.equals(accessor.getCommand()) || StompCommand.SUBSCRIBE.equals(accessor.getCommand()))) {
+            UserContext.setUserId(accessor.getUser().getName());
         }
-
+        
+        return message;
+    }
+    
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        // 풀 스레드 재사용 시 다른 사용자 ID가 남지 않도록 항상 정리
+        UserContext.clear();
+    }
+    
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
         if (ex != null) {
+            StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
             log.error("UserIdChannelInterceptor afterSendCompletion: 메시지 전송 실패. SessionId={}", accessor != null ? accessor.getSessionId() : "N/A", ex);
         }
     }
-}
\ No newline at end of file
+}
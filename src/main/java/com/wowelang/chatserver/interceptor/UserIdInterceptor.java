@@ -4,7 +4,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 
 import com.wowelang.chatserver.util.UserContext;
 
@@ -12,7 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Component
-public class UserIdInterceptor implements HandlerInterceptor {
+public class UserIdInterceptor implements AsyncHandlerInterceptor {
 
     private static final String USER_ID_HEADER = "X-User-Id";
 
@@ -30,6 +30,15 @@ public class UserIdInterceptor implements HandlerInterceptor {
         return true;
     }
 
+    /**
+     * 비동기 응답(StreamingResponseBody 등)은 afterCompletion이 다른 스레드의 재디스패치에서 호출되므로
+     * 요청 스레드의 UserContext를 여기서 정리합니다.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        UserContext.clear();
+    }
+
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
         UserContext.clear();
@@ -0,0 +1,213 @@
+package com.wowelang.chatserver.job;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.ChatRoom;
+import com.wowelang.chatserver.repository.MessageArchive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * chat.message.archive.min-age-days보다 오래된 메시지를 chat_messages에서 보관 세그먼트(MessageArchive)로 옮기는 작업
+ *
+ * interval-ms마다 별도 스레드에서 실행되며, 채팅방마다 오래된 메시지를 (createdAt, _id) 순으로 segment-size개씩 읽어
+ * 세그먼트 하나로 저장하고 ChatRoom.archivedUntil을 옮긴 뒤 원본을 삭제합니다. 삭제 표시된 메시지는 보관하지 않고 삭제만 합니다.
+ * 원본 삭제 전에 중단되면 다음 실행에서 archivedUntil까지의 원본을 먼저 지우고, 세그먼트 저장 전에 중단되면
+ * 같은 첫 메시지로 시작하는 구간을 같은 세그먼트 ID로 다시 저장(덮어쓰기)하므로 메시지가 중복되거나 빠지지 않습니다.
+ * 읽은 뒤 원본 삭제 전에 삭제 표시된 메시지는 원본을 지우기 전에 세그먼트에도 삭제 표시하므로 삭제가 사라지지 않습니다.
+ *
+ * chat.message.storage=document일 때만 실행됩니다.
+ * 메트릭: chat.message.archive.messages, chat.message.archive.segments
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageArchiveJob {
+
+    private final MongoTemplate mongoTemplate;
+    private final MessageArchive messageArchive;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private Counter archivedMessages;
+    private Counter archivedSegments;
+
+    @Value("${chat.message.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.message.archive.min-age-days:90}")
+    private int minAgeDays;
+
+    @Value("${chat.message.archive.segment-size:1000}")
+    private int segmentSize;
+
+    @Value("${chat.message.storage:document}")
+    private String storage;
+
+    @PostConstruct
+    public void init() {
+        archivedMessages = Counter.builder("chat.message.archive.messages").register(meterRegistry);
+        archivedSegments = Counter.builder("chat.message.archive.segments").register(meterRegistry);
+    }
+
+    /**
+     * 스케줄러 스레드를 점유하지 않도록 별도 스레드에서 실행합니다. 이전 실행이 끝나지 않았으면 건너뜁니다.
+     */
+    @Scheduled(initialDelayString = "${chat.message.archive.initial-delay-ms:120000}",
+            fixedDelayString = "${chat.message.archive.interval-ms:86400000}")
+    public void schedule() {
+        if (!enabled || !"document".equalsIgnoreCase(storage) || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        Thread worker = new Thread(() -> {
+            try {
+                run();
+            } finally {
+                running.set(false);
+            }
+        }, "message-archive");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 보관을 실행합니다.
+     *
+     * @return chat_messages에서 옮긴(삭제한) 메시지 수
+     */
+    public long run() {
+        Instant cutoff = Instant.now().minus(Duration.ofDays(minAgeDays));
+        Query query = new Query(Criteria.where("deleted").is(false));
+        query.fields().include("_id").include("archivedUntil").include("archivedUntilId");
+        query.cursorBatchSize(500);
+
+        long startedAt = System.currentTimeMillis();
+        long rooms = 0;
+        long moved = 0;
+
+        log.info("메시지 보관 시작: cutoff={}, segmentSize={}", cutoff, segmentSize);
+        try (Stream<ChatRoom> stream = mongoTemplate.stream(query, ChatRoom.class)) {
+            Iterator<ChatRoom> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                long roomMoved = archiveRoom(iterator.next(), cutoff);
+                if (roomMoved > 0) {
+                    rooms++;
+                    moved += roomMoved;
+                }
+            }
+        } catch (Exception e) {
+            log.error("메시지 보관 중 오류 발생. 채팅방 수={}, 메시지 수={}", rooms, moved, e);
+            return moved;
+        }
+
+        log.info("메시지 보관 완료: 채팅방 수={}, 메시지 수={}, elapsedMs={}", rooms, moved, System.currentTimeMillis() - startedAt);
+        return moved;
+    }
+
+    private long archiveRoom(ChatRoom room, Instant cutoff) {
+        String roomId = room.getId();
+        long moved = 0;
+
+        // 이전 실행이 세그먼트 저장 후 원본 삭제 전에 중단된 경우
+        if (room.getArchivedUntil() != null) {
+            moved += removeArchived(roomId, atOrBefore(roomId, room.getArchivedUntil(), room.getArchivedUntilId()), Set.of());
+        }
+
+        // room_created_id_idx를 역방향으로 읽으므로 정렬 단계가 없음
+        Query query = Query.query(Criteria.where("roomId").is(roomId).and("createdAt").lt(cutoff))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt").and(Sort.by(Sort.Direction.ASC, "_id")))
+                .limit(segmentSize);
+
+        List<ChatMessage> chunk;
+        do {
+            chunk = mongoTemplate.find(query, ChatMessage.class);
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            List<ChatMessage> live = chunk.stream()
+                    .filter(message -> !message.isDeleted())
+                    .collect(Collectors.toList());
+            if (!live.isEmpty()) {
+                messageArchive.save(roomId, roomId + ":" + chunk.get(0).getId(), live);
+                archivedSegments.increment();
+            }
+
+            // 보관 위치를 먼저 옮긴 뒤 원본 삭제
+            ChatMessage last = chunk.get(chunk.size() - 1);
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(roomId)),
+                    new Update().set("archivedUntil", last.getCreatedAt()).set("archivedUntilId", last.getId()), ChatRoom.class);
+
+            List<String> ids = chunk.stream().map(ChatMessage::getId).collect(Collectors.toList());
+            Set<String> notArchived = chunk.stream()
+                    .filter(ChatMessage::isDeleted)
+                    .map(ChatMessage::getId)
+                    .collect(Collectors.toSet());
+            archivedMessages.increment(live.size());
+            moved += removeArchived(roomId, Criteria.where("_id").in(ids), notArchived);
+        } while (chunk.size() == segmentSize);
+
+        if (moved > 0) {
+            log.debug("메시지 보관: roomId={}, 메시지 수={}", roomId, moved);
+        }
+        return moved;
+    }
+
+    /**
+     * 보관한 원본을 삭제합니다.
+     * deleted는 false에서 true로만 바뀌므로 삭제되지 않은 원본을 조건부로 먼저 지우면, 남은 원본은 모두 삭제 표시된 메시지입니다.
+     * 그중 세그먼트에 들어간 메시지(보관 중 삭제됨)는 세그먼트에 삭제 표시를 한 뒤 지웁니다.
+     *
+     * @param notArchived 읽을 때 이미 삭제 표시되어 세그먼트에 넣지 않은 메시지 ID
+     */
+    private long removeArchived(String roomId, Criteria scope, Set<String> notArchived) {
+        long removed = mongoTemplate.remove(new Query(scope).addCriteria(Criteria.where("deleted").is(false)),
+                ChatMessage.class).getDeletedCount();
+
+        Query deletedQuery = new Query(scope);
+        deletedQuery.fields().include("_id");
+        for (ChatMessage message : mongoTemplate.find(deletedQuery, ChatMessage.class)) {
+            if (!notArchived.contains(message.getId())) {
+                messageArchive.markDeleted(roomId, message.getId());
+            }
+        }
+
+        return removed + mongoTemplate.remove(new Query(scope), ChatMessage.class).getDeletedCount();
+    }
+
+    /**
+     * roomId가 같고 (createdAt, _id)가 (until, untilId) 이하인 메시지 조건
+     */
+    private static Criteria atOrBefore(String roomId, Instant until, String untilId) {
+        Object id = ObjectId.isValid(untilId) ? new ObjectId(untilId) : untilId;
+        return Criteria.where("roomId").is(roomId)
+                .and("createdAt").lte(until)
+                .orOperator(
+                        Criteria.where("createdAt").lt(until),
+                        Criteria.where("_id").lte(id));
+    }
+}
@@ -0,0 +1,135 @@
+package com.wowelang.chatserver.job;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.MessageBucket;
+import com.wowelang.chatserver.repository.BucketMessageStore;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * chat_messages의 메시지를 chat_message_buckets 묶음으로 복사하는 작업 (chat.message.storage=bucket 전환용)
+ *
+ * 메시지를 채팅방별 (createdAt, _id) 순으로 스트리밍하면서 batch-size 단위로 묶음에 $push upsert합니다.
+ * 순번이 있는 메시지는 BucketMessageStore와 같은 묶음으로, 순번 도입 전 메시지는 채팅방 안의 순서대로 "roomId:legacy:번호" 묶음으로 갑니다.
+ * 이미 묶음에 있는 메시지는 건너뛰므로 여러 번 실행해도 됩니다.
+ * 복사 후 chat.message.storage=bucket으로 전환하고 한 번 더 실행하면 그 사이에 저장된 메시지까지 옮겨집니다. (그 사이의 삭제 표시는 옮겨지지 않음)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageBucketMigrationJob {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${chat.message.bucket.migration.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.message.bucket.migration.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${chat.message.bucket.max-messages:200}")
+    private int bucketSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+
+        Thread worker = new Thread(this::run, "message-bucket-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 마이그레이션을 실행합니다.
+     *
+     * @return 묶음에 새로 추가한 메시지 수
+     */
+    public long run() {
+        // room_created_id_idx를 역방향으로 읽으므로 정렬 단계가 없음
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "roomId")
+                        .and(Sort.by(Sort.Direction.ASC, "createdAt"))
+                        .and(Sort.by(Sort.Direction.ASC, "_id")))
+                .cursorBatchSize(batchSize);
+
+        long migrated = 0;
+        long scanned = 0;
+        String currentRoomId = null;
+        long legacyOrdinal = 0;
+        List<ChatMessage> batch = new ArrayList<>(batchSize);
+        List<String> bucketIds = new ArrayList<>(batchSize);
+
+        log.info("메시지 묶음 마이그레이션 시작: batchSize={}, bucketSize={}", batchSize, bucketSize);
+        try (Stream<ChatMessage> messages = mongoTemplate.stream(query, ChatMessage.class)) {
+            Iterator<ChatMessage> iterator = messages.iterator();
+            while (iterator.hasNext()) {
+                ChatMessage message = iterator.next();
+                if (!message.getRoomId().equals(currentRoomId)) {
+                    currentRoomId = message.getRoomId();
+                    legacyOrdinal = 0;
+                }
+
+                batch.add(message);
+                bucketIds.add(message.getSeq() != null
+                        ? BucketMessageStore.bucketId(message.getRoomId(), message.getSeq(), bucketSize)
+                        : message.getRoomId() + ":legacy:" + legacyOrdinal++ / bucketSize);
+                scanned++;
+
+                if (batch.size() >= batchSize) {
+                    migrated += applyBatch(batch, bucketIds);
+                    batch.clear();
+                    bucketIds.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                migrated += applyBatch(batch, bucketIds);
+            }
+        } catch (Exception e) {
+            log.error("메시지 묶음 마이그레이션 중 오류 발생. 읽은 메시지 수={}, 추가한 메시지 수={}", scanned, migrated, e);
+            return migrated;
+        }
+
+        log.info("메시지 묶음 마이그레이션 완료: 읽은 메시지 수={}, 추가한 메시지 수={}", scanned, migrated);
+        return migrated;
+    }
+
+    private long applyBatch(List<ChatMessage> messages, List<String> bucketIds) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MessageBucket.class);
+        for (int i = 0; i < messages.size(); i++) {
+            bulkOps.upsert(BucketMessageStore.appendQuery(bucketIds.get(i), messages.get(i)),
+                    BucketMessageStore.appendUpdate(mongoTemplate.getConverter(), messages.get(i)));
+        }
+
+        try {
+            BulkWriteResult result = bulkOps.execute();
+            return result.getUpserts().size() + result.getModifiedCount();
+        } catch (BulkOperationException e) {
+            // 이미 묶음에 있는 메시지는 같은 _id 삽입 시도로 실패함, 나머지 항목은 반영됨
+            e.getErrors().stream()
+                    .filter(error -> error.getCode() != DUPLICATE_KEY)
+                    .forEach(error -> log.warn("메시지를 묶음에 추가하지 못했습니다: {}", error.getMessage()));
+            return e.getResult().getUpserts().size() + e.getResult().getModifiedCount();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.wowelang.chatserver.job;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.wowelang.chatserver.model.MatchRequest;
+import com.wowelang.chatserver.model.MatchRequest.MatchStatus;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 기동 후 MongoDB 인덱스를 만드는 작업
+ *
+ * 매핑 컨텍스트의 자동 인덱스 생성(MongoConfig)은 끄고 여기서 만듭니다. 기존 데이터에 중복이 있어 유니크 인덱스를
+ * 만들 수 없어도 기동은 계속되고, 실패한 인덱스만 오류로 기록합니다.
+ *
+ * 1. match_requests의 (requesterId, targetId) 중복을 정리합니다. (requester_target_idx 이전의 경쟁 조건으로 생긴 중복)
+ *    수락된 요청을 우선 남기고, 없으면 가장 최근에 갱신된 요청을 남깁니다. 완료 기록(chat_migrations)이 있으면 건너뜁니다.
+ * 2. spring.data.mongodb.auto-index-creation이 true이면 모델 클래스에 선언된 인덱스를 만듭니다.
+ *    운영(application-prod.yml)은 false이며, 인덱스는 배포 절차에서 따로 만듭니다. (README의 인덱스 생성 참고)
+ * 3. IndexesReadyEvent를 발행합니다. 유니크 인덱스에 의존하는 마이그레이션(RoomPairKeyMigrationJob)은 이후에 시작합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexJob {
+
+    private static final String MIGRATIONS_COLLECTION = "chat_migrations";
+    private static final String DEDUPE_MIGRATION_ID = "match-request-pair-dedupe";
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${spring.data.mongodb.auto-index-creation:false}")
+    private boolean autoIndexCreation;
+
+    /**
+     * 중복 정리와 인덱스 생성(설정된 경우)이 끝났음을 알립니다.
+     */
+    public record IndexesReadyEvent() {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread worker = new Thread(this::run, "mongo-index");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void run() {
+        try {
+            if (!mongoTemplate.exists(new Query(Criteria.where("_id").is(DEDUPE_MIGRATION_ID)), MIGRATIONS_COLLECTION)) {
+                dedupeMatchRequests();
+            }
+            if (autoIndexCreation) {
+                ensureIndexes();
+            }
+        } catch (Exception e) {
+            log.error("MongoDB 인덱스 준비 중 오류 발생", e);
+        }
+        eventPublisher.publishEvent(new IndexesReadyEvent());
+    }
+
+    /**
+     * 같은 (requesterId, targetId) 요청이 여러 개이면 하나만 남기고 삭제합니다.
+     *
+     * @return 삭제한 요청 수
+     */
+    public long dedupeMatchRequests() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("requesterId", "targetId").push("_id").as("ids").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+
+        long removed = 0;
+        for (Document group : mongoTemplate.aggregate(aggregation, MatchRequest.class, Document.class).getMappedResults()) {
+            List<MatchRequest> requests = mongoTemplate.find(new Query(Criteria.where("_id").in(group.getList("ids", Object.class))),
+                    MatchRequest.class);
+            MatchRequest keeper = requests.stream()
+                    .max(Comparator.comparing((MatchRequest request) -> request.getStatus() == MatchStatus.ACCEPTED)
+                            .thenComparing(MatchRequest::getUpdatedAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+                    .orElseThrow();
+
+            List<String> duplicates = requests.stream()
+                    .map(MatchRequest::getId)
+                    .filter(id -> !id.equals(keeper.getId()))
+                    .toList();
+            removed += mongoTemplate.remove(new Query(Criteria.where("_id").in(duplicates)), MatchRequest.class).getDeletedCount();
+            log.warn("중복 매치 요청 정리: requesterId={}, targetId={}, 남긴 요청={}, 삭제={}",
+                    keeper.getRequesterId(), keeper.getTargetId(), keeper.getId(), duplicates);
+        }
+
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(DEDUPE_MIGRATION_ID)),
+                new Update().set("completedAt", Instant.now()).set("removed", removed), MIGRATIONS_COLLECTION);
+        log.info("매치 요청 중복 정리 완료: 삭제된 요청 수={}", removed);
+        return removed;
+    }
+
+    /**
+     * 모델 클래스(@Document)에 선언된 인덱스를 만듭니다. 이미 있는 인덱스는 그대로 두고, 실패한 인덱스는 기록만 합니다.
+     */
+    public void ensureIndexes() {
+        MongoMappingContext mappingContext = (MongoMappingContext) mongoTemplate.getConverter().getMappingContext();
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                continue;
+            }
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getTypeInformation())) {
+                try {
+                    mongoTemplate.indexOps(entity.getType()).ensureIndex(index);
+                } catch (Exception e) {
+                    log.error("인덱스 생성 실패: collection={}, index={}", entity.getCollection(), index.getIndexOptions(), e);
+                }
+            }
+        }
+        log.info("MongoDB 인덱스 생성 완료");
+    }
+}
@@ -0,0 +1,195 @@
+package com.wowelang.chatserver.job;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.wowelang.chatserver.model.ChatRoom;
+import com.wowelang.chatserver.repository.ChatRoomRepository;
+import com.wowelang.chatserver.service.ChatRoomService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * pairKey 도입 전에 만들어진 채팅방에 pairKey를 채우는 작업
+ *
+ * 삭제되지 않았고 pairKey가 없는 채팅방을 오래된 순(_id)으로 스트리밍하면서 batch-size 단위로 bulk 업데이트합니다.
+ * 같은 쌍의 채팅방이 이미 여러 개 있으면(도입 전 경쟁 조건) 가장 먼저 pairKey를 가진 채팅방(보통 가장 오래된 채팅방)만 남기고,
+ * 나머지는 duplicateOf로 표시하여 이후 조회와 마이그레이션 대상에서 제외합니다. 중복 채팅방의 기록은 그대로 조회할 수 있습니다.
+ * 남은 채팅방이 없으면 완료 기록(chat_migrations)을 남기고 ChatRoomService의 이전 방식(participants $all) 조회를 끕니다.
+ * 완료 기록이 있으면 모든 노드가 기동 시 바로 이전 방식 조회를 끕니다. (마이그레이션을 끈 노드 포함)
+ *
+ * 중복 판정은 pair_key_idx(유니크)에 의존하므로 MongoIndexJob이 끝난 뒤(IndexesReadyEvent) 인덱스가 있을 때만 실행합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomPairKeyMigrationJob {
+
+    private static final String MIGRATIONS_COLLECTION = "chat_migrations";
+    private static final String MIGRATION_ID = "room-pair-key";
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+    private static final String PAIR_KEY_INDEX = "pair_key_idx";
+
+    private final MongoTemplate mongoTemplate;
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatRoomService chatRoomService;
+
+    @Value("${chat.room.pair-key-migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.room.pair-key-migration.batch-size:500}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (isCompleted()) {
+            chatRoomService.disableLegacyPairLookup();
+            log.info("채팅방 pairKey 마이그레이션이 이미 완료되어 participants 조회를 사용하지 않습니다");
+        }
+    }
+
+    @EventListener(MongoIndexJob.IndexesReadyEvent.class)
+    public void onIndexesReady() {
+        if (!enabled || isCompleted()) {
+            return;
+        }
+        if (mongoTemplate.indexOps(ChatRoom.class).getIndexInfo().stream().noneMatch(index -> PAIR_KEY_INDEX.equals(index.getName()))) {
+            log.warn("{}가 없어 채팅방 pairKey 마이그레이션을 건너뜁니다. 인덱스를 만든 뒤 다시 기동하세요.", PAIR_KEY_INDEX);
+            return;
+        }
+
+        Thread worker = new Thread(this::run, "room-pair-key-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 마이그레이션을 실행합니다.
+     *
+     * @return pairKey를 채운 채팅방 수
+     */
+    public long run() {
+        Query query = new Query(legacyRooms()).with(Sort.by(Sort.Direction.ASC, "_id"));
+        query.fields().include("_id").include("participants");
+        query.cursorBatchSize(batchSize);
+
+        long migrated = 0;
+        List<ChatRoom> batch = new ArrayList<>(batchSize);
+
+        log.info("채팅방 pairKey 마이그레이션 시작: batchSize={}", batchSize);
+        try (Stream<ChatRoom> rooms = mongoTemplate.stream(query, ChatRoom.class)) {
+            Iterator<ChatRoom> iterator = rooms.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() >= batchSize) {
+                    migrated += applyBatch(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                migrated += applyBatch(batch);
+            }
+        } catch (Exception e) {
+            log.error("채팅방 pairKey 마이그레이션 중 오류 발생. 처리된 채팅방 수={}", migrated, e);
+            return migrated;
+        }
+
+        long remaining = mongoTemplate.count(new Query(legacyRooms()), ChatRoom.class);
+        if (remaining == 0) {
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(MIGRATION_ID)),
+                    new Update().set("completedAt", Instant.now()), MIGRATIONS_COLLECTION);
+            chatRoomService.disableLegacyPairLookup();
+        }
+        log.info("채팅방 pairKey 마이그레이션 완료: 처리된 채팅방 수={}, 남은 채팅방 수={}", migrated, remaining);
+        return migrated;
+    }
+
+    private int applyBatch(List<ChatRoom> rooms) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatRoom.class);
+        List<ChatRoom> queued = new ArrayList<>(rooms.size());
+        List<ChatRoom> duplicates = new ArrayList<>();
+        Set<String> batchPairKeys = new HashSet<>();
+
+        for (ChatRoom room : rooms) {
+            // 같은 배치의 더 오래된 채팅방이 이 쌍의 pairKey를 가짐
+            if (!batchPairKeys.add(pairKeyOf(room))) {
+                duplicates.add(room);
+                continue;
+            }
+
+            // 그 사이 createRoom이 pairKey를 채웠으면 건너뜀
+            bulkOps.updateOne(new Query(Criteria.where("_id").is(room.getId()).and("pairKey").exists(false)),
+                    new Update().set("pairKey", pairKeyOf(room)));
+            queued.add(room);
+        }
+
+        int modified = 0;
+        if (!queued.isEmpty()) {
+            try {
+                modified = bulkOps.execute().getModifiedCount();
+            } catch (BulkOperationException e) {
+                // 같은 쌍의 다른 채팅방이 이미 pairKey를 가짐 (pair_key_idx 중복), 나머지 항목은 반영됨
+                for (BulkWriteError error : e.getErrors()) {
+                    if (error.getCode() != DUPLICATE_KEY_ERROR) {
+                        throw e;
+                    }
+                    duplicates.add(queued.get(error.getIndex()));
+                }
+                modified = e.getResult().getModifiedCount();
+            }
+        }
+
+        duplicates.forEach(this::markDuplicate);
+        return modified;
+    }
+
+    /**
+     * 같은 쌍의 pairKey를 가진 채팅방을 찾아 중복 채팅방에 표시합니다.
+     * 그 사이 pairKey를 가진 채팅방이 삭제되었으면 표시하지 않고 다음 실행에서 다시 처리합니다.
+     */
+    private void markDuplicate(ChatRoom room) {
+        ChatRoom holder = chatRoomRepository.findByPairKey(pairKeyOf(room)).orElse(null);
+        if (holder == null || holder.getId().equals(room.getId())) {
+            return;
+        }
+
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(room.getId()).and("pairKey").exists(false)),
+                new Update().set("duplicateOf", holder.getId()), ChatRoom.class);
+        log.warn("같은 참여자 쌍의 채팅방이 이미 있어 중복으로 표시했습니다: roomId={}, duplicateOf={}", room.getId(), holder.getId());
+    }
+
+    private boolean isCompleted() {
+        return mongoTemplate.exists(new Query(Criteria.where("_id").is(MIGRATION_ID)), MIGRATIONS_COLLECTION);
+    }
+
+    private static String pairKeyOf(ChatRoom room) {
+        return ChatRoom.pairKeyOf(room.getParticipants().get(0), room.getParticipants().get(1));
+    }
+
+    /**
+     * pairKey를 채울 채팅방. 참여자가 2명이 아닌 채팅방은 createRoom이 찾지 않으므로 제외
+     */
+    private static Criteria legacyRooms() {
+        return Criteria.where("deleted").is(false).and("pairKey").exists(false).and("duplicateOf").exists(false)
+                .and("participants").size(2);
+    }
+}
@@ -0,0 +1,227 @@
+package com.wowelang.chatserver.job;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.ChatRoom;
+import com.wowelang.chatserver.model.MessageBucket;
+import com.wowelang.chatserver.model.ReadCursor;
+import com.wowelang.chatserver.repository.MessageArchive;
+import com.wowelang.chatserver.service.RecentMessageCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 삭제 후 chat.room.deleted-ttl-days가 지난 채팅방과 그 메시지(묶음, 보관 세그먼트 포함), 읽음 위치를 영구 삭제하는 작업
+ *
+ * interval-ms마다 별도 스레드에서 실행되며, 오래 삭제된 채팅방부터 하나씩 처리합니다.
+ * 메시지는 batch-size개씩 _id로 지우고, 초당 삭제 문서 수가 max-deletes-per-second를 넘지 않도록 배치 사이에 쉽니다.
+ * 채팅방 문서는 메시지와 읽음 위치를 모두 지운 뒤 마지막에 지우므로, 중간에 중단되어도 다음 실행에서 남은 부분부터 이어서 처리합니다.
+ * 모든 삭제는 멱등이므로 여러 노드에서 동시에 실행되어도 결과는 같습니다.
+ *
+ * 메트릭: chat.room.purge.deleted (tag type=room|message|message_bucket|message_segment|read_cursor), chat.room.purge.pending (마지막 실행 시작 시 남은 채팅방 수)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomPurgeJob {
+
+    private final MongoTemplate mongoTemplate;
+    private final RecentMessageCache recentMessageCache;
+    private final MessageArchive messageArchive;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong pendingRooms = new AtomicLong();
+
+    private Counter purgedRooms;
+    private Counter purgedMessages;
+    private Counter purgedReadCursors;
+    private Counter purgedBuckets;
+    private Counter purgedSegments;
+
+    // 다음 삭제를 시작할 수 있는 시각 (System.nanoTime 기준)
+    private long nextAllowedNanos;
+
+    @Value("${chat.room.deleted-ttl-days:30}")
+    private int ttlDays;
+
+    @Value("${chat.room.purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.room.purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${chat.room.purge.max-deletes-per-second:2000}")
+    private int maxDeletesPerSecond;
+
+    @PostConstruct
+    public void init() {
+        purgedRooms = Counter.builder("chat.room.purge.deleted").tag("type", "room").register(meterRegistry);
+        purgedMessages = Counter.builder("chat.room.purge.deleted").tag("type", "message").register(meterRegistry);
+        purgedReadCursors = Counter.builder("chat.room.purge.deleted").tag("type", "read_cursor").register(meterRegistry);
+        purgedBuckets = Counter.builder("chat.room.purge.deleted").tag("type", "message_bucket").register(meterRegistry);
+        purgedSegments = Counter.builder("chat.room.purge.deleted").tag("type", "message_segment").register(meterRegistry);
+        Gauge.builder("chat.room.purge.pending", pendingRooms, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * 스케줄러 스레드를 점유하지 않도록 별도 스레드에서 실행합니다. 이전 실행이 끝나지 않았으면 건너뜁니다.
+     */
+    @Scheduled(initialDelayString = "${chat.room.purge.initial-delay-ms:60000}",
+            fixedDelayString = "${chat.room.purge.interval-ms:3600000}")
+    public void schedule() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        Thread worker = new Thread(() -> {
+            try {
+                run();
+            } finally {
+                running.set(false);
+            }
+        }, "room-purge");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 보관 기간이 지난 채팅방을 모두 삭제합니다.
+     *
+     * @return 삭제한 채팅방 수
+     */
+    public long run() {
+        Instant cutoff = Instant.now().minus(Duration.ofDays(ttlDays));
+        pendingRooms.set(mongoTemplate.count(new Query(expiredRooms(cutoff)), ChatRoom.class));
+        if (pendingRooms.get() == 0) {
+            return 0;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        long purged = 0;
+        long messages = 0;
+        nextAllowedNanos = System.nanoTime();
+
+        log.info("삭제 채팅방 정리 시작: 대상 채팅방 수={}, cutoff={}", pendingRooms.get(), cutoff);
+        try {
+            List<ChatRoom> rooms;
+            do {
+                Query query = new Query(expiredRooms(cutoff))
+                        .with(Sort.by(Sort.Direction.ASC, "deletedAt"))
+                        .limit(batchSize);
+                query.fields().include("_id").include("participants");
+                rooms = mongoTemplate.find(query, ChatRoom.class);
+
+                for (ChatRoom room : rooms) {
+                    messages += purgeRoom(room);
+                    purged++;
+                    pendingRooms.decrementAndGet();
+                }
+            } while (rooms.size() == batchSize);
+        } catch (Exception e) {
+            log.error("삭제 채팅방 정리 중 오류 발생. 삭제한 채팅방 수={}, 메시지 수={}", purged, messages, e);
+            return purged;
+        }
+
+        log.info("삭제 채팅방 정리 완료: 채팅방 수={}, 메시지 수={}, elapsedMs={}",
+                purged, messages, System.currentTimeMillis() - startedAt);
+        return purged;
+    }
+
+    /**
+     * 채팅방 하나의 메시지, 읽음 위치, 채팅방 문서를 차례로 삭제합니다.
+     *
+     * @return 삭제한 메시지 수
+     */
+    private long purgeRoom(ChatRoom room) {
+        String roomId = room.getId();
+        long deleted = 0;
+
+        // room_created_id_idx 구간에서 _id만 읽어 batch-size개씩 삭제
+        Query page = new Query(Criteria.where("roomId").is(roomId)).limit(batchSize);
+        page.fields().include("_id");
+        List<String> ids;
+        do {
+            ids = mongoTemplate.find(page, ChatMessage.class).stream()
+                    .map(ChatMessage::getId)
+                    .collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            throttle(ids.size());
+            long removed = mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), ChatMessage.class).getDeletedCount();
+            purgedMessages.increment(removed);
+            deleted += removed;
+        } while (ids.size() == batchSize);
+
+        // 묶음 저장 방식(chat.message.storage=bucket)의 메시지 묶음. 채팅방당 묶음 수는 메시지 수의 1/max-messages
+        throttle(1);
+        purgedBuckets.increment(mongoTemplate.remove(new Query(Criteria.where("roomId").is(roomId)), MessageBucket.class)
+                .getDeletedCount());
+
+        // 보관 세그먼트 (MessageArchiveJob)
+        throttle(1);
+        purgedSegments.increment(messageArchive.deleteRoom(roomId));
+
+        // user_room_idx를 쓰도록 참여자 조건을 함께 지정
+        List<String> participants = room.getParticipants() != null ? room.getParticipants() : List.of();
+        throttle(Math.max(participants.size(), 1));
+        purgedReadCursors.increment(mongoTemplate.remove(
+                new Query(Criteria.where("userId").in(participants).and("roomId").is(roomId)), ReadCursor.class).getDeletedCount());
+
+        throttle(1);
+        if (mongoTemplate.remove(new Query(Criteria.where("_id").is(roomId).and("deleted").is(true)), ChatRoom.class)
+                .getDeletedCount() > 0) {
+            purgedRooms.increment();
+        }
+        recentMessageCache.invalidate(roomId);
+
+        log.debug("삭제 채팅방 정리: roomId={}, 메시지 수={}", roomId, deleted);
+        return deleted;
+    }
+
+    /**
+     * documents개를 삭제해도 초당 max-deletes-per-second를 넘지 않을 때까지 기다립니다.
+     */
+    private void throttle(int documents) {
+        if (maxDeletesPerSecond <= 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (nextAllowedNanos < now) {
+            nextAllowedNanos = now;
+        }
+        long waitNanos = nextAllowedNanos - now;
+        nextAllowedNanos += TimeUnit.SECONDS.toNanos(documents) / maxDeletesPerSecond;
+        if (waitNanos > 0) {
+            LockSupport.parkNanos(waitNanos);
+        }
+    }
+
+    private static Criteria expiredRooms(Instant cutoff) {
+        return Criteria.where("deleted").is(true).and("deletedAt").lt(cutoff);
+    }
+}
@@ -0,0 +1,224 @@
+package com.wowelang.chatserver.job;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.ChatRoom;
+import com.wowelang.chatserver.model.MessagePreview;
+import com.wowelang.chatserver.repository.MessageArchive;
+import com.wowelang.chatserver.repository.MessageStore;
+import com.wowelang.chatserver.repository.RoomMessageSummary;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 채팅방의 비정규화 필드(lastMessage, lastMessageAt, messageCount)를 백필/복구하는 작업
+ * 
+ * - missing: messageCount가 없는 채팅방만 채움 (기본값)
+ * - all: 모든 채팅방을 메시지 저장소(MessageStore, 묶음 저장 방식 포함)와 보관소(MessageArchive) 기준으로 다시 계산
+ * - off: 실행하지 않음
+ * 
+ * 채팅방을 커서로 스트리밍하면서 batch-size 단위로 집계 후 bulk 업데이트합니다.
+ * 집계와 쓰기 사이에 전송/삭제가 반영될 수 있으므로 쓰기는 조건부입니다.
+ * missing은 messageCount가 여전히 없을 때만 쓰고, 이후(all은 처음부터) 채팅방을 다시 읽어 집계와 다른 채팅방만
+ * 읽은 값(messageCount, lastMessageAt)이 그대로일 때 덮어씁니다. 그 사이 $inc가 반영되어 쓰지 못한 채팅방은 다시 집계합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomStatsBackfillJob {
+
+    private static final int MAX_RECONCILE_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final MessageStore messageStore;
+    private final MessageArchive messageArchive;
+
+    @Value("${chat.room.stats-backfill.mode:missing}")
+    private String mode;
+
+    @Value("${chat.room.stats-backfill.batch-size:500}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if ("off".equalsIgnoreCase(mode)) {
+            return;
+        }
+        
+        Thread worker = new Thread(() -> run("all".equalsIgnoreCase(mode)), "room-stats-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 백필을 실행합니다.
+     * 
+     * @param repairAll true이면 모든 채팅방을 재계산, false이면 누락된 채팅방만 처리
+     * @return 갱신한 채팅방 수
+     */
+    public long run(boolean repairAll) {
+        Query query = new Query(Criteria.where("deleted").is(false));
+        if (!repairAll) {
+            query.addCriteria(Criteria.where("messageCount").exists(false));
+        }
+        query.fields().include("_id");
+        query.cursorBatchSize(batchSize);
+        
+        long processed = 0;
+        List<String> batch = new ArrayList<>(batchSize);
+        
+        log.info("채팅방 통계 백필 시작: mode={}, batchSize={}", repairAll ? "all" : "missing", batchSize);
+        try (Stream<ChatRoom> rooms = mongoTemplate.stream(query, ChatRoom.class)) {
+            Iterator<ChatRoom> iterator = rooms.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next().getId());
+                if (batch.size() >= batchSize) {
+                    processed += applyBatch(batch, repairAll);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                processed += applyBatch(batch, repairAll);
+            }
+        } catch (Exception e) {
+            log.error("채팅방 통계 백필 중 오류 발생. 처리된 채팅방 수={}", processed, e);
+            return processed;
+        }
+        
+        log.info("채팅방 통계 백필 완료: 처리된 채팅방 수={}", processed);
+        return processed;
+    }
+
+    private int applyBatch(List<String> roomIds, boolean repairAll) {
+        if (!repairAll) {
+            // 아직 백필되지 않은 채팅방에만 씀 (그 사이 다른 노드가 채웠으면 건너뜀)
+            Map<String, RoomMessageSummary> summaries = summarize(roomIds);
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatRoom.class);
+            for (String roomId : roomIds) {
+                bulkOps.updateOne(new Query(Criteria.where("_id").is(roomId).and("messageCount").exists(false)),
+                        toUpdate(summaries.get(roomId)));
+            }
+            bulkOps.execute();
+        }
+        
+        // missing: messageCount가 없는 동안 recordMessageSent가 반영하지 않은 메시지를 바로잡음
+        reconcile(roomIds);
+        log.debug("채팅방 통계 배치 반영: {}개", roomIds.size());
+        return roomIds.size();
+    }
+
+    /**
+     * 채팅방의 현재 값과 다시 집계한 값이 다른 채팅방만, 읽은 값이 그대로일 때 덮어씁니다.
+     * 쓰지 못한 채팅방(그 사이 전송/삭제 반영)은 다시 읽고 집계하여 최대 MAX_RECONCILE_ATTEMPTS번 시도합니다.
+     */
+    private void reconcile(List<String> roomIds) {
+        List<String> pending = roomIds;
+        for (int attempt = 0; attempt < MAX_RECONCILE_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            // 집계보다 먼저 읽어야 집계 이후의 $inc가 조건 불일치로 드러남
+            Map<String, ChatRoom> rooms = findStats(pending);
+            Map<String, RoomMessageSummary> summaries = summarize(pending);
+            
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatRoom.class);
+            Map<String, RoomMessageSummary> written = new HashMap<>();
+            for (String roomId : pending) {
+                ChatRoom room = rooms.get(roomId);
+                RoomMessageSummary summary = summaries.get(roomId);
+                if (room == null || matches(room, summary)) {
+                    continue;
+                }
+                
+                Query query = new Query(Criteria.where("_id").is(roomId)
+                        .and("messageCount").is(room.getMessageCount())
+                        .and("lastMessageAt").is(room.getLastMessageAt()));
+                bulkOps.updateOne(query, toUpdate(summary));
+                written.put(roomId, summary);
+            }
+            if (written.isEmpty()) {
+                return;
+            }
+            bulkOps.execute();
+            
+            // 쓰기 결과는 채팅방별로 알 수 없으므로 다시 읽어 반영되지 않은 채팅방만 재시도
+            Map<String, ChatRoom> after = findStats(written.keySet());
+            pending = written.keySet().stream()
+                    .filter(roomId -> after.containsKey(roomId) && !matches(after.get(roomId), written.get(roomId)))
+                    .toList();
+        }
+        
+        if (!pending.isEmpty()) {
+            log.warn("채팅방 통계 백필 중 계속 변경되어 반영하지 못한 채팅방: {}", pending);
+        }
+    }
+
+    /**
+     * 저장소의 집계에 보관된 메시지 수를 더합니다. 보관 메시지는 모두 저장소의 메시지보다 오래되었으므로
+     * 저장소에 메시지가 없는 채팅방만 보관소에서 마지막 메시지를 찾습니다.
+     */
+    private Map<String, RoomMessageSummary> summarize(List<String> roomIds) {
+        Map<String, RoomMessageSummary> summaries = new HashMap<>(messageStore.summarizeRooms(roomIds));
+        messageArchive.countRooms(roomIds).forEach((roomId, archived) -> {
+            RoomMessageSummary summary = summaries.get(roomId);
+            if (summary != null) {
+                summary.setMessageCount(summary.getMessageCount() + archived);
+                return;
+            }
+            List<ChatMessage> last = messageArchive.findRoomPage(roomId, null, null, 1);
+            if (!last.isEmpty()) {
+                summaries.put(roomId, new RoomMessageSummary(roomId, last.get(0), archived));
+            }
+        });
+        return summaries;
+    }
+
+    private Map<String, ChatRoom> findStats(Collection<String> roomIds) {
+        Query query = new Query(Criteria.where("_id").in(roomIds).and("deleted").is(false));
+        query.fields().include("_id").include("messageCount").include("lastMessage").include("lastMessageAt");
+        return mongoTemplate.find(query, ChatRoom.class).stream()
+                .collect(Collectors.toMap(ChatRoom::getId, Function.identity()));
+    }
+
+    private static boolean matches(ChatRoom room, RoomMessageSummary summary) {
+        if (summary == null) {
+            return Objects.equals(room.getMessageCount(), 0L) && room.getLastMessage() == null;
+        }
+        ChatMessage last = summary.getLastMessage();
+        return Objects.equals(room.getMessageCount(), summary.getMessageCount())
+                && room.getLastMessage() != null
+                && last.getId().equals(room.getLastMessage().getMessageId())
+                && last.getCreatedAt().equals(room.getLastMessageAt());
+    }
+
+    private static Update toUpdate(RoomMessageSummary summary) {
+        if (summary == null) {
+            return new Update()
+                    .set("messageCount", 0L)
+                    .unset("lastMessage")
+                    .unset("lastMessageAt");
+        }
+        return new Update()
+                .set("messageCount", summary.getMessageCount())
+                .set("lastMessage", MessagePreview.of(summary.getLastMessage()))
+                .set("lastMessageAt", summary.getLastMessage().getCreatedAt());
+    }
+}
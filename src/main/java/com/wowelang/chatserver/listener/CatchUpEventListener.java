@@ -0,0 +1,99 @@
+package com.wowelang.chatserver.listener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import com.wowelang.chatserver.service.CatchUpService;
+import com.wowelang.chatserver.service.CatchUpService.CatchUpRequest;
+import com.wowelang.chatserver.service.RoomBroadcaster;
+import com.wowelang.chatserver.util.MessageCursor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 채팅방 구독 시 클라이언트가 보낸 워터마크(x-last-seen)로 catch-up을 요청하는 리스너
+ *
+ * 워터마크는 SUBSCRIBE 프레임의 "x-last-seen: messageId@createdAt" 헤더나, CONNECT 프레임의
+ * "x-last-seen: roomId=messageId@createdAt,roomId2=..." 헤더로 보낼 수 있습니다. 둘 다 있으면 SUBSCRIBE 헤더를 사용합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatchUpEventListener {
+
+    public static final String LAST_SEEN_HEADER = "x-last-seen";
+
+    private final CatchUpService catchUpService;
+
+    // sessionId -> CONNECT 프레임으로 받은 채팅방별 워터마크 (해당 방을 구독하면 제거)
+    private final Map<String, Map<String, String>> connectWatermarks = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void handleConnect(SessionConnectEvent event) {
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        String header = headerAccessor.getFirstNativeHeader(LAST_SEEN_HEADER);
+        if (header == null || header.isBlank() || headerAccessor.getSessionId() == null) {
+            return;
+        }
+
+        Map<String, String> watermarks = new HashMap<>();
+        for (String entry : header.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator > 0) {
+                watermarks.put(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
+            }
+        }
+        if (!watermarks.isEmpty()) {
+            connectWatermarks.put(headerAccessor.getSessionId(), watermarks);
+        }
+    }
+
+    @EventListener
+    public void handleSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        String roomId = RoomBroadcaster.roomIdOf(headerAccessor.getDestination());
+        String sessionId = headerAccessor.getSessionId();
+        if (roomId == null || sessionId == null || event.getUser() == null) {
+            return;
+        }
+
+        String watermark = headerAccessor.getFirstNativeHeader(LAST_SEEN_HEADER);
+        Map<String, String> fromConnect = connectWatermarks.get(sessionId);
+        if (fromConnect != null) {
+            String connectWatermark = fromConnect.remove(roomId);
+            if (watermark == null) {
+                watermark = connectWatermark;
+            }
+        }
+        if (watermark == null || watermark.isBlank()) {
+            return; // 워터마크가 없으면 클라이언트가 REST로 기록을 받음
+        }
+
+        String userId = event.getUser().getName();
+        MessageCursor since;
+        try {
+            since = MessageCursor.parseWatermark(watermark.trim());
+        } catch (IllegalArgumentException e) {
+            log.warn("잘못된 catch-up 워터마크: roomId={}, sessionId={}, watermark={}", roomId, sessionId, watermark);
+            catchUpService.rejectWatermark(userId, roomId);
+            return;
+        }
+
+        catchUpService.enqueue(new CatchUpRequest(sessionId, headerAccessor.getSubscriptionId(),
+                headerAccessor.getDestination(), userId, roomId, since));
+    }
+
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        connectWatermarks.remove(event.getSessionId());
+    }
+}
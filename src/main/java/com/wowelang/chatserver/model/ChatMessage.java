@@ -3,7 +3,7 @@ package com.wowelang.chatserver.model;
 import java.time.Instant;
 
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotBlank;
@@ -19,13 +19,17 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "chat_messages")
+// 기록 페이지 조회(roomId 일치, createdAt/_id 역순)를 인덱스 순서로 처리하여 메모리 정렬을 피함. roomId 단일 인덱스를 대체
+@CompoundIndex(name = "room_created_id_idx", def = "{'roomId': 1, 'createdAt': -1, '_id': -1}")
+// 방별 순번 중복 방지 및 순번 구간 조회용. 순번 도입 전 메시지(seq 없음)는 제외
+@CompoundIndex(name = "room_seq_idx", def = "{'roomId': 1, 'seq': 1}", unique = true,
+        partialFilter = "{'seq': {'$exists': true}}")
 public class ChatMessage {
     
     @Id
     private String id;
     
     @NotBlank
-    @Indexed
     private String roomId;
     
     @NotBlank
@@ -43,6 +47,8 @@ public class ChatMessage {
     
     private Instant createdAt;
     
+    private Long seq; // 채팅방 내 순번 (1부터 증가, 저장 실패 등으로 빈 순번이 생길 수 있음, RoomSequenceAllocator), 도입 전 메시지는 null
+    
     @Builder.Default
     private boolean deleted = false;
     
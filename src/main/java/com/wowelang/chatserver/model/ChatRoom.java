@@ -5,6 +5,7 @@ import java.util.List;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -18,6 +19,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Document(collection = "chat_rooms")
 @CompoundIndex(name = "participants_idx", def = "{'participants': 1}")
+// 보관 기간이 지난 삭제 채팅방 조회용 (RoomPurgeJob). 삭제된 채팅방만 포함
+@CompoundIndex(name = "deleted_at_idx", def = "{'deletedAt': 1}", partialFilter = "{'deleted': true}")
 public class ChatRoom {
     
     @Id
@@ -25,6 +28,13 @@ public class ChatRoom {
     
     private List<String> participants; // 정확히 2명의 참여자
     
+    // 정렬된 참여자 쌍 키 (pairKeyOf). 삭제되지 않은 채팅방만 가지며, 쌍마다 채팅방이 하나뿐임을 보장
+    @Indexed(name = "pair_key_idx", unique = true, sparse = true)
+    private String pairKey;
+    
+    // pairKey 도입 전 경쟁 조건으로 생긴 같은 쌍의 중복 채팅방이면 pairKey를 가진 채팅방 ID (RoomPairKeyMigrationJob). 기록은 그대로 조회 가능
+    private String duplicateOf;
+    
     private Instant createdAt;
     
     private Instant updatedAt;
@@ -33,4 +43,28 @@ public class ChatRoom {
     private boolean deleted = false;
     
     private Instant deletedAt;
-} 
\ No newline at end of file
+    
+    // 채팅방 목록 조회용 비정규화 필드 (메시지 전송/삭제 시 갱신)
+    private MessagePreview lastMessage;
+    
+    private Instant lastMessageAt;
+    
+    private Long messageCount; // null이면 아직 백필되지 않은 채팅방
+    
+    private Long lastSeq; // 마지막으로 할당(예약)된 메시지 순번
+    
+    // 보관 세그먼트로 옮긴 마지막 메시지 위치 (MessageArchiveJob). 이 위치까지의 메시지는 chat_messages에 남아 있지 않음
+    private Instant archivedUntil;
+    
+    private String archivedUntilId;
+    
+    /**
+     * 두 사용자 ID의 순서와 관계없이 같은 값을 갖는 쌍 키 ("길이:작은ID:큰ID", ID에 구분자가 있어도 모호하지 않음)
+     */
+    public static String pairKeyOf(String userId1, String userId2) {
+        boolean ordered = userId1.compareTo(userId2) <= 0;
+        String first = ordered ? userId1 : userId2;
+        String second = ordered ? userId2 : userId1;
+        return first.length() + ":" + first + ":" + second;
+    }
+}
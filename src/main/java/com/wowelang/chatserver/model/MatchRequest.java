@@ -17,6 +17,13 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Document(collection = "match_requests")
 @CompoundIndex(name = "requester_target_idx", def = "{'requesterId': 1, 'targetId': 1}", unique = true)
+// 받은 요청함 페이지 조회(targetId/status 일치, updatedAt/_id 역순)를 인덱스 순서로 처리. requester_target_idx는 targetId 조건에 쓸 수 없음
+@CompoundIndex(name = "target_status_updated_idx", def = "{'targetId': 1, 'status': 1, 'updatedAt': -1, '_id': -1}")
+// 보낸 요청함 페이지 조회용
+@CompoundIndex(name = "requester_status_updated_idx", def = "{'requesterId': 1, 'status': 1, 'updatedAt': -1, '_id': -1}")
+// 쌍마다 대기 중인 요청은 방향과 관계없이 하나뿐 (상호 요청이 동시에 와도 엇갈린 PENDING 두 건이 생기지 않음). pairKey 없는 이전 요청은 제외
+@CompoundIndex(name = "pending_pair_idx", def = "{'pairKey': 1}", unique = true,
+        partialFilter = "{'status': 'PENDING', 'pairKey': {'$exists': true}}")
 public class MatchRequest {
     
     @Id
@@ -26,6 +33,8 @@ public class MatchRequest {
     
     private String targetId;
     
+    private String pairKey; // ChatRoom.pairKeyOf(requesterId, targetId)
+    
     private MatchStatus status;
     
     private Instant createdAt;
@@ -0,0 +1,48 @@
+package com.wowelang.chatserver.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 채팅방 메시지 묶음 (chat.message.storage=bucket)
+ *
+ * 순번(seq) 구간 하나의 메시지를 최대 chat.message.bucket.max-messages개까지 $push로 모아 둡니다.
+ * _id는 "roomId:구간 번호"이므로 같은 메시지를 다시 저장해도 같은 묶음으로 갑니다. (순번 도입 전 메시지는 "roomId:legacy:번호")
+ * 메시지는 저장된 순서대로 쌓이므로 묶음 안에서 createdAt 순서가 보장되지 않고, 이웃한 묶음의 시각 구간이 조금 겹칠 수 있습니다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "chat_message_buckets")
+// 기록 페이지 조회용 (maxCreatedAt 역순으로 읽고, minCreatedAt 조건은 인덱스 키로 거름)
+@CompoundIndex(name = "room_max_created_idx", def = "{'roomId': 1, 'maxCreatedAt': -1, 'minCreatedAt': -1}")
+// 내보내기용 (오래된 순)
+@CompoundIndex(name = "room_min_created_idx", def = "{'roomId': 1, 'minCreatedAt': 1}")
+// 메시지 ID로 묶음 찾기 (삭제)
+@CompoundIndex(name = "message_id_idx", def = "{'messages._id': 1}")
+public class MessageBucket {
+
+    @Id
+    private String id;
+
+    private String roomId;
+
+    private Instant minCreatedAt;
+
+    private Instant maxCreatedAt;
+
+    private int count;
+
+    // ChatMessage를 변환한 문서. ChatMessage의 인덱스 정의가 묶음 컬렉션에 중첩 인덱스로 만들어지지 않도록 엔티티로 매핑하지 않음
+    private List<org.bson.Document> messages;
+}
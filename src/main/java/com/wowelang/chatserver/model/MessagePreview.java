@@ -0,0 +1,47 @@
+package com.wowelang.chatserver.model;
+
+import java.time.Instant;
+
+import com.wowelang.chatserver.model.ChatMessage.MessageType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 채팅방 문서에 비정규화하여 저장하는 마지막 메시지 스냅샷
+ * ChatMessage를 그대로 임베드하면 인덱스 정의까지 chat_rooms에 딸려오므로 별도 타입을 사용합니다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePreview {
+    
+    private String messageId;
+    
+    private String senderId;
+    
+    private MessageType type;
+    
+    private String content;
+    
+    private String s3Key;
+    
+    private String originalMessage;
+    
+    private Instant createdAt;
+    
+    public static MessagePreview of(ChatMessage message) {
+        return MessagePreview.builder()
+                .messageId(message.getId())
+                .senderId(message.getSenderId())
+                .type(message.getType())
+                .content(message.getContent())
+                .s3Key(message.getS3Key())
+                .originalMessage(message.getOriginalMessage())
+                .createdAt(message.getCreatedAt())
+                .build();
+    }
+}
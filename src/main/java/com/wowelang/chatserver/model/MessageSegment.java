@@ -0,0 +1,49 @@
+package com.wowelang.chatserver.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 오래된 메시지 보관 세그먼트 (MessageArchiveJob)
+ *
+ * 채팅방의 연속된 메시지 최대 chat.message.archive.segment-size개를 (createdAt, _id) 순서의 NDJSON으로 gzip 압축해 저장합니다.
+ * _id는 "roomId:첫 메시지 ID"이고, 같은 채팅방의 세그먼트끼리는 시각 구간이 겹치지 않습니다.
+ * 보관 후 삭제된 메시지는 data를 다시 쓰지 않고 deletedIds에 기록하며, 조회 시 제외합니다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "chat_message_segments")
+// 기록 페이지 조회용 (최신 세그먼트부터)
+@CompoundIndex(name = "room_max_created_idx", def = "{'roomId': 1, 'maxCreatedAt': -1}")
+// 내보내기용 (오래된 순)
+@CompoundIndex(name = "room_min_created_idx", def = "{'roomId': 1, 'minCreatedAt': 1}")
+public class MessageSegment {
+
+    @Id
+    private String id;
+
+    private String roomId;
+
+    private Instant minCreatedAt;
+
+    private Instant maxCreatedAt;
+
+    private int count;
+
+    private byte[] data; // gzip(NDJSON)
+
+    private List<String> deletedIds; // 보관 후 삭제된 메시지 ID
+
+    private Instant archivedAt;
+}
@@ -0,0 +1,40 @@
+package com.wowelang.chatserver.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 채팅방별 사용자의 읽음 위치와 읽지 않은 메시지 수
+ * unreadCount는 메시지 전송/삭제 시 증감되는 카운터입니다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "read_cursors")
+@CompoundIndex(name = "user_room_idx", def = "{'userId': 1, 'roomId': 1}", unique = true)
+public class ReadCursor {
+    
+    @Id
+    private String id;
+    
+    private String roomId;
+    
+    private String userId;
+    
+    private String lastReadMessageId;
+    
+    private Instant lastReadAt;
+    
+    private long unreadCount;
+    
+    private Instant updatedAt;
+}
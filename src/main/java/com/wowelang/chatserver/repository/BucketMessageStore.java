@@ -0,0 +1,362 @@
+package com.wowelang.chatserver.repository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.MessageBucket;
+import com.wowelang.chatserver.util.MessageCursor;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 채팅방 메시지를 순번 구간별 묶음(MessageBucket)으로 저장하는 저장소 (chat.message.storage=bucket)
+ *
+ * 메시지 저장은 묶음 하나에 대한 $push upsert 한 번이고, 기록 한 페이지는 보통 묶음 한두 개만 읽습니다.
+ * 묶음의 시각 구간이 조금 겹칠 수 있으므로, 페이지 조회는 maxCreatedAt 역순으로 묶음을 읽으면서
+ * 다음 묶음의 maxCreatedAt이 이미 모은 페이지의 마지막 메시지보다 오래되었을 때 멈춥니다. (내보내기는 같은 방식의 오름차순)
+ *
+ * 비동기 저장 모드(chat.message.write-behind)와 함께 쓸 수 없습니다.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.message.storage", havingValue = "bucket")
+@RequiredArgsConstructor
+public class BucketMessageStore implements MessageStore {
+
+    // (createdAt, _id) 오름차순. ObjectId 16진 문자열은 길이가 같으므로 문자열 비교가 생성 순서와 같음
+    private static final Comparator<ChatMessage> OLDEST_FIRST = Comparator
+            .comparing(ChatMessage::getCreatedAt)
+            .thenComparing(ChatMessage::getId);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${chat.message.bucket.max-messages:200}")
+    private int bucketSize;
+
+    @Value("${chat.message.write-behind.enabled:false}")
+    private boolean writeBehindEnabled;
+
+    @PostConstruct
+    public void init() {
+        if (writeBehindEnabled) {
+            throw new IllegalStateException("chat.message.write-behind cannot be used with chat.message.storage=bucket");
+        }
+    }
+
+    @Override
+    public ChatMessage insert(ChatMessage message) {
+        if (message.getSeq() == null) {
+            throw new IllegalArgumentException("Bucketed message storage requires a message sequence number");
+        }
+        if (message.getId() == null) {
+            message.setId(new ObjectId().toHexString());
+        }
+        if (message.getCreatedAt() == null) {
+            // DB 저장 정밀도(ms)에 맞춰 반환값과 저장본의 정렬 순서를 일치시킴
+            message.setCreatedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        }
+
+        String bucketId = bucketId(message.getRoomId(), message.getSeq(), bucketSize);
+        Update update = appendUpdate(mongoTemplate.getConverter(), message);
+        try {
+            mongoTemplate.upsert(appendQuery(bucketId, message), update, MessageBucket.class);
+        } catch (DuplicateKeyException e) {
+            // 다른 요청이 같은 묶음을 먼저 만들었거나 이미 묶음에 있는 메시지. 묶음이 생겼으므로 한 번 더 시도하면 추가되거나 다시 중복으로 끝남
+            try {
+                mongoTemplate.upsert(appendQuery(bucketId, message), update, MessageBucket.class);
+            } catch (DuplicateKeyException alreadyStored) {
+                // 이미 묶음에 있는 메시지
+            }
+        }
+        return message;
+    }
+
+    @Override
+    public Optional<ChatMessage> findById(String messageId) {
+        Query query = new Query(Criteria.where("messages._id").is(toId(messageId)));
+        query.fields().include("roomId").position("messages", 1);
+
+        MessageBucket bucket = mongoTemplate.findOne(query, MessageBucket.class);
+        if (bucket == null || bucket.getMessages() == null || bucket.getMessages().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(read(bucket.getMessages().get(0)));
+    }
+
+    @Override
+    public boolean markDeleted(ChatMessage message) {
+        return mongoTemplate.updateFirst(new Query(Criteria.where("messages._id").is(toId(message.getId()))),
+                new Update().set("messages.$.deleted", message.isDeleted()).set("messages.$.deletedAt", message.getDeletedAt()),
+                MessageBucket.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public long countAfter(String roomId, String userId, Instant after) {
+        Query query = new Query(Criteria.where("roomId").is(roomId).and("maxCreatedAt").gt(after));
+        query.fields().include("messages.createdAt").include("messages.deleted").include("messages.senderId");
+
+        long count = 0;
+        try (Stream<MessageBucket> buckets = mongoTemplate.stream(query, MessageBucket.class)) {
+            Iterator<MessageBucket> iterator = buckets.iterator();
+            while (iterator.hasNext()) {
+                for (org.bson.Document document : iterator.next().getMessages()) {
+                    if (!document.getBoolean("deleted", false) && !userId.equals(document.getString("senderId"))
+                            && document.getDate("createdAt").toInstant().isAfter(after)) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 대상 채팅방의 묶음을 펼쳐 채팅방별 최신 메시지와 개수를 집계합니다. (chat_messages 집계와 같은 결과)
+     */
+    @Override
+    public Map<String, RoomMessageSummary> summarizeRooms(Collection<String> roomIds) {
+        if (roomIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("roomId").in(roomIds)),
+                Aggregation.unwind("messages"),
+                Aggregation.match(Criteria.where("messages.deleted").is(false)),
+                Aggregation.sort(Sort.by(Sort.Direction.ASC, "roomId")
+                        .and(Sort.by(Sort.Direction.DESC, "messages.createdAt", "messages._id"))),
+                Aggregation.group("roomId")
+                        .first("messages").as("lastMessage")
+                        .count().as("messageCount"))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(MessageBucket.class), org.bson.Document.class)
+                .getMappedResults()
+                .stream()
+                .map(result -> new RoomMessageSummary(result.getString("_id"),
+                        read(result.get("lastMessage", org.bson.Document.class)),
+                        result.get("messageCount", Number.class).longValue()))
+                .collect(Collectors.toMap(RoomMessageSummary::getRoomId, Function.identity()));
+    }
+
+    @Override
+    public List<ChatMessage> findRoomPage(String roomId, MessageCursor cursor, Instant before, int limit) {
+        Criteria criteria = Criteria.where("roomId").is(roomId);
+        Predicate<ChatMessage> older = message -> true;
+        if (cursor != null) {
+            criteria = criteria.and("minCreatedAt").lte(cursor.createdAt());
+            older = message -> compare(message, cursor.createdAt(), cursor.id()) < 0;
+        } else if (before != null) {
+            criteria = criteria.and("minCreatedAt").lt(before);
+            older = message -> message.getCreatedAt().isBefore(before);
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "maxCreatedAt").and(Sort.by(Sort.Direction.DESC, "minCreatedAt")))
+                .cursorBatchSize(2);
+
+        List<ChatMessage> page = new ArrayList<>();
+        try (Stream<MessageBucket> buckets = mongoTemplate.stream(query, MessageBucket.class)) {
+            Iterator<MessageBucket> iterator = buckets.iterator();
+            while (iterator.hasNext()) {
+                MessageBucket bucket = iterator.next();
+                // 이후 묶음은 모두 페이지 마지막 메시지보다 오래되었음
+                if (page.size() >= limit && bucket.getMaxCreatedAt().isBefore(page.get(limit - 1).getCreatedAt())) {
+                    break;
+                }
+
+                for (org.bson.Document document : bucket.getMessages()) {
+                    ChatMessage message = read(document);
+                    if (!message.isDeleted() && older.test(message)) {
+                        page.add(message);
+                    }
+                }
+                page.sort(OLDEST_FIRST.reversed());
+                if (page.size() > limit) {
+                    page.subList(limit, page.size()).clear();
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * 방별로 워터마크 이후 묶음을 읽습니다. limit을 넘으면 더 읽지 않으므로 그때의 total은 limit보다 큰 하한입니다.
+     */
+    @Override
+    public Map<String, RoomMessageBatch> findNewerThan(Map<String, MessageCursor> since, int limit) {
+        Map<String, RoomMessageBatch> batches = new HashMap<>();
+        since.forEach((roomId, cursor) -> {
+            Query query = Query.query(Criteria.where("roomId").is(roomId).and("maxCreatedAt").gte(cursor.createdAt()))
+                    .with(Sort.by(Sort.Direction.DESC, "maxCreatedAt").and(Sort.by(Sort.Direction.DESC, "minCreatedAt")));
+
+            List<ChatMessage> messages = new ArrayList<>();
+            try (Stream<MessageBucket> buckets = mongoTemplate.stream(query, MessageBucket.class)) {
+                Iterator<MessageBucket> iterator = buckets.iterator();
+                while (iterator.hasNext() && messages.size() <= limit) {
+                    for (org.bson.Document document : iterator.next().getMessages()) {
+                        ChatMessage message = read(document);
+                        if (!message.isDeleted() && compare(message, cursor.createdAt(), cursor.id()) > 0) {
+                            messages.add(message);
+                        }
+                    }
+                }
+            }
+            if (messages.isEmpty()) {
+                return;
+            }
+
+            long total = messages.size();
+            if (total > limit) {
+                messages.clear();
+            } else {
+                messages.sort(OLDEST_FIRST);
+            }
+            batches.put(roomId, new RoomMessageBatch(roomId, messages, total));
+        });
+        return batches;
+    }
+
+    @Override
+    public Stream<ChatMessage> streamRoom(String roomId, Instant from, Instant to, String senderId, int batchSize) {
+        Criteria criteria = Criteria.where("roomId").is(roomId);
+        if (to != null) {
+            criteria = criteria.and("minCreatedAt").lt(to);
+        }
+        if (from != null) {
+            criteria = criteria.and("maxCreatedAt").gte(from);
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "minCreatedAt"))
+                .cursorBatchSize(Math.max(1, batchSize / bucketSize));
+
+        Predicate<ChatMessage> filter = message -> !message.isDeleted()
+                && (from == null || !message.getCreatedAt().isBefore(from))
+                && (to == null || message.getCreatedAt().isBefore(to))
+                && (senderId == null || senderId.equals(message.getSenderId()));
+
+        Stream<MessageBucket> buckets = mongoTemplate.stream(query, MessageBucket.class);
+        Iterator<ChatMessage> messages = new OrderedMessageIterator(buckets.iterator(), filter);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(messages, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(buckets::close);
+    }
+
+    /**
+     * minCreatedAt 순으로 읽은 묶음의 메시지를 (createdAt, _id) 순서로 내보냅니다.
+     * 가장 오래된 대기 메시지는 다음 묶음의 minCreatedAt보다 오래되었을 때만 내보내므로 겹친 구간도 순서가 맞습니다.
+     */
+    private class OrderedMessageIterator implements Iterator<ChatMessage> {
+
+        private final Iterator<MessageBucket> buckets;
+        private final Predicate<ChatMessage> filter;
+        private final PriorityQueue<ChatMessage> pending = new PriorityQueue<>(OLDEST_FIRST);
+        private MessageBucket nextBucket;
+
+        OrderedMessageIterator(Iterator<MessageBucket> buckets, Predicate<ChatMessage> filter) {
+            this.buckets = buckets;
+            this.filter = filter;
+            this.nextBucket = buckets.hasNext() ? buckets.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public ChatMessage next() {
+            fill();
+            if (pending.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return pending.poll();
+        }
+
+        private void fill() {
+            while (nextBucket != null
+                    && (pending.isEmpty() || !nextBucket.getMinCreatedAt().isAfter(pending.peek().getCreatedAt()))) {
+                for (org.bson.Document document : nextBucket.getMessages()) {
+                    ChatMessage message = read(document);
+                    if (filter.test(message)) {
+                        pending.add(message);
+                    }
+                }
+                nextBucket = buckets.hasNext() ? buckets.next() : null;
+            }
+        }
+    }
+
+    /**
+     * 순번이 있는 메시지의 묶음 ID
+     */
+    public static String bucketId(String roomId, long seq, int bucketSize) {
+        return roomId + ":" + (seq - 1) / bucketSize;
+    }
+
+    /**
+     * 묶음에 아직 없는 메시지만 추가하는 조건. 이미 있으면 upsert가 같은 _id로 삽입을 시도하여 DuplicateKeyException이 발생합니다.
+     */
+    public static Query appendQuery(String bucketId, ChatMessage message) {
+        return new Query(Criteria.where("_id").is(bucketId).and("messages._id").ne(toId(message.getId())));
+    }
+
+    public static Update appendUpdate(MongoConverter converter, ChatMessage message) {
+        org.bson.Document document = new org.bson.Document();
+        converter.write(message, document);
+        document.remove("_class");
+
+        return new Update()
+                .setOnInsert("roomId", message.getRoomId())
+                .push("messages", document)
+                .inc("count", 1)
+                .min("minCreatedAt", message.getCreatedAt())
+                .max("maxCreatedAt", message.getCreatedAt());
+    }
+
+    private ChatMessage read(org.bson.Document document) {
+        return mongoTemplate.getConverter().read(ChatMessage.class, document);
+    }
+
+    private static int compare(ChatMessage message, Instant createdAt, String id) {
+        int result = message.getCreatedAt().compareTo(createdAt);
+        return result != 0 ? result : message.getId().compareTo(id);
+    }
+
+    private static Object toId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -1,10 +1,7 @@
 package com.wowelang.chatserver.repository;
 
-import java.time.Instant;
-import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
@@ -12,13 +9,7 @@ import org.springframework.data.mongodb.repository.Query;
 
 import com.wowelang.chatserver.model.ChatMessage;
 
-public interface ChatMessageRepository extends MongoRepository<ChatMessage, String> {
-    
-    @Query("{ 'roomId': ?0, 'deleted': false, 'createdAt': { $lt: ?1 } }")
-    List<ChatMessage> findByRoomIdAndCreatedAtLessThanOrderByCreatedAtDesc(String roomId, Instant before, Pageable pageable);
-    
-    @Query("{ 'roomId': ?0, 'deleted': false }")
-    List<ChatMessage> findByRoomIdOrderByCreatedAtDesc(String roomId, Pageable pageable);
+public interface ChatMessageRepository extends MongoRepository<ChatMessage, String>, ChatMessageRepositoryCustom {
     
     Optional<ChatMessage> findFirstByRoomIdAndDeletedFalseOrderByCreatedAtDesc(String roomId);
     
@@ -0,0 +1,41 @@
+package com.wowelang.chatserver.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.util.MessageCursor;
+
+public interface ChatMessageRepositoryCustom {
+
+    /**
+     * 여러 채팅방의 마지막 메시지와 메시지 수를 한 번의 집계 쿼리로 조회합니다.
+     *
+     * @param roomIds 조회할 채팅방 ID 목록
+     * @return 채팅방 ID를 키로 하는 요약 정보 (메시지가 없는 채팅방은 포함되지 않음)
+     */
+    Map<String, RoomMessageSummary> summarizeRooms(Collection<String> roomIds);
+
+    /**
+     * 채팅방의 삭제되지 않은 메시지를 (createdAt, _id) 역순으로 한 페이지 조회합니다.
+     * room_created_id_idx 인덱스 순서대로 읽으므로 정렬 단계가 없습니다.
+     *
+     * @param roomId 채팅방 ID
+     * @param cursor 이 위치보다 오래된 메시지만 조회 (null이면 최신부터)
+     * @param before cursor가 없을 때 이 시각 이전 메시지만 조회 (이전 API 호환, null 가능)
+     * @param limit 최대 개수
+     */
+    List<ChatMessage> findRoomPage(String roomId, MessageCursor cursor, Instant before, int limit);
+
+    /**
+     * 여러 채팅방에서 방별 워터마크 이후의 삭제되지 않은 메시지를 한 번에 조회합니다. (재연결 catch-up용)
+     * 먼저 방별 개수를 집계하고, limit개 이하인 방의 메시지만 한 번의 쿼리로 읽습니다.
+     *
+     * @param since 채팅방 ID별 워터마크 (이 위치보다 새로운 메시지만 조회)
+     * @param limit 방당 최대 개수, 초과한 방은 messages가 비어 있고 total만 채워짐
+     * @return 채팅방 ID를 키로 하는 결과 (새 메시지가 없는 채팅방은 포함되지 않음)
+     */
+    Map<String, RoomMessageBatch> findNewerThan(Map<String, MessageCursor> since, int limit);
+}
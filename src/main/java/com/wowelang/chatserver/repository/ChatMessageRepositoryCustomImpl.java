@@ -0,0 +1,131 @@
+package com.wowelang.chatserver.repository;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.util.MessageCursor;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class ChatMessageRepositoryCustomImpl implements ChatMessageRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Map<String, RoomMessageSummary> summarizeRooms(Collection<String> roomIds) {
+        if (roomIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        // roomId 인덱스로 대상 메시지만 추린 뒤, 채팅방별 최신순으로 정렬하여 첫 문서와 개수를 함께 집계
+        Aggregation aggregation = newAggregation(
+                match(Criteria.where("roomId").in(roomIds).and("deleted").is(false)),
+                sort(Sort.by(Sort.Direction.ASC, "roomId").and(Sort.by(Sort.Direction.DESC, "createdAt"))),
+                group("roomId")
+                        .first(Aggregation.ROOT).as("lastMessage")
+                        .count().as("messageCount"))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+
+        return mongoTemplate.aggregate(aggregation, ChatMessage.class, RoomMessageSummary.class)
+                .getMappedResults()
+                .stream()
+                .collect(Collectors.toMap(RoomMessageSummary::getRoomId, Function.identity()));
+    }
+
+    @Override
+    public List<ChatMessage> findRoomPage(String roomId, MessageCursor cursor, Instant before, int limit) {
+        Criteria criteria = Criteria.where("roomId").is(roomId).and("deleted").is(false);
+        
+        if (cursor != null) {
+            // createdAt 범위로 인덱스 구간을 한정하고, 같은 createdAt 안에서는 _id로 커서 이후만 통과
+            Object cursorId = ObjectId.isValid(cursor.id()) ? new ObjectId(cursor.id()) : cursor.id();
+            criteria = criteria.and("createdAt").lte(cursor.createdAt())
+                    .orOperator(
+                            Criteria.where("createdAt").lt(cursor.createdAt()),
+                            Criteria.where("_id").lt(cursorId));
+        } else if (before != null) {
+            criteria = criteria.and("createdAt").lt(before);
+        }
+        
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(limit);
+        
+        return mongoTemplate.find(query, ChatMessage.class);
+    }
+
+    @Override
+    public Map<String, RoomMessageBatch> findNewerThan(Map<String, MessageCursor> since, int limit) {
+        if (since.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Criteria> ranges = new ArrayList<>();
+        since.forEach((roomId, cursor) -> ranges.add(newerThan(roomId, cursor)));
+
+        // 1단계: room_created_id_idx 구간만 세어 방별 빈틈 크기를 확인 (문서를 모으지 않으므로 오래된 워터마크에도 가벼움)
+        Aggregation aggregation = newAggregation(
+                match(Criteria.where("deleted").is(false).orOperator(ranges)),
+                group("roomId").count().as("total"))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+
+        Map<String, RoomMessageBatch> batches = new HashMap<>();
+        List<Criteria> withinLimit = new ArrayList<>();
+        for (RoomMessageBatch batch : mongoTemplate.aggregate(aggregation, ChatMessage.class, RoomMessageBatch.class)
+                .getMappedResults()) {
+            batch.setMessages(new ArrayList<>());
+            batches.put(batch.getRoomId(), batch);
+            if (batch.getTotal() <= limit) {
+                withinLimit.add(newerThan(batch.getRoomId(), since.get(batch.getRoomId())));
+            }
+        }
+        if (withinLimit.isEmpty()) {
+            return batches;
+        }
+
+        // 2단계: limit 이하인 방의 메시지를 오래된 순으로 한 번에 조회
+        Query query = Query.query(Criteria.where("deleted").is(false).orOperator(withinLimit))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt").and(Sort.by(Sort.Direction.ASC, "_id")))
+                .limit(withinLimit.size() * limit);
+        for (ChatMessage message : mongoTemplate.find(query, ChatMessage.class)) {
+            List<ChatMessage> messages = batches.get(message.getRoomId()).getMessages();
+            if (messages.size() < limit) {
+                messages.add(message);
+            }
+        }
+        return batches;
+    }
+
+    /**
+     * roomId가 같고 (createdAt, _id)가 cursor보다 새로운 메시지 조건
+     */
+    private static Criteria newerThan(String roomId, MessageCursor cursor) {
+        Object cursorId = ObjectId.isValid(cursor.id()) ? new ObjectId(cursor.id()) : cursor.id();
+        return Criteria.where("roomId").is(roomId)
+                .and("createdAt").gte(cursor.createdAt())
+                .orOperator(
+                        Criteria.where("createdAt").gt(cursor.createdAt()),
+                        Criteria.where("_id").gt(cursorId));
+    }
+}
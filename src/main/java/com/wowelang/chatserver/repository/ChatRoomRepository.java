@@ -13,8 +13,17 @@ public interface ChatRoomRepository extends MongoRepository<ChatRoom, String> {
     @Query("{ 'participants': ?0, 'deleted': false }")
     List<ChatRoom> findAllByParticipantId(String userId);
     
-    @Query("{ 'participants': { $all: [?0, ?1] }, 'deleted': false }")
-    Optional<ChatRoom> findByParticipants(String userId1, String userId2);
+    /**
+     * pairKey 도입 전 채팅방 조회용. 두 사용자의 채팅방을 모두 훑으므로 새 코드는 findByPairKey를 사용
+     * 도입 전 경쟁 조건으로 같은 쌍의 채팅방이 여러 개일 수 있으므로 오래된 순으로 모두 반환 (중복으로 표시된 채팅방 제외)
+     */
+    @Query(value = "{ 'participants': { $all: [?0, ?1] }, 'deleted': false, 'duplicateOf': { $exists: false } }", sort = "{ '_id': 1 }")
+    List<ChatRoom> findAllByParticipants(String userId1, String userId2);
+    
+    /**
+     * 두 사용자의 삭제되지 않은 채팅방 (pair_key_idx 단일 조회, ChatRoom.pairKeyOf)
+     */
+    Optional<ChatRoom> findByPairKey(String pairKey);
     
     boolean existsByParticipantsContainingAndDeletedFalse(String userId);
 } 
\ No newline at end of file
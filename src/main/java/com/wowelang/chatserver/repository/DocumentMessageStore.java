@@ -0,0 +1,98 @@
+package com.wowelang.chatserver.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.util.MessageCursor;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 메시지 하나를 chat_messages 문서 하나로 저장하는 저장소 (chat.message.storage=document, 기본값)
+ */
+@Component
+@ConditionalOnProperty(name = "chat.message.storage", havingValue = "document", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DocumentMessageStore implements MessageStore {
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public ChatMessage insert(ChatMessage message) {
+        return chatMessageRepository.save(message);
+    }
+
+    @Override
+    public Optional<ChatMessage> findById(String messageId) {
+        return chatMessageRepository.findById(messageId);
+    }
+
+    @Override
+    public boolean markDeleted(ChatMessage message) {
+        return mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(message.getId())),
+                new Update().set("deleted", message.isDeleted()).set("deletedAt", message.getDeletedAt()),
+                ChatMessage.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public long countAfter(String roomId, String userId, Instant after) {
+        // roomId + createdAt 범위 조회로 끝남, 자신이 보낸 메시지는 읽지 않은 메시지가 아님 (incrementUnread와 같음)
+        return mongoTemplate.count(new Query(Criteria.where("roomId").is(roomId)
+                .and("deleted").is(false)
+                .and("senderId").ne(userId)
+                .and("createdAt").gt(after)), ChatMessage.class);
+    }
+
+    @Override
+    public Map<String, RoomMessageSummary> summarizeRooms(Collection<String> roomIds) {
+        return chatMessageRepository.summarizeRooms(roomIds);
+    }
+
+    @Override
+    public List<ChatMessage> findRoomPage(String roomId, MessageCursor cursor, Instant before, int limit) {
+        return chatMessageRepository.findRoomPage(roomId, cursor, before, limit);
+    }
+
+    @Override
+    public Map<String, RoomMessageBatch> findNewerThan(Map<String, MessageCursor> since, int limit) {
+        return chatMessageRepository.findNewerThan(since, limit);
+    }
+
+    @Override
+    public Stream<ChatMessage> streamRoom(String roomId, Instant from, Instant to, String senderId, int batchSize) {
+        Criteria criteria = Criteria.where("roomId").is(roomId).and("deleted").is(false);
+        if (from != null || to != null) {
+            criteria = criteria.and("createdAt");
+            if (from != null) {
+                criteria = criteria.gte(from);
+            }
+            if (to != null) {
+                criteria = criteria.lt(to);
+            }
+        }
+        if (senderId != null) {
+            criteria = criteria.and("senderId").is(senderId);
+        }
+
+        // room_created_id_idx를 역방향으로 읽으므로 정렬 단계가 없음
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "createdAt").and(Sort.by(Sort.Direction.ASC, "_id")))
+                .cursorBatchSize(batchSize);
+
+        return mongoTemplate.stream(query, ChatMessage.class);
+    }
+}
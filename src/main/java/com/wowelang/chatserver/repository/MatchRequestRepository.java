@@ -9,7 +9,7 @@ import org.springframework.data.mongodb.repository.Query;
 import com.wowelang.chatserver.model.MatchRequest;
 import com.wowelang.chatserver.model.MatchRequest.MatchStatus;
 
-public interface MatchRequestRepository extends MongoRepository<MatchRequest, String> {
+public interface MatchRequestRepository extends MongoRepository<MatchRequest, String>, MatchRequestRepositoryCustom {
     
     @Query("{ 'targetId': ?0, 'status': ?1 }")
     List<MatchRequest> findByTargetIdAndStatus(String targetId, MatchStatus status);
@@ -17,8 +17,5 @@ public interface MatchRequestRepository extends MongoRepository<MatchRequest, St
     @Query("{ 'requesterId': ?0, 'status': ?1 }")
     List<MatchRequest> findByRequesterIdAndStatus(String requesterId, MatchStatus status);
     
-    @Query("{ $or: [ { 'requesterId': ?0 }, { 'targetId': ?0 } ], 'status': ?1 }")
-    List<MatchRequest> findByUserIdAndStatus(String userId, MatchStatus status);
-    
     Optional<MatchRequest> findByRequesterIdAndTargetId(String requesterId, String targetId);
 } 
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.wowelang.chatserver.repository;
+
+import java.util.List;
+
+import com.wowelang.chatserver.model.MatchRequest;
+import com.wowelang.chatserver.model.MatchRequest.MatchStatus;
+import com.wowelang.chatserver.util.MessageCursor;
+
+public interface MatchRequestRepositoryCustom {
+
+    /**
+     * 사용자가 받은 매치 요청을 (updatedAt, _id) 역순으로 한 페이지 조회합니다.
+     * target_status_updated_idx 구간 하나만 읽으므로 정렬 단계가 없습니다.
+     *
+     * @param targetId 요청 대상자 ID
+     * @param status 요청 상태
+     * @param cursor 이 위치보다 오래된 요청만 조회 (null이면 최신부터)
+     * @param limit 최대 개수
+     */
+    List<MatchRequest> findInboxPage(String targetId, MatchStatus status, MessageCursor cursor, int limit);
+
+    /**
+     * 사용자가 보낸 매치 요청을 (updatedAt, _id) 역순으로 한 페이지 조회합니다.
+     * requester_status_updated_idx 구간 하나만 읽으므로 정렬 단계가 없습니다.
+     *
+     * @param requesterId 요청자 ID
+     * @param status 요청 상태
+     * @param cursor 이 위치보다 오래된 요청만 조회 (null이면 최신부터)
+     * @param limit 최대 개수
+     */
+    List<MatchRequest> findOutboxPage(String requesterId, MatchStatus status, MessageCursor cursor, int limit);
+}
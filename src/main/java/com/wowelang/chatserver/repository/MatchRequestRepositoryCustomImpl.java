@@ -0,0 +1,50 @@
+package com.wowelang.chatserver.repository;
+
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.wowelang.chatserver.model.MatchRequest;
+import com.wowelang.chatserver.model.MatchRequest.MatchStatus;
+import com.wowelang.chatserver.util.MessageCursor;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class MatchRequestRepositoryCustomImpl implements MatchRequestRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<MatchRequest> findInboxPage(String targetId, MatchStatus status, MessageCursor cursor, int limit) {
+        return findPage("targetId", targetId, status, cursor, limit);
+    }
+
+    @Override
+    public List<MatchRequest> findOutboxPage(String requesterId, MatchStatus status, MessageCursor cursor, int limit) {
+        return findPage("requesterId", requesterId, status, cursor, limit);
+    }
+
+    private List<MatchRequest> findPage(String userField, String userId, MatchStatus status, MessageCursor cursor, int limit) {
+        Criteria criteria = Criteria.where(userField).is(userId).and("status").is(status);
+
+        if (cursor != null) {
+            // updatedAt 범위로 인덱스 구간을 한정하고, 같은 updatedAt 안에서는 _id로 커서 이후만 통과
+            Object cursorId = ObjectId.isValid(cursor.id()) ? new ObjectId(cursor.id()) : cursor.id();
+            criteria = criteria.and("updatedAt").lte(cursor.createdAt())
+                    .orOperator(
+                            Criteria.where("updatedAt").lt(cursor.createdAt()),
+                            Criteria.where("_id").lt(cursorId));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "updatedAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(limit);
+
+        return mongoTemplate.find(query, MatchRequest.class);
+    }
+}
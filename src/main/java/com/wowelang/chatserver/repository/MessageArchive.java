@@ -0,0 +1,72 @@
+package com.wowelang.chatserver.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.util.MessageCursor;
+
+/**
+ * 오래된 메시지 보관소 (콜드 티어)
+ *
+ * 보관된 메시지는 삭제 표시만 할 수 있으며, 채팅방의 보관 메시지는 모두 MessageStore에 남은 메시지보다 오래되었습니다.
+ * 삭제 표시된 메시지는 보관하지 않고, 보관 후 삭제된 메시지는 조회와 내보내기에서 제외합니다.
+ */
+public interface MessageArchive {
+
+    /**
+     * 채팅방의 연속된 메시지를 세그먼트 하나로 저장합니다. 같은 segmentId로 다시 저장하면 덮어씁니다.
+     *
+     * @param segmentId 세그먼트 ID (중단 후 재실행 시 같은 구간이 같은 ID를 갖도록 구간의 첫 메시지로 정함)
+     * @param messages (createdAt, _id) 순서의 메시지
+     */
+    void save(String roomId, String segmentId, List<ChatMessage> messages);
+
+    /**
+     * 보관된 메시지를 조회합니다. 보관 후 삭제된 메시지는 deleted가 true입니다.
+     */
+    Optional<ChatMessage> findById(String roomId, String messageId);
+
+    /**
+     * 보관된 메시지에 삭제 표시를 합니다.
+     *
+     * @return 보관된 메시지이면 true (이미 삭제 표시된 경우 포함)
+     */
+    boolean markDeleted(String roomId, String messageId);
+
+    /**
+     * 여러 채팅방의 보관 메시지 중 삭제 표시되지 않은 메시지 수를 한 번에 셉니다. (통계 백필)
+     *
+     * @return 채팅방 ID를 키로 하는 메시지 수 (보관 메시지가 없는 채팅방은 포함되지 않음)
+     */
+    Map<String, Long> countRooms(Collection<String> roomIds);
+
+    /**
+     * 보관된 메시지를 (createdAt, _id) 역순으로 한 페이지 조회합니다.
+     *
+     * @param cursor 이 위치보다 오래된 메시지만 조회 (null이면 최신부터)
+     * @param before cursor가 없을 때 이 시각 이전 메시지만 조회 (null 가능)
+     * @param limit 최대 개수
+     */
+    List<ChatMessage> findRoomPage(String roomId, MessageCursor cursor, Instant before, int limit);
+
+    /**
+     * 보관된 메시지를 (createdAt, _id) 순서로 스트리밍합니다. 사용 후 반드시 닫아야 합니다.
+     *
+     * @param from 이 시각 이후 메시지 (포함, null 가능)
+     * @param to 이 시각 이전 메시지 (미포함, null 가능)
+     * @param senderId 발신자 필터 (null 가능)
+     */
+    Stream<ChatMessage> streamRoom(String roomId, Instant from, Instant to, String senderId);
+
+    /**
+     * 채팅방의 보관 메시지를 모두 삭제합니다.
+     *
+     * @return 삭제한 세그먼트 수
+     */
+    long deleteRoom(String roomId);
+}
@@ -0,0 +1,78 @@
+package com.wowelang.chatserver.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.util.MessageCursor;
+
+/**
+ * 채팅 메시지 저장소
+ *
+ * chat.message.storage로 저장 방식을 선택합니다.
+ * - document: 메시지 하나가 chat_messages 문서 하나 (DocumentMessageStore, 기본값)
+ * - bucket: 채팅방 메시지를 순번 구간별로 chat_message_buckets 문서 하나에 묶음 (BucketMessageStore)
+ *
+ * 정렬 순서는 두 방식 모두 (createdAt, _id)입니다.
+ */
+public interface MessageStore {
+
+    /**
+     * 새 메시지를 저장합니다. id와 createdAt이 없으면 채워서 반환합니다.
+     */
+    ChatMessage insert(ChatMessage message);
+
+    Optional<ChatMessage> findById(String messageId);
+
+    /**
+     * 메시지의 deleted, deletedAt을 저장합니다. 저장소에 없는 메시지(그사이 보관/삭제됨)는 다시 만들지 않습니다.
+     *
+     * @return 저장소에 메시지가 있었으면 true
+     */
+    boolean markDeleted(ChatMessage message);
+
+    /**
+     * 채팅방에서 after 이후(미포함)에 생성된 삭제되지 않은 메시지 중 userId가 보내지 않은 메시지 수를 셉니다. (읽지 않은 메시지 수)
+     */
+    long countAfter(String roomId, String userId, Instant after);
+
+    /**
+     * 여러 채팅방의 삭제되지 않은 마지막 메시지와 메시지 수를 한 번에 조회합니다. (채팅방 목록, 통계 백필)
+     *
+     * @return 채팅방 ID를 키로 하는 요약 정보 (메시지가 없는 채팅방은 포함되지 않음)
+     */
+    Map<String, RoomMessageSummary> summarizeRooms(Collection<String> roomIds);
+
+    /**
+     * 채팅방의 삭제되지 않은 메시지를 (createdAt, _id) 역순으로 한 페이지 조회합니다.
+     *
+     * @param roomId 채팅방 ID
+     * @param cursor 이 위치보다 오래된 메시지만 조회 (null이면 최신부터)
+     * @param before cursor가 없을 때 이 시각 이전 메시지만 조회 (이전 API 호환, null 가능)
+     * @param limit 최대 개수
+     */
+    List<ChatMessage> findRoomPage(String roomId, MessageCursor cursor, Instant before, int limit);
+
+    /**
+     * 여러 채팅방에서 방별 워터마크 이후의 삭제되지 않은 메시지를 조회합니다. (재연결 catch-up용)
+     *
+     * @param since 채팅방 ID별 워터마크 (이 위치보다 새로운 메시지만 조회)
+     * @param limit 방당 최대 개수, 초과한 방은 messages가 비어 있고 total만 채워짐
+     * @return 채팅방 ID를 키로 하는 결과 (새 메시지가 없는 채팅방은 포함되지 않음)
+     */
+    Map<String, RoomMessageBatch> findNewerThan(Map<String, MessageCursor> since, int limit);
+
+    /**
+     * 채팅방의 삭제되지 않은 메시지를 (createdAt, _id) 순서로 스트리밍합니다. 사용 후 반드시 닫아야 합니다.
+     *
+     * @param from 이 시각 이후 메시지 (포함, null 가능)
+     * @param to 이 시각 이전 메시지 (미포함, null 가능)
+     * @param senderId 발신자 필터 (null 가능)
+     * @param batchSize 커서가 한 번에 가져오는 문서 수
+     */
+    Stream<ChatMessage> streamRoom(String roomId, Instant from, Instant to, String senderId, int batchSize);
+}
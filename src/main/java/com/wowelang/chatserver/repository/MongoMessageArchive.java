@@ -0,0 +1,286 @@
+package com.wowelang.chatserver.repository;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.MessageSegment;
+import com.wowelang.chatserver.util.MessageCursor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * gzip 압축 세그먼트(chat_message_segments)에 메시지를 보관하는 보관소
+ *
+ * 세그먼트 목록은 data를 제외하고 조회하고, 압축을 푼 메시지 목록은 세그먼트 ID별로 cache-segments개까지 캐시합니다.
+ * 기록 페이지를 이어서 넘기면 같은 세그먼트를 여러 번 읽으므로, 압축 해제는 세그먼트당 한 번으로 끝납니다.
+ * 삭제 표시(deletedIds)는 캐시하지 않고 세그먼트 목록과 함께 매번 읽으므로 다른 노드의 삭제도 바로 반영됩니다.
+ *
+ * 메트릭: cache.* (cache=message.archive.segments)
+ */
+@Component
+@RequiredArgsConstructor
+public class MongoMessageArchive implements MessageArchive {
+
+    // 메시지 ID(ObjectId)의 생성 시각과 createdAt의 차이 허용치. ID로 메시지를 찾을 때 이 범위의 세그먼트만 확인
+    private static final Duration ID_TIME_TOLERANCE = Duration.ofMinutes(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, List<ChatMessage>> segments;
+
+    @Value("${chat.message.archive.cache-segments:100}")
+    private long cacheSegments;
+
+    @PostConstruct
+    public void init() {
+        segments = Caffeine.newBuilder()
+                .maximumSize(cacheSegments)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, segments, "message.archive.segments");
+    }
+
+    @Override
+    public void save(String roomId, String segmentId, List<ChatMessage> messages) {
+        MessageSegment segment = MessageSegment.builder()
+                .id(segmentId)
+                .roomId(roomId)
+                .minCreatedAt(messages.get(0).getCreatedAt())
+                .maxCreatedAt(messages.get(messages.size() - 1).getCreatedAt())
+                .count(messages.size())
+                .data(encode(messages))
+                .archivedAt(Instant.now())
+                .build();
+
+        mongoTemplate.save(segment);
+        segments.invalidate(segmentId);
+    }
+
+    @Override
+    public Optional<ChatMessage> findById(String roomId, String messageId) {
+        MessageSegment segment = findSegment(roomId, messageId);
+        if (segment == null) {
+            return Optional.empty();
+        }
+
+        // 캐시된 메시지를 호출자가 바꾸지 않도록 새로 읽음
+        return load(segment.getId()).stream()
+                .filter(message -> message.getId().equals(messageId))
+                .findFirst()
+                .map(message -> {
+                    message.setDeleted(isDeleted(segment, message));
+                    return message;
+                });
+    }
+
+    @Override
+    public boolean markDeleted(String roomId, String messageId) {
+        MessageSegment segment = findSegment(roomId, messageId);
+        if (segment == null) {
+            return false;
+        }
+
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(segment.getId())),
+                new Update().addToSet("deletedIds", messageId), MessageSegment.class);
+        return true;
+    }
+
+    @Override
+    public Map<String, Long> countRooms(Collection<String> roomIds) {
+        if (roomIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        // 세그먼트를 풀지 않고 count - deletedIds 개수로 셈
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("roomId").in(roomIds)),
+                Aggregation.project("roomId").and(ArithmeticOperators.Subtract.valueOf("count")
+                        .subtract(ArrayOperators.Size.lengthOfArray(
+                                ConditionalOperators.ifNull("deletedIds").then(Collections.emptyList()))))
+                        .as("live"),
+                Aggregation.group("roomId").sum("live").as("messageCount"));
+
+        return mongoTemplate.aggregate(aggregation, MessageSegment.class, Document.class)
+                .getMappedResults()
+                .stream()
+                .collect(Collectors.toMap(result -> result.getString("_id"),
+                        result -> result.get("messageCount", Number.class).longValue()));
+    }
+
+    @Override
+    public List<ChatMessage> findRoomPage(String roomId, MessageCursor cursor, Instant before, int limit) {
+        Criteria criteria = Criteria.where("roomId").is(roomId);
+        Predicate<ChatMessage> older = message -> true;
+        if (cursor != null) {
+            criteria = criteria.and("minCreatedAt").lte(cursor.createdAt());
+            older = message -> compare(message, cursor.createdAt(), cursor.id()) < 0;
+        } else if (before != null) {
+            criteria = criteria.and("minCreatedAt").lt(before);
+            older = message -> message.getCreatedAt().isBefore(before);
+        }
+
+        // 세그먼트끼리 겹치지 않으므로 최신 세그먼트부터 채우면 됨
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "maxCreatedAt"))
+                .cursorBatchSize(2);
+        query.fields().exclude("data");
+
+        List<ChatMessage> page = new ArrayList<>();
+        try (Stream<MessageSegment> metas = mongoTemplate.stream(query, MessageSegment.class)) {
+            Iterator<MessageSegment> iterator = metas.iterator();
+            while (iterator.hasNext() && page.size() < limit) {
+                MessageSegment segment = iterator.next();
+                List<ChatMessage> messages = segments.get(segment.getId(), this::load);
+                for (int i = messages.size() - 1; i >= 0 && page.size() < limit; i--) {
+                    if (older.test(messages.get(i)) && !isDeleted(segment, messages.get(i))) {
+                        page.add(messages.get(i));
+                    }
+                }
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public Stream<ChatMessage> streamRoom(String roomId, Instant from, Instant to, String senderId) {
+        Criteria criteria = Criteria.where("roomId").is(roomId);
+        if (to != null) {
+            criteria = criteria.and("minCreatedAt").lt(to);
+        }
+        if (from != null) {
+            criteria = criteria.and("maxCreatedAt").gte(from);
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "minCreatedAt"))
+                .cursorBatchSize(1);
+
+        // 내보내기는 한 번만 읽으므로 캐시를 거치지 않음
+        return mongoTemplate.stream(query, MessageSegment.class)
+                .flatMap(segment -> decode(segment.getData()).stream()
+                        .filter(message -> !isDeleted(segment, message)))
+                .filter(message -> (from == null || !message.getCreatedAt().isBefore(from))
+                        && (to == null || message.getCreatedAt().isBefore(to))
+                        && (senderId == null || senderId.equals(message.getSenderId())));
+    }
+
+    @Override
+    public long deleteRoom(String roomId) {
+        return mongoTemplate.remove(new Query(Criteria.where("roomId").is(roomId)), MessageSegment.class).getDeletedCount();
+    }
+
+    /**
+     * 메시지가 들어 있는 세그먼트를 찾습니다. (data 제외)
+     * ObjectId 메시지는 ID 생성 시각 근처의 세그먼트만 확인하고, 그 밖의 ID는 채팅방의 모든 세그먼트를 확인합니다.
+     */
+    private MessageSegment findSegment(String roomId, String messageId) {
+        Criteria criteria = Criteria.where("roomId").is(roomId);
+        if (ObjectId.isValid(messageId)) {
+            Instant idTime = new ObjectId(messageId).getDate().toInstant();
+            criteria = criteria.and("maxCreatedAt").gte(idTime.minus(ID_TIME_TOLERANCE))
+                    .and("minCreatedAt").lte(idTime.plus(ID_TIME_TOLERANCE));
+        }
+
+        Query query = Query.query(criteria).cursorBatchSize(2);
+        query.fields().exclude("data");
+
+        try (Stream<MessageSegment> metas = mongoTemplate.stream(query, MessageSegment.class)) {
+            Iterator<MessageSegment> iterator = metas.iterator();
+            while (iterator.hasNext()) {
+                MessageSegment segment = iterator.next();
+                if (segments.get(segment.getId(), this::load).stream().anyMatch(message -> message.getId().equals(messageId))) {
+                    return segment;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isDeleted(MessageSegment segment, ChatMessage message) {
+        return segment.getDeletedIds() != null && segment.getDeletedIds().contains(message.getId());
+    }
+
+    private List<ChatMessage> load(String segmentId) {
+        Query query = new Query(Criteria.where("_id").is(segmentId));
+        query.fields().include("data");
+
+        MessageSegment segment = mongoTemplate.findOne(query, MessageSegment.class);
+        return segment != null ? decode(segment.getData()) : List.of();
+    }
+
+    private byte[] encode(List<ChatMessage> messages) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            for (ChatMessage message : messages) {
+                out.write(objectMapper.writeValueAsBytes(message));
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<ChatMessage> decode(byte[] data) {
+        List<ChatMessage> messages = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(data)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    messages.add(objectMapper.readValue(line, ChatMessage.class));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return messages;
+    }
+
+    private static int compare(ChatMessage message, Instant createdAt, String id) {
+        int result = message.getCreatedAt().compareTo(createdAt);
+        return result != 0 ? result : message.getId().compareTo(id);
+    }
+}
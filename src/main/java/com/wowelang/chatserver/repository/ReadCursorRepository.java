@@ -0,0 +1,13 @@
+package com.wowelang.chatserver.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.wowelang.chatserver.model.ReadCursor;
+
+public interface ReadCursorRepository extends MongoRepository<ReadCursor, String> {
+    
+    List<ReadCursor> findByUserIdAndRoomIdIn(String userId, Collection<String> roomIds);
+}
@@ -0,0 +1,28 @@
+package com.wowelang.chatserver.repository;
+
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+
+import com.wowelang.chatserver.model.ChatMessage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 채팅방별 워터마크 이후 메시지 (집계 결과 매핑용)
+ * messages는 워터마크 직후부터 오래된 순으로 최대 limit개이고(total이 limit을 넘으면 비어 있음), total은 워터마크 이후 전체 개수입니다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomMessageBatch {
+
+    @Id
+    private String roomId;
+
+    private List<ChatMessage> messages;
+
+    private long total;
+}
@@ -0,0 +1,26 @@
+package com.wowelang.chatserver.repository;
+
+import org.springframework.data.annotation.Id;
+
+import com.wowelang.chatserver.model.ChatMessage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 채팅방별 메시지 요약 (집계 결과 매핑용)
+ * 삭제되지 않은 메시지 중 마지막 메시지와 전체 개수를 담습니다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomMessageSummary {
+
+    @Id
+    private String roomId;
+
+    private ChatMessage lastMessage;
+
+    private long messageCount;
+}
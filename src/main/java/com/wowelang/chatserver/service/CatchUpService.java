@@ -0,0 +1,352 @@
+package com.wowelang.chatserver.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.OrderedMessageChannelDecorator;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wowelang.chatserver.dto.CatchUpStatusDto;
+import com.wowelang.chatserver.dto.CatchUpStatusDto.CatchUpStatus;
+import com.wowelang.chatserver.dto.ChatMessageDto;
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.repository.MessageStore;
+import com.wowelang.chatserver.repository.RoomMessageBatch;
+import com.wowelang.chatserver.util.MessageCursor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 재연결 catch-up: 클라이언트가 보낸 워터마크 이후 놓친 메시지를 구독으로 재전송합니다.
+ *
+ * 구독 요청은 큐에 모았다가 batch-window-ms마다 한 번에 처리합니다. 최근 메시지 버퍼로 빈틈을 메울 수 있는 방은
+ * DB 없이 처리하고, 나머지 방은 배치당 한 번의 조회(MessageStore.findNewerThan)로 처리합니다.
+ * 같은 방에 여러 요청이 있으면 가장 오래된 워터마크로 한 번만 조회한 뒤 요청별로 걸러냅니다.
+ *
+ * 빈틈이 max-messages를 넘거나 조회에 실패하면 메시지 대신 RESYNC_REQUIRED를 보내 클라이언트가 REST로 기록을 다시 받게 합니다.
+ * 재전송 메시지는 실시간 메시지와 겹칠 수 있으므로 클라이언트는 메시지 ID로 중복을 제거해야 합니다.
+ * 재전송 메시지와 COMPLETE는 세션별 순서를 지키는 같은 경로로 보내므로, 클라이언트는 COMPLETE를 재전송이 끝난 신호로 쓸 수 있습니다.
+ *
+ * 메트릭: chat.catchup.requests (tag result=cache|db|resync|denied)
+ */
+@Slf4j
+@Service
+public class CatchUpService {
+
+    public static final String CATCH_UP_HEADER = "x-catch-up";
+    private static final String STATUS_DESTINATION = "/user/queue/catchup";
+
+    private final MessageStore messageStore;
+    private final ChatRoomService chatRoomService;
+    private final ChatMessageService chatMessageService;
+    private final RecentMessageCache recentMessageCache;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final MessageChannel clientOutboundChannel; // 세션별 전송 순서 유지
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.catch-up.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.catch-up.max-messages:100}")
+    private int maxMessages;
+
+    @Value("${chat.catch-up.max-batch-rooms:100}")
+    private int maxBatchRooms;
+
+    @Value("${chat.message.archive.min-age-days:90}")
+    private int archiveMinAgeDays;
+
+    private final Queue<CatchUpRequest> pending = new ConcurrentLinkedQueue<>();
+
+    private Counter cacheServed;
+    private Counter dbServed;
+    private Counter resyncs;
+    private Counter denied;
+
+    /**
+     * 구독 하나에 대한 catch-up 요청
+     *
+     * @param since 클라이언트가 마지막으로 받은 메시지 위치
+     */
+    public record CatchUpRequest(String sessionId, String subscriptionId, String destination,
+                                 String userId, String roomId, MessageCursor since) {
+    }
+
+    public CatchUpService(MessageStore messageStore,
+                          ChatRoomService chatRoomService,
+                          ChatMessageService chatMessageService,
+                          RecentMessageCache recentMessageCache,
+                          SimpMessageSendingOperations messagingTemplate,
+                          SimpUserRegistry userRegistry,
+                          @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry) {
+        this.messageStore = messageStore;
+        this.chatRoomService = chatRoomService;
+        this.chatMessageService = chatMessageService;
+        this.recentMessageCache = recentMessageCache;
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        // 아웃바운드 채널은 스레드 풀이라 그대로 보내면 같은 세션의 프레임도 순서가 바뀔 수 있음
+        OrderedMessageChannelDecorator.configureInterceptor(clientOutboundChannel, true);
+        this.clientOutboundChannel = new OrderedMessageChannelDecorator(clientOutboundChannel, LogFactory.getLog(CatchUpService.class));
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        cacheServed = Counter.builder("chat.catchup.requests").tag("result", "cache").register(meterRegistry);
+        dbServed = Counter.builder("chat.catchup.requests").tag("result", "db").register(meterRegistry);
+        resyncs = Counter.builder("chat.catchup.requests").tag("result", "resync").register(meterRegistry);
+        denied = Counter.builder("chat.catchup.requests").tag("result", "denied").register(meterRegistry);
+    }
+
+    /**
+     * catch-up 요청을 다음 배치에 추가합니다.
+     */
+    public void enqueue(CatchUpRequest request) {
+        if (enabled) {
+            pending.add(request);
+        }
+    }
+
+    /**
+     * 워터마크를 해석할 수 없는 구독에 RESYNC_REQUIRED를 보냅니다.
+     */
+    public void rejectWatermark(String userId, String roomId) {
+        if (enabled) {
+            requireResync(userId, roomId);
+        }
+    }
+
+    /**
+     * 대기 중인 요청을 max-batch-rooms개씩 처리합니다.
+     */
+    @Scheduled(fixedDelayString = "${chat.catch-up.batch-window-ms:50}")
+    public void drain() {
+        while (!pending.isEmpty()) {
+            List<CatchUpRequest> batch = new ArrayList<>();
+            CatchUpRequest request;
+            while (batch.size() < maxBatchRooms && (request = pending.poll()) != null) {
+                batch.add(request);
+            }
+            process(batch);
+        }
+    }
+
+    private void process(List<CatchUpRequest> batch) {
+        Map<String, List<CatchUpRequest>> misses = new HashMap<>();
+        for (CatchUpRequest request : batch) {
+            // 구독 시점에는 참여자 검사가 없으므로 재전송 전에 확인 (참여자 캐시 사용)
+            if (!chatRoomService.isUserInRoom(request.roomId(), request.userId())) {
+                log.warn("catch-up 거부 (참여자 아님): roomId={}, userId={}", request.roomId(), request.userId());
+                denied.increment();
+                continue;
+            }
+
+            // 워터마크 이후 메시지 일부가 보관 세그먼트로 옮겨졌을 수 있음 (catch-up은 chat_messages만 조회)
+            if (request.since().createdAt().isBefore(Instant.now().minus(Duration.ofDays(archiveMinAgeDays)))) {
+                requireResync(request);
+                continue;
+            }
+
+            List<ChatMessageDto> cached = recentMessageCache.getNewerThan(request.roomId(), request.since());
+            if (cached != null) {
+                if (deliver(request, cached)) {
+                    cacheServed.increment();
+                }
+            } else {
+                misses.computeIfAbsent(request.roomId(), roomId -> new ArrayList<>()).add(request);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            loadAndDeliver(misses);
+        }
+    }
+
+    /**
+     * 버퍼로 처리하지 못한 방들을 한 번에 조회합니다. 방마다 가장 오래된 워터마크로 조회합니다.
+     */
+    private void loadAndDeliver(Map<String, List<CatchUpRequest>> requestsByRoom) {
+        Map<String, MessageCursor> oldest = new HashMap<>();
+        requestsByRoom.forEach((roomId, requests) -> {
+            MessageCursor since = requests.get(0).since();
+            for (CatchUpRequest request : requests) {
+                if (compare(request.since(), since.createdAt(), since.id()) < 0) {
+                    since = request.since();
+                }
+            }
+            oldest.put(roomId, since);
+        });
+
+        Map<String, RoomMessageBatch> batches;
+        try {
+            batches = messageStore.findNewerThan(oldest, maxMessages);
+        } catch (Exception e) {
+            log.error("catch-up 메시지 조회 실패: rooms={}", requestsByRoom.size(), e);
+            requestsByRoom.values().forEach(requests -> requests.forEach(this::requireResync));
+            return;
+        }
+
+        requestsByRoom.forEach((roomId, requests) -> {
+            RoomMessageBatch roomBatch = batches.get(roomId);
+            for (CatchUpRequest request : requests) {
+                if (roomBatch == null) {
+                    deliver(request, List.of());
+                } else if (roomBatch.getTotal() > maxMessages) {
+                    // 가장 오래된 워터마크 기준으로 넘쳤으면 더 최신 워터마크도 읽은 범위 밖일 수 있으므로 모두 재동기화
+                    requireResync(request);
+                    continue;
+                } else {
+                    List<ChatMessageDto> messages = new ArrayList<>();
+                    for (ChatMessage message : roomBatch.getMessages()) {
+                        if (compare(request.since(), message.getCreatedAt(), message.getId()) < 0) {
+                            messages.add(chatMessageService.convertToDto(message));
+                        }
+                    }
+                    if (!deliver(request, messages)) {
+                        continue;
+                    }
+                }
+                dbServed.increment();
+            }
+        });
+    }
+
+    /**
+     * 메시지를 구독에 직접 재전송하고 같은 경로로 COMPLETE를 보냅니다. 개수가 max-messages를 넘으면 RESYNC_REQUIRED를 보냅니다.
+     *
+     * @return 재전송했으면 true
+     */
+    private boolean deliver(CatchUpRequest request, List<ChatMessageDto> messages) {
+        if (messages.size() > maxMessages) {
+            requireResync(request);
+            return false;
+        }
+
+        for (ChatMessageDto message : messages) {
+            byte[] payload;
+            try {
+                payload = objectMapper.writeValueAsBytes(message);
+            } catch (JsonProcessingException e) {
+                log.error("catch-up 메시지 직렬화 실패: messageId={}", message.getId(), e);
+                requireResync(request);
+                return false;
+            }
+
+            // 브로커를 거치지 않고 해당 세션의 구독으로만 보냄 (같은 방의 다른 구독자에게는 전달되지 않음)
+            sendDirect(request.sessionId(), request.subscriptionId(), request.destination(), payload, true);
+        }
+
+        sendComplete(request, messages.size());
+        log.debug("catch-up 완료: roomId={}, sessionId={}, count={}", request.roomId(), request.sessionId(), messages.size());
+        return true;
+    }
+
+    private void requireResync(CatchUpRequest request) {
+        log.info("catch-up 범위 초과, 재동기화 요청: roomId={}, sessionId={}", request.roomId(), request.sessionId());
+        requireResync(request.userId(), request.roomId());
+    }
+
+    private void requireResync(String userId, String roomId) {
+        resyncs.increment();
+        sendStatus(userId, roomId, CatchUpStatus.RESYNC_REQUIRED, 0);
+    }
+
+    /**
+     * COMPLETE를 재전송 메시지와 같은 경로로 세션의 /user/queue/catchup 구독에 보냅니다.
+     * (브로커를 거치면 재전송 메시지보다 먼저 도착할 수 있음) 구독을 찾지 못하면 브로커로 보냅니다.
+     */
+    private void sendComplete(CatchUpRequest request, int count) {
+        String subscriptionId = findStatusSubscription(request.userId(), request.sessionId());
+        if (subscriptionId == null) {
+            sendStatus(request.userId(), request.roomId(), CatchUpStatus.COMPLETE, count);
+            return;
+        }
+
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(CatchUpStatusDto.builder()
+                    .roomId(request.roomId())
+                    .status(CatchUpStatus.COMPLETE)
+                    .count(count)
+                    .build());
+            sendDirect(request.sessionId(), subscriptionId, STATUS_DESTINATION, payload, false);
+        } catch (JsonProcessingException e) {
+            log.error("catch-up 결과 직렬화 실패: roomId={}", request.roomId(), e);
+            sendStatus(request.userId(), request.roomId(), CatchUpStatus.COMPLETE, count);
+        }
+    }
+
+    private String findStatusSubscription(String userId, String sessionId) {
+        SimpUser user = userRegistry.getUser(userId);
+        SimpSession session = user != null ? user.getSession(sessionId) : null;
+        if (session == null) {
+            return null;
+        }
+        for (SimpSubscription subscription : session.getSubscriptions()) {
+            if (STATUS_DESTINATION.equals(subscription.getDestination())) {
+                return subscription.getId();
+            }
+        }
+        return null;
+    }
+
+    private void sendDirect(String sessionId, String subscriptionId, String destination, byte[] payload, boolean catchUp) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (catchUp) {
+            accessor.setNativeHeader(CATCH_UP_HEADER, "true");
+        }
+        accessor.setLeaveMutable(true);
+        clientOutboundChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+    }
+
+    private void sendStatus(String userId, String roomId, CatchUpStatus status, int count) {
+        messagingTemplate.convertAndSendToUser(userId, "/queue/catchup", CatchUpStatusDto.builder()
+                .roomId(roomId)
+                .status(status)
+                .count(count)
+                .build());
+    }
+
+    /**
+     * (createdAt, id) 순서 비교: since가 (createdAt, id)보다 이전이면 음수
+     * createdAt은 DB 저장 정밀도(ms)로 비교합니다.
+     */
+    private static int compare(MessageCursor since, Instant createdAt, String id) {
+        int result = Long.compare(since.createdAt().toEpochMilli(), createdAt.toEpochMilli());
+        return result != 0 ? result : since.id().compareTo(id);
+    }
+}
@@ -1,21 +1,25 @@
 package com.wowelang.chatserver.service;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Service;
 
 import com.wowelang.chatserver.dto.ChatMessageDto;
+import com.wowelang.chatserver.dto.MessagePageDto;
+import com.wowelang.chatserver.dto.ReadReceiptDto;
 import com.wowelang.chatserver.exception.ResourceNotFoundException;
 import com.wowelang.chatserver.model.ChatMessage;
 import com.wowelang.chatserver.model.ChatMessage.MessageType;
-import com.wowelang.chatserver.model.ChatRoom;
-import com.wowelang.chatserver.repository.ChatMessageRepository;
+import com.wowelang.chatserver.repository.MessageArchive;
+import com.wowelang.chatserver.repository.MessageStore;
+import com.wowelang.chatserver.util.MessageCursor;
 import com.wowelang.chatserver.util.UserContext;
 
 import lombok.RequiredArgsConstructor;
@@ -24,9 +28,14 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ChatMessageService {
 
-    private final ChatMessageRepository chatMessageRepository;
+    private final MessageStore messageStore;
+    private final MessageArchive messageArchive;
     private final ChatRoomService chatRoomService;
-    private final SimpMessageSendingOperations messagingTemplate;
+    private final RoomBroadcaster roomBroadcaster;
+    private final ReadCursorService readCursorService;
+    private final RecentMessageCache recentMessageCache;
+    private final RoomSequenceAllocator roomSequenceAllocator;
+    private final Optional<MessageWriteBehindQueue> writeBehindQueue; // chat.message.write-behind.enabled=true일 때만 존재
 
     @Value("${chat.pagination.default-size}")
     private int defaultPageSize;
@@ -39,12 +48,9 @@ public class ChatMessageService {
 
     public ChatMessageDto sendMessage(ChatMessageDto messageDto) {
         String userId = UserContext.getUserId();
-        ChatRoom room = chatRoomService.getRoom(messageDto.getRoomId());
         
-        // 채팅방 참여자인지 확인
-        if (!room.getParticipants().contains(userId)) {
-            throw new IllegalArgumentException("User is not a participant of this chat room");
-        }
+        // 채팅방 참여자인지 확인 (참여자 캐시 사용)
+        List<String> participants = chatRoomService.requireParticipant(messageDto.getRoomId(), userId);
         
         // 메시지 타입 검증
         validateMessageContent(messageDto);
@@ -57,46 +63,119 @@ public class ChatMessageService {
                 .content(messageDto.getContent())
                 .s3Key(messageDto.getS3Key())
                 .originalMessage(messageDto.getOriginalMessage())
+                .seq(roomSequenceAllocator.next(messageDto.getRoomId()))
                 .build();
         
-        ChatMessage savedMessage = chatMessageRepository.save(chatMessage);
+        if (writeBehindQueue.isPresent()) {
+            return sendWriteBehind(chatMessage, writeBehindQueue.get());
+        }
+        
+        ChatMessage savedMessage = messageStore.insert(chatMessage);
+        chatRoomService.recordMessageSent(savedMessage);
+        readCursorService.incrementUnread(savedMessage, participants);
         
-        // STOMP로 메시지 브로드캐스트
+        // STOMP로 메시지 브로드캐스트 (클러스터 버스를 통해 다른 노드의 구독자에게도 전달)
         ChatMessageDto savedDto = convertToDto(savedMessage);
-        messagingTemplate.convertAndSend("/topic/chat." + messageDto.getRoomId(), savedDto);
+        recentMessageCache.onMessage(savedDto);
+        roomBroadcaster.broadcast(messageDto.getRoomId(), savedDto);
         
         return savedDto;
     }
 
-    public List<ChatMessageDto> getRoomMessages(String roomId, Instant before, Integer size) {
-        // 권한 확인
-        String userId = UserContext.getUserId();
-        ChatRoom room = chatRoomService.getRoom(roomId);
+    /**
+     * 비동기 저장 모드: ID와 생성 시각을 서버에서 미리 할당하고 큐에 넣은 뒤 바로 브로드캐스트합니다.
+     * 채팅방 통계 갱신과 저장 결과(ack) 전송은 큐의 저장 스레드에서 이루어집니다.
+     * 큐가 가득 찼거나 저널 기록에 실패하면 브로드캐스트하지 않고 FAILED ack를 보낸 뒤 null을 반환합니다.
+     */
+    private ChatMessageDto sendWriteBehind(ChatMessage chatMessage, MessageWriteBehindQueue queue) {
+        chatMessage.setId(new ObjectId().toHexString());
+        // DB 저장 정밀도(ms)에 맞춰 브로드캐스트/캐시와 저장본의 정렬 순서를 일치시킴
+        chatMessage.setCreatedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
         
-        if (!room.getParticipants().contains(userId)) {
-            throw new IllegalArgumentException("User is not a participant of this chat room");
+        try {
+            queue.enqueue(chatMessage);
+        } catch (IllegalStateException e) {
+            queue.reject(chatMessage, e.getMessage());
+            return null;
         }
         
+        ChatMessageDto dto = convertToDto(chatMessage);
+        recentMessageCache.onMessage(dto);
+        roomBroadcaster.broadcast(chatMessage.getRoomId(), dto);
+        
+        return dto;
+    }
+
+    /**
+     * 채팅방 메시지를 최신순으로 한 페이지 조회합니다.
+     * 
+     * @param cursor 이전 응답의 nextCursor (우선 적용)
+     * @param before cursor가 없을 때 이 시각 이전 메시지부터 조회 (이전 API 호환)
+     */
+    public MessagePageDto getRoomMessages(String roomId, Instant before, String cursor, Integer size) {
+        // 권한 확인
+        String userId = UserContext.getUserId();
+        chatRoomService.requireParticipant(roomId, userId);
+        
         // 메시지 조회 페이지 크기 설정
         int pageSize = size != null ? Math.min(size, maxPageSize) : defaultPageSize;
-        PageRequest pageRequest = PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "createdAt"));
+        MessageCursor pageCursor = cursor != null ? MessageCursor.decode(cursor) : null;
         
-        List<ChatMessage> messages;
-        if (before != null) {
-            messages = chatMessageRepository.findByRoomIdAndCreatedAtLessThanOrderByCreatedAtDesc(roomId, before, pageRequest);
-        } else {
-            messages = chatMessageRepository.findByRoomIdOrderByCreatedAtDesc(roomId, pageRequest);
+        // 첫 페이지와 최근 커서 조회는 최근 메시지 버퍼에서 처리
+        if (before == null) {
+            List<ChatMessageDto> cached = recentMessageCache.getPage(roomId, pageCursor, pageSize);
+            if (cached != null) {
+                return toPage(cached, pageSize);
+            }
         }
         
-        return messages.stream()
+        // 첫 페이지가 버퍼에 없으면 버퍼 크기만큼 함께 읽어 버퍼를 채움
+        long warmToken = before == null && pageCursor == null ? recentMessageCache.beginWarm(roomId) : -1;
+        int limit = warmToken >= 0 ? Math.max(pageSize, recentMessageCache.getCapacity()) : pageSize;
+        
+        List<ChatMessageDto> messages = messageStore.findRoomPage(roomId, pageCursor, before, limit)
+                .stream()
                 .map(this::convertToDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toCollection(ArrayList::new));
+        
+        // 저장소에서 모자란 만큼 보관 세그먼트에서 이어서 읽음 (보관된 메시지는 모두 저장소의 메시지보다 오래됨)
+        if (messages.size() < limit) {
+            MessageCursor archiveCursor = messages.isEmpty()
+                    ? pageCursor
+                    : new MessageCursor(messages.get(messages.size() - 1).getCreatedAt(), messages.get(messages.size() - 1).getId());
+            messageArchive.findRoomPage(roomId, archiveCursor, archiveCursor == null ? before : null, limit - messages.size())
+                    .forEach(message -> messages.add(convertToDto(message)));
+        }
+        
+        if (warmToken >= 0) {
+            recentMessageCache.warm(roomId, warmToken, messages, messages.size() < limit);
+        }
+        
+        return toPage(messages.size() > pageSize ? messages.subList(0, pageSize) : messages, pageSize);
+    }
+
+    /**
+     * 페이지가 가득 찼으면 더 오래된 메시지가 있을 수 있으므로 마지막 메시지 위치를 다음 커서로 반환
+     */
+    private MessagePageDto toPage(List<ChatMessageDto> messages, int pageSize) {
+        String nextCursor = messages.size() == pageSize && !messages.isEmpty()
+                ? new MessageCursor(messages.get(messages.size() - 1).getCreatedAt(), messages.get(messages.size() - 1).getId()).encode()
+                : null;
+        
+        return MessagePageDto.builder()
+                .messages(messages)
+                .nextCursor(nextCursor)
+                .build();
     }
 
-    public void deleteMessage(String messageId) {
+    /**
+     * 메시지를 삭제 표시합니다. 저장소에 없으면 보관 세그먼트에서 찾아 삭제 표시합니다.
+     */
+    public void deleteMessage(String roomId, String messageId) {
         String userId = UserContext.getUserId();
         
-        ChatMessage message = chatMessageRepository.findById(messageId)
+        ChatMessage message = messageStore.findById(messageId)
+                .or(() -> messageArchive.findById(roomId, messageId))
                 .orElseThrow(() -> new ResourceNotFoundException("Message not found"));
         
         // 메시지 소유자인지 확인
@@ -104,13 +183,31 @@ public class ChatMessageService {
             throw new IllegalArgumentException("User is not the sender of this message");
         }
         
+        boolean alreadyDeleted = message.isDeleted();
+        
         message.setDeleted(true);
         message.setDeletedAt(Instant.now());
-        chatMessageRepository.save(message);
+        // 조회 후 보관 작업이 옮겼으면 보관 세그먼트에 삭제 표시
+        if (!messageStore.markDeleted(message) && !messageArchive.markDeleted(message.getRoomId(), messageId)) {
+            throw new ResourceNotFoundException("Message not found");
+        }
+        
+        if (!alreadyDeleted) {
+            chatRoomService.recordMessageDeleted(message);
+            readCursorService.decrementUnread(message, chatRoomService.getParticipants(message.getRoomId()));
+        }
         
         // 삭제된 메시지를 브로드캐스트
         ChatMessageDto deletedDto = convertToDto(message);
-        messagingTemplate.convertAndSend("/topic/chat." + message.getRoomId(), deletedDto);
+        recentMessageCache.onMessage(deletedDto);
+        roomBroadcaster.broadcast(message.getRoomId(), deletedDto);
+    }
+
+    public void markRead(String roomId, ReadReceiptDto receipt) {
+        String userId = UserContext.getUserId();
+        chatRoomService.requireParticipant(roomId, userId);
+        
+        readCursorService.markRead(roomId, userId, receipt.getMessageId(), receipt.getReadAt());
     }
 
     public ChatMessageDto convertToDto(ChatMessage message) {
@@ -127,11 +224,12 @@ public class ChatMessageService {
                 .s3Key(message.isDeleted() ? null : message.getS3Key())
                 .originalMessage(message.getOriginalMessage())
                 .createdAt(message.getCreatedAt())
+                .seq(message.getSeq())
                 .deleted(message.isDeleted())
                 .build();
     }
 
-    private void validateMessageContent(ChatMessageDto messageDto) {
+    void validateMessageContent(ChatMessageDto messageDto) {
         if (messageDto.getType() == null) {
             throw new IllegalArgumentException("Message type cannot be null");
         }
@@ -2,17 +2,28 @@ package com.wowelang.chatserver.service;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.mongodb.client.result.UpdateResult;
 import com.wowelang.chatserver.dto.ChatRoomDto;
 import com.wowelang.chatserver.dto.ChatMessageDto;
 import com.wowelang.chatserver.exception.ResourceNotFoundException;
 import com.wowelang.chatserver.model.ChatMessage;
 import com.wowelang.chatserver.model.ChatRoom;
-import com.wowelang.chatserver.repository.ChatMessageRepository;
+import com.wowelang.chatserver.model.MessagePreview;
 import com.wowelang.chatserver.repository.ChatRoomRepository;
+import com.wowelang.chatserver.repository.MessageArchive;
+import com.wowelang.chatserver.repository.MessageStore;
+import com.wowelang.chatserver.repository.RoomMessageSummary;
 import com.wowelang.chatserver.util.UserContext;
 
 import lombok.RequiredArgsConstructor;
@@ -24,7 +35,14 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ChatRoomService {
     private final ChatRoomRepository chatRoomRepository;
-    private final ChatMessageRepository chatMessageRepository;
+    private final MessageStore messageStore;
+    private final MessageArchive messageArchive;
+    private final MongoTemplate mongoTemplate;
+    private final ReadCursorService readCursorService;
+    private final RoomMembershipCache roomMembershipCache;
+    
+    // pairKey가 없는 이전 채팅방을 participants로 찾아야 하는지 여부 (RoomPairKeyMigrationJob 완료 기록이 있으면 기동 시 false)
+    private volatile boolean legacyPairLookup = true;
     
     // ChatMessageService 의존성 제거
     // private final ChatMessageService chatMessageService;
@@ -33,21 +51,34 @@ public class ChatRoomService {
         String userId = UserContext.getUserId();
         List<ChatRoom> rooms = chatRoomRepository.findAllByParticipantId(userId);
         
+        // 비정규화 필드가 아직 채워지지 않은 채팅방만 집계로 보충
+        List<String> legacyRoomIds = rooms.stream()
+                .filter(room -> room.getMessageCount() == null)
+                .map(ChatRoom::getId)
+                .collect(Collectors.toList());
+        Map<String, RoomMessageSummary> summaries = messageStore.summarizeRooms(legacyRoomIds);
+        
+        Map<String, Long> unreadCounts = readCursorService.getUnreadCounts(userId,
+                rooms.stream().map(ChatRoom::getId).collect(Collectors.toList()));
+        
         return rooms.stream()
                 .map(room -> {
-                    // 변경된 메서드 이름 사용
-                    ChatMessage lastMessage = chatMessageRepository.findFirstByRoomIdAndDeletedFalseOrderByCreatedAtDesc(room.getId())
-                            .orElse(null);
-                    long unreadCount = chatMessageRepository.countByRoomIdAndDeletedFalse(room.getId());
+                    ChatMessageDto lastMessage;
+                    
+                    if (room.getMessageCount() != null) {
+                        lastMessage = convertToChatMessageDto(room.getId(), room.getLastMessage());
+                    } else {
+                        RoomMessageSummary summary = summaries.get(room.getId());
+                        lastMessage = summary != null ? convertToChatMessageDto(summary.getLastMessage()) : null;
+                    }
                     
-                    // ChatMessageService.convertToDto() 대신 내부 메서드 사용
                     return ChatRoomDto.builder()
                             .id(room.getId())
                             .participants(room.getParticipants())
                             .createdAt(room.getCreatedAt())
                             .updatedAt(room.getUpdatedAt())
-                            .lastMessage(convertToChatMessageDto(lastMessage))
-                            .unreadCount(unreadCount)
+                            .lastMessage(lastMessage)
+                            .unreadCount(unreadCounts.getOrDefault(room.getId(), 0L))
                             .build();
                 })
                 .collect(Collectors.toList());
@@ -71,29 +102,104 @@ public class ChatRoomService {
                 .deleted(message.isDeleted())
                 .build();
     }
+    
+    private ChatMessageDto convertToChatMessageDto(String roomId, MessagePreview preview) {
+        if (preview == null) {
+            return null;
+        }
+        
+        return ChatMessageDto.builder()
+                .id(preview.getMessageId())
+                .roomId(roomId)
+                .senderId(preview.getSenderId())
+                .type(preview.getType())
+                .content(preview.getContent())
+                .s3Key(preview.getS3Key())
+                .originalMessage(preview.getOriginalMessage())
+                .createdAt(preview.getCreatedAt())
+                .deleted(false)
+                .build();
+    }
+    
     public ChatRoom getRoom(String roomId) {
         return chatRoomRepository.findById(roomId)
                 .filter(room -> !room.isDeleted())
                 .orElseThrow(() -> new ResourceNotFoundException("Chat room not found"));
     }
 
+    /**
+     * 두 사용자의 채팅방을 반환하고, 없으면 생성합니다. (멱등)
+     * pairKey에 대한 upsert 한 번으로 처리하며, 동시에 호출되어도 pair_key_idx 유니크 인덱스로 채팅방은 하나만 생깁니다.
+     */
     public ChatRoom createRoom(List<String> participants) {
         if (participants.size() != 2) {
             throw new IllegalArgumentException("Chat room must have exactly 2 participants");
         }
-
-        // 이미 존재하는 채팅방인지 확인
-        return chatRoomRepository.findByParticipants(participants.get(0), participants.get(1))
-                .orElseGet(() -> {
-                    ChatRoom newRoom = ChatRoom.builder()
-                            .participants(participants)
-                            .createdAt(Instant.now())
-                            .updatedAt(Instant.now())
-                            .deleted(false)
-                            .build();
-                    
-                    return chatRoomRepository.save(newRoom);
-                });
+        
+        String pairKey = ChatRoom.pairKeyOf(participants.get(0), participants.get(1));
+        ChatRoom room = legacyPairLookup ? adoptLegacyRoom(participants, pairKey) : null;
+        if (room == null) {
+            room = upsertRoom(participants, pairKey);
+        }
+        
+        roomMembershipCache.invalidate(room.getId());
+        return room;
+    }
+    
+    /**
+     * 모든 채팅방에 pairKey가 채워졌으므로 participants 조회 없이 pairKey upsert만 사용합니다.
+     */
+    public void disableLegacyPairLookup() {
+        legacyPairLookup = false;
+    }
+    
+    private ChatRoom upsertRoom(List<String> participants, String pairKey) {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("pairKey").is(pairKey));
+        Update update = new Update()
+                .setOnInsert("participants", participants)
+                .setOnInsert("createdAt", now)
+                .setOnInsert("updatedAt", now)
+                .setOnInsert("deleted", false)
+                .setOnInsert("messageCount", 0L);
+        
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), ChatRoom.class);
+        } catch (DuplicateKeyException e) {
+            // 동시에 같은 쌍을 upsert하여 다른 쪽이 먼저 삽입함 (서버가 upsert를 재시도하지 않는 DocumentDB 등)
+            return chatRoomRepository.findByPairKey(pairKey).orElseThrow(() -> e);
+        }
+    }
+    
+    /**
+     * pairKey가 도입되기 전에 만들어진 채팅방이 있으면 pairKey를 채워 그 채팅방을 사용합니다. (마이그레이션 완료 전까지만)
+     * participants 멀티키 인덱스를 쓰므로 비용이 두 사용자의 채팅방 수에 비례합니다.
+     * 같은 쌍의 채팅방 중 하나만 pairKey를 가질 수 있으므로, 동시에 호출되어도 한 채팅방으로 모입니다.
+     * 같은 쌍의 이전 채팅방이 여러 개면 이미 pairKey를 가진 채팅방, 없으면 가장 오래된 채팅방을 사용합니다.
+     */
+    private ChatRoom adoptLegacyRoom(List<String> participants, String pairKey) {
+        List<ChatRoom> legacyRooms = chatRoomRepository.findAllByParticipants(participants.get(0), participants.get(1));
+        if (legacyRooms.isEmpty()) {
+            return null;
+        }
+        ChatRoom legacy = legacyRooms.stream()
+                .filter(room -> pairKey.equals(room.getPairKey()))
+                .findFirst()
+                .orElse(null);
+        if (legacy != null) {
+            return legacy;
+        }
+        legacy = legacyRooms.get(0);
+        
+        try {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(legacy.getId()).and("pairKey").exists(false)),
+                    new Update().set("pairKey", pairKey), ChatRoom.class);
+        } catch (DuplicateKeyException e) {
+            // 다른 채팅방이 먼저 pairKey를 가짐, 그 채팅방을 사용
+            return null;
+        }
+        return chatRoomRepository.findByPairKey(pairKey).orElse(null);
     }
 
     public void deleteRoom(String roomId) {
@@ -107,11 +213,94 @@ public class ChatRoomService {
         
         room.setDeleted(true);
         room.setDeletedAt(Instant.now());
+        room.setPairKey(null); // 같은 쌍이 다시 매칭되면 새 채팅방을 만들 수 있도록 쌍 키 해제
         chatRoomRepository.save(room);
+        roomMembershipCache.invalidate(roomId);
+    }
+    
+    /**
+     * 채팅방 참여자 목록을 반환합니다. 삭제된 채팅방도 포함하며, 채팅방이 없으면 빈 목록을 반환합니다.
+     */
+    public List<String> getParticipants(String roomId) {
+        return chatRoomRepository.findById(roomId)
+                .map(ChatRoom::getParticipants)
+                .orElse(List.of());
     }
     
     public boolean isUserInRoom(String roomId, String userId) {
-        ChatRoom room = getRoom(roomId);
-        return room.getParticipants().contains(userId);
+        return roomMembershipCache.getParticipants(roomId).contains(userId);
+    }
+    
+    /**
+     * 사용자가 채팅방 참여자인지 확인하고 참여자 목록을 반환합니다. 참여자 캐시를 사용합니다.
+     * 
+     * @throws ResourceNotFoundException 채팅방이 없거나 삭제된 경우
+     * @throws IllegalArgumentException 참여자가 아닌 경우
+     */
+    public List<String> requireParticipant(String roomId, String userId) {
+        List<String> participants = roomMembershipCache.getParticipants(roomId);
+        
+        if (!participants.contains(userId)) {
+            throw new IllegalArgumentException("User is not a participant of this chat room");
+        }
+        
+        return participants;
+    }
+    
+    /**
+     * 새 메시지 저장 후 채팅방의 마지막 메시지와 메시지 수를 갱신합니다.
+     * 일반적인 경우 한 번의 업데이트로 끝나며, 더 최신 메시지가 이미 반영된 경우에만 카운터만 증가시킵니다.
+     * 아직 백필되지 않은 채팅방(messageCount 없음)은 건드리지 않습니다.
+     */
+    public void recordMessageSent(ChatMessage message) {
+        Query latestQuery = new Query(Criteria.where("_id").is(message.getRoomId())
+                .and("messageCount").exists(true)
+                .orOperator(
+                        Criteria.where("lastMessageAt").is(null),
+                        Criteria.where("lastMessageAt").lte(message.getCreatedAt())));
+        Update latestUpdate = new Update()
+                .inc("messageCount", 1)
+                .set("lastMessage", MessagePreview.of(message))
+                .set("lastMessageAt", message.getCreatedAt());
+        
+        UpdateResult result = mongoTemplate.updateFirst(latestQuery, latestUpdate, ChatRoom.class);
+        if (result.getMatchedCount() == 0) {
+            Query countQuery = new Query(Criteria.where("_id").is(message.getRoomId())
+                    .and("messageCount").exists(true));
+            mongoTemplate.updateFirst(countQuery, new Update().inc("messageCount", 1), ChatRoom.class);
+        }
+    }
+    
+    /**
+     * 메시지 삭제 후 채팅방의 메시지 수를 감소시키고, 삭제된 메시지가 마지막 메시지였다면 다시 계산합니다.
+     */
+    public void recordMessageDeleted(ChatMessage message) {
+        Query countQuery = new Query(Criteria.where("_id").is(message.getRoomId())
+                .and("messageCount").gt(0));
+        mongoTemplate.updateFirst(countQuery, new Update().inc("messageCount", -1), ChatRoom.class);
+        
+        ChatRoom room = chatRoomRepository.findById(message.getRoomId()).orElse(null);
+        if (room == null || room.getLastMessage() == null
+                || !message.getId().equals(room.getLastMessage().getMessageId())) {
+            return;
+        }
+        
+        // 가장 최근 메시지 한 건만 조회 (저장소에 없으면 보관 세그먼트에서)
+        List<ChatMessage> latest = messageStore.findRoomPage(room.getId(), null, null, 1);
+        if (latest.isEmpty()) {
+            latest = messageArchive.findRoomPage(room.getId(), null, null, 1);
+        }
+        Update update = new Update();
+        if (!latest.isEmpty()) {
+            update.set("lastMessage", MessagePreview.of(latest.get(0)))
+                    .set("lastMessageAt", latest.get(0).getCreatedAt());
+        } else {
+            update.unset("lastMessage").unset("lastMessageAt");
+        }
+        
+        // 재계산 중 새 메시지가 들어왔다면 그쪽이 우선
+        Query query = new Query(Criteria.where("_id").is(room.getId())
+                .and("lastMessage.messageId").is(message.getId()));
+        mongoTemplate.updateFirst(query, update, ChatRoom.class);
     }
-} 
\ No newline at end of file
+}
@@ -1,18 +1,29 @@
 package com.wowelang.chatserver.service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import com.wowelang.chatserver.dto.MatchRequestDto;
+import com.wowelang.chatserver.dto.MatchRequestPageDto;
 import com.wowelang.chatserver.exception.ResourceNotFoundException;
 import com.wowelang.chatserver.model.ChatRoom;
 import com.wowelang.chatserver.model.MatchRequest;
 import com.wowelang.chatserver.model.MatchRequest.MatchStatus;
 import com.wowelang.chatserver.repository.MatchRequestRepository;
+import com.wowelang.chatserver.util.MessageCursor;
 import com.wowelang.chatserver.util.UserContext;
 
 import lombok.RequiredArgsConstructor;
@@ -23,7 +34,29 @@ public class MatchRequestService {
 
     private final MatchRequestRepository matchRequestRepository;
     private final ChatRoomService chatRoomService;
+    private final MongoTemplate mongoTemplate;
 
+    // 페이지 내 정렬 순서 (updatedAt, _id 역순). ObjectId 16진 문자열은 길이가 같으므로 문자열 비교가 생성 순서와 같음
+    private static final Comparator<MatchRequest> NEWEST_FIRST = Comparator
+            .comparing(MatchRequest::getUpdatedAt, Comparator.nullsFirst(Comparator.<Instant>naturalOrder()))
+            .thenComparing(MatchRequest::getId)
+            .reversed();
+
+    // 상대방 요청과 엇갈렸을 때 수락을 다시 시도하는 횟수 (그사이 상대방 요청이 거절/수락되는 경우까지 포함)
+    private static final int MAX_SEND_ATTEMPTS = 3;
+
+    @Value("${chat.pagination.default-size}")
+    private int defaultPageSize;
+
+    @Value("${chat.pagination.max-size}")
+    private int maxPageSize;
+
+    /**
+     * 매치 요청을 보냅니다.
+     * 상대방의 대기 중인 요청이 있으면 그 요청을 조건부 갱신(PENDING → ACCEPTED) 한 번으로 수락하고 채팅방을 만듭니다.
+     * 없으면 내 요청을 upsert하여 PENDING으로 만들고, 이미 대기 중이면 그대로 반환합니다. (연속 요청에도 멱등)
+     * 쌍마다 대기 중인 요청은 하나뿐이므로(pending_pair_idx), 상호 요청이 동시에 오면 한쪽의 upsert가 실패하고 그쪽이 상대 요청을 수락합니다.
+     */
     public MatchRequestDto sendMatchRequest(String targetId) {
         String requesterId = UserContext.getUserId();
         
@@ -32,100 +65,206 @@ public class MatchRequestService {
             throw new IllegalArgumentException("Cannot send match request to yourself");
         }
         
-        // 이미 존재하는 요청인지 확인
-        MatchRequest existingRequest = matchRequestRepository.findByRequesterIdAndTargetId(requesterId, targetId)
-                .orElse(null);
-        
-        if (existingRequest != null) {
-            if (existingRequest.getStatus() == MatchStatus.PENDING) {
-                return convertToDto(existingRequest);
-            } else {
-                existingRequest.setStatus(MatchStatus.PENDING);
-                existingRequest.setUpdatedAt(Instant.now());
-                return convertToDto(matchRequestRepository.save(existingRequest));
+        String pairKey = ChatRoom.pairKeyOf(requesterId, targetId);
+        for (int attempt = 1; ; attempt++) {
+            // 상대방이 이미 요청한 경우 자동 수락
+            MatchRequest reverseRequest = transition(
+                    Criteria.where("requesterId").is(targetId).and("targetId").is(requesterId).and("status").is(MatchStatus.PENDING),
+                    MatchStatus.ACCEPTED);
+            if (reverseRequest != null) {
+                return completeAccept(reverseRequest);
+            }
+            
+            // 내 요청 생성 또는 재요청 (PENDING이 아닌 요청만 PENDING으로 되돌림)
+            Instant now = Instant.now();
+            Query query = new Query(Criteria.where("requesterId").is(requesterId).and("targetId").is(targetId)
+                    .and("status").ne(MatchStatus.PENDING));
+            Update update = new Update()
+                    .set("status", MatchStatus.PENDING)
+                    .set("pairKey", pairKey)
+                    .set("updatedAt", now)
+                    .setOnInsert("createdAt", now);
+            
+            try {
+                return convertToDto(mongoTemplate.findAndModify(query, update,
+                        FindAndModifyOptions.options().upsert(true).returnNew(true), MatchRequest.class));
+            } catch (DuplicateKeyException e) {
+                // 이미 대기 중인 내 요청이 있거나(requester_target_idx), 그사이 상대방 요청이 대기 상태가 됨(pending_pair_idx)
+                MatchRequest own = matchRequestRepository.findByRequesterIdAndTargetId(requesterId, targetId).orElse(null);
+                if (own != null && own.getStatus() == MatchStatus.PENDING) {
+                    return convertToDto(own);
+                }
+                if (attempt >= MAX_SEND_ATTEMPTS) {
+                    throw e;
+                }
+                // 상대방 요청을 다시 수락 시도
             }
         }
+    }
+    
+    public MatchRequestDto acceptMatchRequest(String requestId) {
+        String userId = UserContext.getUserId();
         
-        // 상대방이 이미 요청했는지 확인
-        MatchRequest reverseRequest = matchRequestRepository.findByRequesterIdAndTargetId(targetId, requesterId)
-                .orElse(null);
-        
-        if (reverseRequest != null && reverseRequest.getStatus() == MatchStatus.PENDING) {
-            // 상대방이 이미 요청한 경우 자동 수락
-            return acceptMatchRequest(reverseRequest.getId());
+        // 대상자의 대기 중인 요청만 수락 가능
+        MatchRequest request = transition(
+                Criteria.where("_id").is(requestId).and("targetId").is(userId).and("status").is(MatchStatus.PENDING),
+                MatchStatus.ACCEPTED);
+        if (request == null) {
+            return convertToDto(resolveFailedTransition(requestId, userId, MatchStatus.ACCEPTED, "accept"));
         }
         
-        // 새 요청 생성
-        MatchRequest newRequest = MatchRequest.builder()
-                .requesterId(requesterId)
-                .targetId(targetId)
-                .status(MatchStatus.PENDING)
-                .createdAt(Instant.now())
-                .updatedAt(Instant.now())
-                .build();
-        
-        return convertToDto(matchRequestRepository.save(newRequest));
+        return completeAccept(request);
     }
     
-    public MatchRequestDto acceptMatchRequest(String requestId) {
+    public MatchRequestDto rejectMatchRequest(String requestId) {
         String userId = UserContext.getUserId();
         
-        MatchRequest request = matchRequestRepository.findById(requestId)
-                .orElseThrow(() -> new ResourceNotFoundException("Match request not found"));
-        
-        // 대상자만 수락 가능
-        if (!request.getTargetId().equals(userId)) {
-            throw new IllegalArgumentException("Only the target user can accept the match request");
+        // 대상자의 대기 중인 요청만 거절 가능
+        MatchRequest request = transition(
+                Criteria.where("_id").is(requestId).and("targetId").is(userId).and("status").is(MatchStatus.PENDING),
+                MatchStatus.REJECTED);
+        if (request == null) {
+            return convertToDto(resolveFailedTransition(requestId, userId, MatchStatus.REJECTED, "reject"));
         }
         
-        // 이미 처리된 요청은 다시 처리 불가
-        if (request.getStatus() != MatchStatus.PENDING) {
-            throw new IllegalArgumentException("Match request already processed");
-        }
+        return convertToDto(request);
+    }
+    
+    /**
+     * 조건에 맞는 요청의 상태를 바꾸고 바뀐 요청을 반환합니다. 조건에 맞는 요청이 없으면 null
+     */
+    private MatchRequest transition(Criteria precondition, MatchStatus status) {
+        Update update = new Update()
+                .set("status", status)
+                .set("updatedAt", Instant.now());
         
-        // 채팅방 생성
-        ChatRoom chatRoom = chatRoomService.createRoom(
-                Arrays.asList(request.getRequesterId(), request.getTargetId()));
+        return mongoTemplate.findAndModify(new Query(precondition), update,
+                FindAndModifyOptions.options().returnNew(true), MatchRequest.class);
+    }
+    
+    /**
+     * 수락된 요청의 채팅방을 만들고 요청에 연결합니다. 채팅방 생성은 멱등이므로 상호 요청이 동시에 수락되어도 채팅방은 하나입니다.
+     * 채팅방 생성에 실패하면 요청을 다시 PENDING으로 되돌립니다.
+     */
+    private MatchRequestDto completeAccept(MatchRequest request) {
+        ChatRoom chatRoom;
+        try {
+            chatRoom = chatRoomService.createRoom(Arrays.asList(request.getRequesterId(), request.getTargetId()));
+        } catch (RuntimeException e) {
+            try {
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(request.getId())
+                                .and("status").is(MatchStatus.ACCEPTED).and("chatRoomId").is(null)),
+                        new Update().set("status", MatchStatus.PENDING).set("updatedAt", Instant.now()),
+                        MatchRequest.class);
+            } catch (DuplicateKeyException pending) {
+                // 그사이 상대방이 새 요청을 보냄 (pending_pair_idx), 그 요청이 수락되면 채팅방이 만들어짐
+                e.addSuppressed(pending);
+            }
+            throw e;
+        }
         
-        // 요청 상태 업데이트
-        request.setStatus(MatchStatus.ACCEPTED);
-        request.setChatRoomId(chatRoom.getId());
-        request.setUpdatedAt(Instant.now());
+        MatchRequest updated = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(request.getId())),
+                new Update().set("chatRoomId", chatRoom.getId()),
+                FindAndModifyOptions.options().returnNew(true), MatchRequest.class);
         
-        return convertToDto(matchRequestRepository.save(request));
+        return convertToDto(updated != null ? updated : request);
     }
     
-    public MatchRequestDto rejectMatchRequest(String requestId) {
-        String userId = UserContext.getUserId();
-        
+    /**
+     * 상태 변경 조건이 맞지 않았을 때 원인을 확인합니다. 같은 요청을 같은 상태로 다시 바꾸려는 경우(연속 탭)는 현재 요청을 반환합니다.
+     * 
+     * @throws ResourceNotFoundException 요청이 없는 경우
+     * @throws IllegalArgumentException 대상자가 아니거나 이미 다른 상태로 처리된 경우
+     */
+    private MatchRequest resolveFailedTransition(String requestId, String userId, MatchStatus status, String action) {
         MatchRequest request = matchRequestRepository.findById(requestId)
                 .orElseThrow(() -> new ResourceNotFoundException("Match request not found"));
         
-        // 대상자만 거절 가능
         if (!request.getTargetId().equals(userId)) {
-            throw new IllegalArgumentException("Only the target user can reject the match request");
+            throw new IllegalArgumentException("Only the target user can " + action + " the match request");
         }
-        
-        // 이미 처리된 요청은 다시 처리 불가
-        if (request.getStatus() != MatchStatus.PENDING) {
+        if (request.getStatus() != status) {
             throw new IllegalArgumentException("Match request already processed");
         }
-        
-        // 요청 상태 업데이트
-        request.setStatus(MatchStatus.REJECTED);
-        request.setUpdatedAt(Instant.now());
-        
-        return convertToDto(matchRequestRepository.save(request));
+        return request;
+    }
+    
+    /**
+     * 받은 매치 요청을 최신순으로 한 페이지 조회합니다.
+     * 
+     * @param cursor 이전 응답의 nextCursor (null이면 첫 페이지)
+     */
+    public MatchRequestPageDto getInbox(MatchStatus status, String cursor, Integer size) {
+        int pageSize = pageSize(size);
+        return toPage(matchRequestRepository.findInboxPage(UserContext.getUserId(), status, decodeCursor(cursor), pageSize), pageSize);
     }
     
-    public List<MatchRequestDto> getPendingRequests() {
+    /**
+     * 보낸 매치 요청을 최신순으로 한 페이지 조회합니다.
+     * 
+     * @param cursor 이전 응답의 nextCursor (null이면 첫 페이지)
+     */
+    public MatchRequestPageDto getOutbox(MatchStatus status, String cursor, Integer size) {
+        int pageSize = pageSize(size);
+        return toPage(matchRequestRepository.findOutboxPage(UserContext.getUserId(), status, decodeCursor(cursor), pageSize), pageSize);
+    }
+    
+    /**
+     * 받은 요청과 보낸 요청을 합쳐 최신순으로 한 페이지 조회합니다.
+     * $or 쿼리 대신 두 요청함을 각각 인덱스 구간으로 pageSize개씩 읽고 updatedAt 순으로 병합합니다.
+     * 두 요청함은 같은 (updatedAt, _id) 순서를 쓰므로 하나의 커서로 양쪽을 이어서 읽을 수 있습니다.
+     * 
+     * @param cursor 이전 응답의 nextCursor (null이면 첫 페이지)
+     */
+    public MatchRequestPageDto getMatchRequests(MatchStatus status, String cursor, Integer size) {
         String userId = UserContext.getUserId();
+        int pageSize = pageSize(size);
+        MessageCursor pageCursor = decodeCursor(cursor);
         
-        List<MatchRequest> requests = matchRequestRepository.findByUserIdAndStatus(userId, MatchStatus.PENDING);
+        List<MatchRequest> inbox = matchRequestRepository.findInboxPage(userId, status, pageCursor, pageSize);
+        List<MatchRequest> outbox = matchRequestRepository.findOutboxPage(userId, status, pageCursor, pageSize);
         
-        return requests.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<MatchRequest> merged = new ArrayList<>(inbox.size() + outbox.size());
+        int i = 0;
+        int j = 0;
+        while (merged.size() < pageSize && (i < inbox.size() || j < outbox.size())) {
+            if (j >= outbox.size() || (i < inbox.size() && NEWEST_FIRST.compare(inbox.get(i), outbox.get(j)) <= 0)) {
+                merged.add(inbox.get(i++));
+            } else {
+                merged.add(outbox.get(j++));
+            }
+        }
+        
+        return toPage(merged, pageSize);
+    }
+    
+    private int pageSize(Integer size) {
+        if (size != null && size <= 0) {
+            throw new IllegalArgumentException("'size' must be positive");
+        }
+        return size != null ? Math.min(size, maxPageSize) : defaultPageSize;
+    }
+    
+    private MessageCursor decodeCursor(String cursor) {
+        return cursor != null ? MessageCursor.decode(cursor) : null;
+    }
+    
+    /**
+     * 페이지가 가득 찼으면 더 오래된 요청이 있을 수 있으므로 마지막 요청 위치를 다음 커서로 반환
+     */
+    private MatchRequestPageDto toPage(List<MatchRequest> requests, int pageSize) {
+        String nextCursor = null;
+        if (requests.size() == pageSize && !requests.isEmpty()) {
+            MatchRequest last = requests.get(requests.size() - 1);
+            nextCursor = new MessageCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        
+        return MatchRequestPageDto.builder()
+                .requests(requests.stream()
+                        .map(this::convertToDto)
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
     }
     
     private MatchRequestDto convertToDto(MatchRequest request) {
@@ -0,0 +1,87 @@
+package com.wowelang.chatserver.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.repository.MessageArchive;
+import com.wowelang.chatserver.repository.MessageStore;
+import com.wowelang.chatserver.util.UserContext;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 채팅방 메시지 기록 내보내기 (NDJSON)
+ *
+ * 보관 세그먼트(MessageArchive.streamRoom)와 저장소 커서(MessageStore.streamRoom)를 차례로 읽으면서 조건에 맞는 메시지를
+ * 오래된 순으로 한 줄에 ChatMessageDto 하나씩 출력 스트림에 바로 씁니다. 커서는 batch-size개(보관 세그먼트는 하나)씩 가져오므로
+ * 메모리 사용량은 방 크기와 관계없이 일정합니다.
+ * 클라이언트가 연결을 끊으면 쓰기 오류로 커서가 닫힙니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageExportService {
+
+    private static final int OUTPUT_BUFFER_BYTES = 64 * 1024;
+
+    private final MessageStore messageStore;
+    private final MessageArchive messageArchive;
+    private final ChatRoomService chatRoomService;
+    private final ChatMessageService chatMessageService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${chat.export.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * 내보내기 권한과 조건을 확인합니다. 응답 스트리밍을 시작하기 전에 요청 스레드에서 호출해야 합니다.
+     *
+     * @throws ResourceNotFoundException 채팅방이 없거나 삭제된 경우
+     * @throws IllegalArgumentException 참여자가 아니거나 기간이 잘못된 경우
+     */
+    public void validateExport(String roomId, Instant from, Instant to) {
+        chatRoomService.requireParticipant(roomId, UserContext.getUserId());
+
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+    }
+
+    /**
+     * 삭제되지 않은 메시지를 오래된 순으로 NDJSON으로 씁니다. validateExport 이후에 호출합니다.
+     *
+     * @param from 이 시각 이후 메시지 (포함, null 가능)
+     * @param to 이 시각 이전 메시지 (미포함, null 가능)
+     * @param senderId 발신자 필터 (null 가능)
+     * @return 내보낸 메시지 수
+     */
+    public long writeNdjson(String roomId, Instant from, Instant to, String senderId, OutputStream out) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        long count = 0;
+        BufferedOutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_BYTES);
+        // 보관된 메시지는 모두 저장소의 메시지보다 오래되었으므로 이어 붙이면 순서가 유지됨
+        try (Stream<ChatMessage> messages = Stream.concat(messageArchive.streamRoom(roomId, from, to, senderId),
+                messageStore.streamRoom(roomId, from, to, senderId, batchSize))) {
+            Iterator<ChatMessage> iterator = messages.iterator();
+            while (iterator.hasNext()) {
+                buffered.write(objectMapper.writeValueAsBytes(chatMessageService.convertToDto(iterator.next())));
+                buffered.write('\n');
+                count++;
+            }
+        }
+        buffered.flush();
+
+        log.info("메시지 내보내기 완료: roomId={}, count={}, elapsedMs={}", roomId, count, System.currentTimeMillis() - startedAt);
+        return count;
+    }
+}
@@ -0,0 +1,310 @@
+package com.wowelang.chatserver.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.wowelang.chatserver.dto.ChatMessageDto;
+import com.wowelang.chatserver.dto.MessageAckDto;
+import com.wowelang.chatserver.dto.MessageAckDto.AckStatus;
+import com.wowelang.chatserver.model.ChatMessage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 메시지 비동기 저장(write-behind) 큐
+ * 
+ * chat.message.write-behind.enabled=true일 때만 활성화됩니다.
+ * 메시지는 로컬 저널에 기록된 뒤 큐에 들어가고, 전용 스레드가 batch-size 단위로 모아 insertMany로 저장합니다.
+ * 저장되지 않은 메시지가 queue-capacity에 도달하면 offer-timeout-ms 동안 대기한 후 전송을 거부합니다(백프레셔).
+ * 저장 결과는 발신자에게 /user/queue/acks로 전달됩니다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.message.write-behind.enabled", havingValue = "true")
+public class MessageWriteBehindQueue {
+
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ChatRoomService chatRoomService;
+    private final ReadCursorService readCursorService;
+    private final RecentMessageCache recentMessageCache;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final WriteBehindJournal journal;
+
+    private final BlockingQueue<WriteBehindJournal.Entry> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity; // 저장 완료 전까지 점유되는 큐 슬롯
+    private final Deque<WriteBehindJournal.Entry> recovered = new ArrayDeque<>();
+
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final int maxRetries;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public MessageWriteBehindQueue(MongoTemplate mongoTemplate,
+                                   ChatRoomService chatRoomService,
+                                   ReadCursorService readCursorService,
+                                   RecentMessageCache recentMessageCache,
+                                   SimpMessageSendingOperations messagingTemplate,
+                                   ObjectMapper objectMapper,
+                                   @Value("${chat.message.write-behind.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${chat.message.write-behind.batch-size:200}") int batchSize,
+                                   @Value("${chat.message.write-behind.flush-interval-ms:50}") long flushIntervalMs,
+                                   @Value("${chat.message.write-behind.offer-timeout-ms:500}") long offerTimeoutMs,
+                                   @Value("${chat.message.write-behind.max-retries:3}") int maxRetries,
+                                   @Value("${chat.message.write-behind.journal.path:./data/write-behind}") String journalPath,
+                                   @Value("${chat.message.write-behind.journal.segment-max-bytes:16777216}") long segmentMaxBytes,
+                                   @Value("${chat.message.write-behind.journal.sync:false}") boolean journalSync) {
+        this.mongoTemplate = mongoTemplate;
+        this.chatRoomService = chatRoomService;
+        this.readCursorService = readCursorService;
+        this.recentMessageCache = recentMessageCache;
+        this.messagingTemplate = messagingTemplate;
+        this.journal = new WriteBehindJournal(Path.of(journalPath), segmentMaxBytes, journalSync, objectMapper);
+        this.capacity = new Semaphore(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxRetries = maxRetries;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        List<WriteBehindJournal.Entry> entries = journal.open();
+        recovered.addAll(entries);
+        if (!entries.isEmpty()) {
+            log.warn("이전 실행에서 저장되지 않은 메시지 {}건을 재저장합니다.", entries.size());
+        }
+        
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "message-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        journal.close();
+    }
+
+    /**
+     * 메시지를 저널에 기록하고 저장 큐에 넣습니다.
+     * 메시지 ID와 createdAt은 호출 전에 할당되어 있어야 합니다.
+     * 
+     * @throws IllegalStateException 큐가 가득 차 대기 시간 내에 넣지 못한 경우
+     */
+    public void enqueue(ChatMessage message) {
+        boolean acquired;
+        try {
+            acquired = capacity.tryAcquire(offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        
+        if (!acquired) {
+            throw new IllegalStateException("Message queue is full, try again later");
+        }
+        
+        try {
+            long segmentId = journal.append(message);
+            queue.add(new WriteBehindJournal.Entry(message, segmentId));
+        } catch (IOException e) {
+            capacity.release();
+            throw new IllegalStateException("Failed to journal message", e);
+        }
+    }
+
+    /**
+     * 큐에 넣지 못한 메시지의 전송 실패를 발신자에게 알립니다.
+     * (@MessageMapping에서 던진 예외는 클라이언트에게 전달되지 않으므로 ack로 알림)
+     */
+    public void reject(ChatMessage message, String reason) {
+        log.warn("메시지 전송 거부: messageId={}, roomId={}, 사유={}", message.getId(), message.getRoomId(), reason);
+        sendAck(message, AckStatus.FAILED, reason);
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public int getAvailableCapacity() {
+        return capacity.availablePermits();
+    }
+
+    private void runFlushLoop() {
+        List<WriteBehindJournal.Entry> batch = new ArrayList<>(batchSize);
+        
+        while (running || !queue.isEmpty()) {
+            int permits = 0;
+            try {
+                if (!recovered.isEmpty()) {
+                    while (!recovered.isEmpty() && batch.size() < batchSize) {
+                        batch.add(recovered.poll());
+                    }
+                } else {
+                    WriteBehindJournal.Entry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    permits = batch.size();
+                }
+                
+                persistBatch(batch);
+            } catch (InterruptedException e) {
+                if (running) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                // 종료 중에는 남은 메시지를 모두 비울 때까지 계속 진행
+                Thread.interrupted();
+            } catch (Exception e) {
+                log.error("메시지 배치 저장 중 예상치 못한 오류", e);
+            } finally {
+                batch.clear();
+                capacity.release(permits);
+            }
+        }
+    }
+
+    private void persistBatch(List<WriteBehindJournal.Entry> batch) throws InterruptedException {
+        List<WriteBehindJournal.Entry> remaining = new ArrayList<>(batch);
+        int attempt = 0;
+        
+        while (!remaining.isEmpty()) {
+            attempt++;
+            try {
+                List<ChatMessage> messages = remaining.stream().map(WriteBehindJournal.Entry::message).toList();
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatMessage.class)
+                        .insert(messages)
+                        .execute();
+                for (WriteBehindJournal.Entry entry : remaining) {
+                    onPersisted(entry, true);
+                }
+                return;
+            } catch (BulkOperationException e) {
+                remaining = handlePartialFailure(remaining, e, attempt);
+            } catch (RuntimeException e) {
+                // 연결 장애 등 일시적 오류: 종료 중이 아니면 계속 재시도 (저널이 남아 있으므로 유실되지 않음)
+                if (!running) {
+                    log.error("종료 중 메시지 {}건 저장 실패. 다음 기동 시 저널에서 재저장됩니다.", remaining.size(), e);
+                    return;
+                }
+                log.warn("메시지 배치 저장 실패 (시도 {}회), 재시도합니다: {}", attempt, e.getMessage());
+                Thread.sleep(Math.min(5000L, 100L * attempt));
+            }
+        }
+    }
+
+    private List<WriteBehindJournal.Entry> handlePartialFailure(List<WriteBehindJournal.Entry> entries,
+                                                                BulkOperationException e, int attempt) {
+        Set<Integer> retryIndexes = new HashSet<>();
+        Set<Integer> duplicateIndexes = new HashSet<>();
+        for (BulkWriteError error : e.getErrors()) {
+            if (error.getCode() == DUPLICATE_KEY_ERROR) {
+                duplicateIndexes.add(error.getIndex());
+            } else {
+                retryIndexes.add(error.getIndex());
+            }
+        }
+        
+        List<WriteBehindJournal.Entry> retry = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            WriteBehindJournal.Entry entry = entries.get(i);
+            if (duplicateIndexes.contains(i)) {
+                // 이미 저장된 메시지 (저널 재저장 등)
+                onPersisted(entry, false);
+            } else if (!retryIndexes.contains(i)) {
+                onPersisted(entry, true);
+            } else if (attempt >= maxRetries) {
+                onFailed(entry, e.getMessage());
+            } else {
+                retry.add(entry);
+            }
+        }
+        return retry;
+    }
+
+    private void onPersisted(WriteBehindJournal.Entry entry, boolean inserted) {
+        ChatMessage message = entry.message();
+        journal.release(entry.segmentId());
+        
+        if (inserted) {
+            try {
+                chatRoomService.recordMessageSent(message);
+                readCursorService.incrementUnread(message, chatRoomService.getParticipants(message.getRoomId()));
+            } catch (Exception e) {
+                log.warn("메시지 저장 후 채팅방 통계 갱신 실패: messageId={}", message.getId(), e);
+            }
+            // 전송 후 저장 전에 DB에서 채운 방 버퍼에는 이 메시지가 빠져 있으므로 다시 반영 (이미 있으면 그대로)
+            recentMessageCache.onMessage(toDto(message));
+        }
+        
+        sendAck(message, AckStatus.PERSISTED, null);
+    }
+
+    private void onFailed(WriteBehindJournal.Entry entry, String reason) {
+        ChatMessage message = entry.message();
+        journal.release(entry.segmentId());
+        log.error("메시지 저장 최종 실패: messageId={}, roomId={}, 사유={}", message.getId(), message.getRoomId(), reason);
+        // 브로드캐스트 시 최근 메시지 버퍼에 들어간 메시지가 남지 않도록 방 버퍼를 버림
+        recentMessageCache.invalidate(message.getRoomId());
+        sendAck(message, AckStatus.FAILED, reason);
+    }
+
+    // ChatMessageService.convertToDto()와 같은 변환 (ChatMessageService가 이 큐에 의존하므로 따로 둠)
+    private ChatMessageDto toDto(ChatMessage message) {
+        return ChatMessageDto.builder()
+                .id(message.getId())
+                .roomId(message.getRoomId())
+                .senderId(message.getSenderId())
+                .type(message.getType())
+                .content(message.isDeleted() ? null : message.getContent())
+                .s3Key(message.isDeleted() ? null : message.getS3Key())
+                .originalMessage(message.getOriginalMessage())
+                .createdAt(message.getCreatedAt())
+                .seq(message.getSeq())
+                .deleted(message.isDeleted())
+                .build();
+    }
+
+    private void sendAck(ChatMessage message, AckStatus status, String reason) {
+        MessageAckDto ack = MessageAckDto.builder()
+                .messageId(message.getId())
+                .roomId(message.getRoomId())
+                .status(status)
+                .reason(reason)
+                .build();
+        messagingTemplate.convertAndSendToUser(message.getSenderId(), "/queue/acks", ack);
+    }
+}
@@ -0,0 +1,198 @@
+package com.wowelang.chatserver.service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.ReadCursor;
+import com.wowelang.chatserver.repository.MessageStore;
+import com.wowelang.chatserver.repository.ReadCursorRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 사용자별 읽음 위치와 읽지 않은 메시지 수를 관리하는 서비스
+ * 
+ * 읽음 처리 요청은 스크롤할 때마다 들어올 수 있으므로 메모리에서 (채팅방, 사용자) 단위로 병합한 뒤
+ * 주기적으로 한 번만 DB에 반영합니다.
+ * 
+ * 읽음 위치를 옮길 때는 새 위치 이후의 메시지 수를 다시 세어 unreadCount를 설정합니다. 세는 동안 새 메시지의 증가($inc)가
+ * 반영되면 덮어쓰지 않도록, 읽어 둔 unreadCount와 lastReadAt이 그대로일 때만 설정하고 아니면 다시 셉니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReadCursorService {
+
+    private static final int MAX_APPLY_ATTEMPTS = 3;
+
+    private final ReadCursorRepository readCursorRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MessageStore messageStore;
+
+    // (roomId, userId) -> 아직 반영되지 않은 가장 최신 읽음 위치
+    private final Map<CursorKey, PendingRead> pendingReads = new ConcurrentHashMap<>();
+
+    /**
+     * 읽음 위치 갱신 요청을 기록합니다. 실제 DB 반영은 flush 시점에 이루어집니다.
+     */
+    public void markRead(String roomId, String userId, String messageId, Instant readAt) {
+        enqueue(new CursorKey(roomId, userId), new PendingRead(messageId, readAt != null ? readAt : Instant.now()));
+    }
+
+    private void enqueue(CursorKey key, PendingRead read) {
+        pendingReads.merge(key, read, (current, next) -> next.readAt().isAfter(current.readAt()) ? next : current);
+    }
+
+    /**
+     * 병합된 읽음 위치를 DB에 반영합니다.
+     */
+    @Scheduled(fixedDelayString = "${chat.read-cursor.flush-interval-ms:1000}")
+    public void flush() {
+        if (pendingReads.isEmpty()) {
+            return;
+        }
+        
+        int flushed = 0;
+        for (CursorKey key : pendingReads.keySet()) {
+            PendingRead read = pendingReads.remove(key);
+            if (read == null) {
+                continue;
+            }
+            
+            try {
+                applyRead(key, read);
+                flushed++;
+            } catch (Exception e) {
+                log.error("읽음 위치 반영 실패: roomId={}, userId={}", key.roomId(), key.userId(), e);
+            }
+        }
+        
+        log.debug("읽음 위치 {}건 반영 완료", flushed);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void applyRead(CursorKey key, PendingRead read) {
+        for (int attempt = 0; attempt < MAX_APPLY_ATTEMPTS; attempt++) {
+            ReadCursor current = mongoTemplate.findOne(new Query(Criteria.where("roomId").is(key.roomId())
+                    .and("userId").is(key.userId())), ReadCursor.class);
+            
+            // 커서는 앞으로만 이동
+            if (current != null && current.getLastReadAt() != null && !current.getLastReadAt().isBefore(read.readAt())) {
+                return;
+            }
+            
+            // 저장 직후 증가가 아직 반영되지 않은 메시지는 한 번 더 셀 수 있으며, 다음 읽음 처리에서 바로잡힘
+            long unread = messageStore.countAfter(key.roomId(), key.userId(), read.readAt());
+            if (current == null ? insertCursor(key, read, unread) : updateCursor(current, read, unread)) {
+                return;
+            }
+        }
+        
+        // 계속 새 메시지가 들어오는 채팅방: 다음 flush에서 다시 반영
+        log.debug("읽음 위치 반영 경합, 다음 주기에 재시도: roomId={}, userId={}", key.roomId(), key.userId());
+        enqueue(key, read);
+    }
+
+    private boolean insertCursor(CursorKey key, PendingRead read, long unread) {
+        try {
+            mongoTemplate.insert(ReadCursor.builder()
+                    .roomId(key.roomId())
+                    .userId(key.userId())
+                    .lastReadMessageId(read.messageId())
+                    .lastReadAt(read.readAt())
+                    .unreadCount(unread)
+                    .updatedAt(Instant.now())
+                    .build());
+            return true;
+        } catch (DuplicateKeyException e) {
+            // 그 사이 증가 또는 다른 노드의 읽음 처리로 커서가 만들어짐
+            return false;
+        }
+    }
+
+    private boolean updateCursor(ReadCursor current, PendingRead read, long unread) {
+        Query query = new Query(Criteria.where("_id").is(current.getId())
+                .and("lastReadAt").is(current.getLastReadAt())
+                .and("unreadCount").is(current.getUnreadCount()));
+        Update update = new Update()
+                .set("lastReadMessageId", read.messageId())
+                .set("lastReadAt", read.readAt())
+                .set("unreadCount", unread)
+                .set("updatedAt", Instant.now());
+        
+        return mongoTemplate.updateFirst(query, update, ReadCursor.class).getMatchedCount() > 0;
+    }
+
+    /**
+     * 새 메시지가 저장되면 발신자를 제외한 참여자의 읽지 않은 메시지 수를 증가시킵니다.
+     */
+    public void incrementUnread(ChatMessage message, Collection<String> participants) {
+        for (String participant : participants) {
+            if (participant.equals(message.getSenderId())) {
+                continue;
+            }
+            
+            Query query = new Query(Criteria.where("roomId").is(message.getRoomId())
+                    .and("userId").is(participant));
+            mongoTemplate.upsert(query, new Update().inc("unreadCount", 1), ReadCursor.class);
+        }
+    }
+
+    /**
+     * 아직 읽지 않은 메시지가 삭제되면 해당 참여자의 읽지 않은 메시지 수를 감소시킵니다.
+     */
+    public void decrementUnread(ChatMessage message, Collection<String> participants) {
+        for (String participant : participants) {
+            if (participant.equals(message.getSenderId())) {
+                continue;
+            }
+            
+            Query query = new Query(Criteria.where("roomId").is(message.getRoomId())
+                    .and("userId").is(participant)
+                    .and("unreadCount").gt(0)
+                    .orOperator(
+                            Criteria.where("lastReadAt").is(null),
+                            Criteria.where("lastReadAt").lt(message.getCreatedAt())));
+            mongoTemplate.updateFirst(query, new Update().inc("unreadCount", -1), ReadCursor.class);
+        }
+    }
+
+    /**
+     * 사용자의 채팅방별 읽지 않은 메시지 수를 조회합니다.
+     * 
+     * @return roomId를 키로 하는 읽지 않은 메시지 수 (읽음 기록이 없는 채팅방은 포함되지 않음)
+     */
+    public Map<String, Long> getUnreadCounts(String userId, Collection<String> roomIds) {
+        if (roomIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        
+        return readCursorRepository.findByUserIdAndRoomIdIn(userId, roomIds).stream()
+                .collect(Collectors.toMap(ReadCursor::getRoomId, ReadCursor::getUnreadCount));
+    }
+
+    private record CursorKey(String roomId, String userId) {
+    }
+
+    private record PendingRead(String messageId, Instant readAt) {
+    }
+}
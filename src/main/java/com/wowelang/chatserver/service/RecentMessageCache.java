@@ -0,0 +1,452 @@
+package com.wowelang.chatserver.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wowelang.chatserver.cluster.ClusterBus;
+import com.wowelang.chatserver.cluster.ClusterEvent;
+import com.wowelang.chatserver.cluster.RoomInterestTracker;
+import com.wowelang.chatserver.dto.ChatMessageDto;
+import com.wowelang.chatserver.util.MessageCursor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 채팅방별 최근 메시지 링 버퍼
+ *
+ * 방마다 최신 per-room-size개의 메시지를 (createdAt, id) 역순으로 보관하여, 첫 페이지와 최근 커서 조회를
+ * DB 없이 처리합니다. 버퍼는 첫 페이지 조회가 DB로 갔을 때 채워지고(lazy warm), 이후 전송/삭제로 갱신됩니다.
+ * 전체 메모리는 max-bytes(메시지 크기 추정치 합)로 제한하며, 초과하면 가장 오래 사용되지 않은 방부터 max-bytes의 90%까지 제거합니다(LRU).
+ *
+ * 잠금은 방 단위(RoomBuffer.lock)이므로 다른 방의 전송/조회는 서로 기다리지 않습니다. 전체 크기만 원자적으로 집계하고,
+ * 제거는 한 스레드만 방 잠금을 하나씩 잡으며 진행합니다.
+ *
+ * 다중 노드(ClusterBus.isClustered)에서는 다른 노드의 전송/삭제를 버스로 받는 방, 즉 이 노드에 구독자가 있는 방만
+ * 보관합니다. 마지막 구독이 해제되면 그 방의 버퍼를 버립니다.
+ *
+ * 메트릭: chat.history.cache.requests (tag result=hit|miss), chat.history.cache.evictions,
+ *        chat.history.cache.rooms, chat.history.cache.bytes
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecentMessageCache {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 256; // DTO/Instant/문자열 헤더 등 고정 비용 추정치
+    private static final double EVICTION_TARGET_RATIO = 0.9; // 초과할 때마다 전체 방을 정렬하지 않도록 여유를 두고 제거
+
+    private final ClusterBus clusterBus;
+    private final RoomInterestTracker roomInterestTracker;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.message.recent-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.message.recent-cache.per-room-size:50}")
+    private int perRoomSize;
+
+    @Value("${chat.message.recent-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    private final Map<String, RoomBuffer> rooms = new ConcurrentHashMap<>(1024);
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong nextWarmToken = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    /**
+     * 최신 메시지부터 저장된 버퍼. exhaustive이면 방의 삭제되지 않은 메시지 전체를 담고 있음
+     * 필드는 lock을 잡고 읽고 씁니다. (lastAccess 제외)
+     */
+    private static class RoomBuffer {
+        private final ReentrantLock lock = new ReentrantLock();
+        private List<ChatMessageDto> messages; // null이면 아직 채우지 않음 (warm 대기)
+        private boolean exhaustive;
+        private long bytes;
+        private long warmToken = -1;
+        private boolean detached; // rooms에서 제거됨, 새 버퍼를 다시 찾아야 함
+        private volatile long lastAccess = System.nanoTime();
+
+        private boolean isReady() {
+            return !detached && messages != null;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        hits = Counter.builder("chat.history.cache.requests").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("chat.history.cache.requests").tag("result", "miss").register(meterRegistry);
+        evictions = Counter.builder("chat.history.cache.evictions").register(meterRegistry);
+        Gauge.builder("chat.history.cache.rooms", this, cache -> cache.size()).register(meterRegistry);
+        Gauge.builder("chat.history.cache.bytes", this, cache -> cache.bytes()).register(meterRegistry);
+
+        clusterBus.subscribe(RoomBroadcaster.EVENT_TYPE, this::applyRemote);
+        roomInterestTracker.addReleaseListener(this::invalidate);
+    }
+
+    public int getCapacity() {
+        return perRoomSize;
+    }
+
+    /**
+     * 버퍼에서 한 페이지를 조회합니다.
+     *
+     * @param cursor 이 위치보다 오래된 메시지부터 (null이면 최신부터)
+     * @return 버퍼로 처리할 수 없으면 null
+     */
+    public List<ChatMessageDto> getPage(String roomId, MessageCursor cursor, int size) {
+        if (!enabled) {
+            return null;
+        }
+
+        List<ChatMessageDto> page = null;
+        RoomBuffer buffer = isCacheable(roomId) ? rooms.get(roomId) : null;
+        if (buffer != null) {
+            buffer.lock.lock();
+            try {
+                if (buffer.isReady()) {
+                    page = slice(buffer, cursor, size);
+                    buffer.lastAccess = System.nanoTime();
+                }
+            } finally {
+                buffer.lock.unlock();
+            }
+        }
+
+        (page != null ? hits : misses).increment();
+        return page;
+    }
+
+    /**
+     * 워터마크 이후의 메시지를 버퍼에서 조회합니다. (재연결 catch-up용)
+     * 버퍼에 워터마크 시점 이전 메시지가 남아 있거나 버퍼가 방 전체를 담고 있을 때만 빈틈 없이 응답할 수 있습니다.
+     *
+     * @param since 클라이언트가 마지막으로 받은 메시지 위치
+     * @return 오래된 순 메시지 목록, 버퍼로 처리할 수 없으면 null
+     */
+    public List<ChatMessageDto> getNewerThan(String roomId, MessageCursor since) {
+        if (!enabled) {
+            return null;
+        }
+
+        List<ChatMessageDto> newer = null;
+        RoomBuffer buffer = isCacheable(roomId) ? rooms.get(roomId) : null;
+        if (buffer != null) {
+            buffer.lock.lock();
+            try {
+                if (buffer.isReady()) {
+                    newer = newerThan(buffer, since);
+                    buffer.lastAccess = System.nanoTime();
+                }
+            } finally {
+                buffer.lock.unlock();
+            }
+        }
+
+        (newer != null ? hits : misses).increment();
+        return newer;
+    }
+
+    /**
+     * DB 조회 직전에 호출하여 warm 토큰을 받습니다. 조회 중 그 방에 변경이 생기면 토큰이 무효화되어
+     * 조회 결과로 버퍼를 채우지 않습니다.
+     *
+     * @return warm 토큰 (버퍼를 채울 수 없는 방이면 -1)
+     */
+    public long beginWarm(String roomId) {
+        if (!enabled || !isCacheable(roomId)) {
+            return -1;
+        }
+
+        while (true) {
+            RoomBuffer buffer = rooms.computeIfAbsent(roomId, id -> new RoomBuffer());
+            buffer.lock.lock();
+            try {
+                if (!buffer.detached) {
+                    buffer.warmToken = nextWarmToken.incrementAndGet();
+                    return buffer.warmToken;
+                }
+            } finally {
+                buffer.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * DB에서 읽은 최신 메시지로 버퍼를 채웁니다.
+     *
+     * @param newest 최신순 메시지 목록
+     * @param exhaustive 방의 메시지를 모두 읽었으면 true
+     */
+    public void warm(String roomId, long token, List<ChatMessageDto> newest, boolean exhaustive) {
+        if (token < 0) {
+            return;
+        }
+
+        RoomBuffer buffer = rooms.get(roomId);
+        if (buffer == null) {
+            return;
+        }
+
+        buffer.lock.lock();
+        try {
+            if (buffer.detached || buffer.warmToken != token) {
+                return; // 조회 중 변경이 있었음
+            }
+            buffer.warmToken = -1;
+
+            List<ChatMessageDto> messages = new ArrayList<>(Math.min(newest.size(), perRoomSize));
+            long bytes = 0;
+            for (ChatMessageDto message : newest) {
+                if (messages.size() >= perRoomSize) {
+                    break;
+                }
+                messages.add(message);
+                bytes += weigh(message);
+            }
+            buffer.messages = messages;
+            buffer.exhaustive = exhaustive && messages.size() == newest.size();
+            addBytes(buffer, bytes - buffer.bytes);
+            buffer.lastAccess = System.nanoTime();
+        } finally {
+            buffer.lock.unlock();
+        }
+        evictIfNeeded();
+    }
+
+    /**
+     * 전송/삭제된 메시지를 버퍼에 반영합니다. 삭제된 메시지는 버퍼에서 제거합니다.
+     * 버퍼가 없는 방은 다음 조회 때 채워지므로 무시합니다.
+     */
+    public void onMessage(ChatMessageDto message) {
+        if (!enabled) {
+            return;
+        }
+
+        RoomBuffer buffer = rooms.get(message.getRoomId());
+        if (buffer == null) {
+            return;
+        }
+
+        buffer.lock.lock();
+        try {
+            if (buffer.detached) {
+                return;
+            }
+            buffer.warmToken = -1; // 진행 중인 조회 결과로 채우지 않음
+            if (buffer.messages == null) {
+                detach(message.getRoomId(), buffer);
+                return;
+            }
+
+            removeById(buffer, message.getId());
+            if (buffer.messages.isEmpty() && !buffer.exhaustive) {
+                // 남은 메시지가 없으면 새 메시지의 위치를 알 수 없으므로 다음 조회 때 다시 채움
+                detach(message.getRoomId(), buffer);
+                return;
+            }
+            if (!message.isDeleted()) {
+                insert(buffer, message);
+            }
+        } finally {
+            buffer.lock.unlock();
+        }
+        evictIfNeeded();
+    }
+
+    /**
+     * 방의 버퍼를 버립니다. (저장 실패, 구독 해제 등으로 버퍼를 신뢰할 수 없을 때)
+     */
+    public void invalidate(String roomId) {
+        RoomBuffer buffer = rooms.get(roomId);
+        if (buffer == null) {
+            return;
+        }
+
+        buffer.lock.lock();
+        try {
+            if (!buffer.detached) {
+                detach(roomId, buffer);
+            }
+        } finally {
+            buffer.lock.unlock();
+        }
+    }
+
+    private void applyRemote(ClusterEvent event) {
+        try {
+            onMessage(objectMapper.readValue(event.getPayload(), ChatMessageDto.class));
+        } catch (JsonProcessingException e) {
+            log.warn("최근 메시지 버퍼 갱신 실패, 버퍼 제거: roomId={}", event.getChannel(), e);
+            invalidate(event.getChannel());
+        }
+    }
+
+    private boolean isCacheable(String roomId) {
+        return !clusterBus.isClustered() || roomInterestTracker.hasLocalSubscribers(roomId);
+    }
+
+    private List<ChatMessageDto> slice(RoomBuffer buffer, MessageCursor cursor, int size) {
+        int start = 0;
+        if (cursor != null) {
+            while (start < buffer.messages.size()
+                    && compareNewestFirst(buffer.messages.get(start), cursor.createdAt(), cursor.id()) <= 0) {
+                start++;
+            }
+        }
+
+        int available = buffer.messages.size() - start;
+        if (available < size && !buffer.exhaustive) {
+            return null; // 버퍼 밖의 오래된 메시지가 필요
+        }
+        return new ArrayList<>(buffer.messages.subList(start, start + Math.min(size, available)));
+    }
+
+    private List<ChatMessageDto> newerThan(RoomBuffer buffer, MessageCursor since) {
+        int end = 0;
+        while (end < buffer.messages.size()
+                && compareNewestFirst(buffer.messages.get(end), since.createdAt(), since.id()) < 0) {
+            end++;
+        }
+        if (end == buffer.messages.size() && !buffer.exhaustive) {
+            return null; // 워터마크가 버퍼보다 오래되어 사이의 메시지를 알 수 없음
+        }
+
+        List<ChatMessageDto> newer = new ArrayList<>(buffer.messages.subList(0, end));
+        Collections.reverse(newer);
+        return newer;
+    }
+
+    private void insert(RoomBuffer buffer, ChatMessageDto message) {
+        int position = 0;
+        while (position < buffer.messages.size()
+                && compareNewestFirst(buffer.messages.get(position), message.getCreatedAt(), message.getId()) < 0) {
+            position++;
+        }
+        if (position == buffer.messages.size() && !buffer.exhaustive) {
+            return; // 버퍼보다 오래된 메시지는 보관 범위 밖
+        }
+
+        buffer.messages.add(position, message);
+        addBytes(buffer, weigh(message));
+
+        if (buffer.messages.size() > perRoomSize) {
+            ChatMessageDto dropped = buffer.messages.remove(buffer.messages.size() - 1);
+            addBytes(buffer, -weigh(dropped));
+            buffer.exhaustive = false;
+        }
+    }
+
+    private void removeById(RoomBuffer buffer, String messageId) {
+        Iterator<ChatMessageDto> iterator = buffer.messages.iterator();
+        while (iterator.hasNext()) {
+            ChatMessageDto existing = iterator.next();
+            if (existing.getId().equals(messageId)) {
+                iterator.remove();
+                addBytes(buffer, -weigh(existing));
+                return;
+            }
+        }
+    }
+
+    /**
+     * 버퍼를 rooms에서 제거합니다. buffer.lock을 잡은 상태에서 호출합니다.
+     */
+    private void detach(String roomId, RoomBuffer buffer) {
+        buffer.detached = true;
+        rooms.remove(roomId, buffer);
+        totalBytes.addAndGet(-buffer.bytes);
+    }
+
+    private void addBytes(RoomBuffer buffer, long delta) {
+        buffer.bytes += delta;
+        totalBytes.addAndGet(delta);
+    }
+
+    /**
+     * 전체 크기가 max-bytes를 넘으면 가장 오래 사용되지 않은 방부터 제거합니다. 방 잠금을 잡지 않은 상태에서 호출합니다.
+     * 이미 다른 스레드가 제거 중이면 그 스레드에 맡깁니다.
+     */
+    private void evictIfNeeded() {
+        if (totalBytes.get() <= maxBytes || !evictionLock.tryLock()) {
+            return;
+        }
+
+        try {
+            // 정렬 중에 lastAccess가 바뀌지 않도록 시점을 복사해 둠
+            List<EvictionCandidate> candidates = new ArrayList<>(rooms.size());
+            rooms.forEach((roomId, buffer) -> candidates.add(new EvictionCandidate(roomId, buffer, buffer.lastAccess)));
+            candidates.sort(Comparator.comparingLong(EvictionCandidate::lastAccess));
+
+            long target = (long) (maxBytes * EVICTION_TARGET_RATIO);
+            for (EvictionCandidate candidate : candidates) {
+                if (totalBytes.get() <= target) {
+                    break;
+                }
+                RoomBuffer buffer = candidate.buffer();
+                buffer.lock.lock();
+                try {
+                    if (!buffer.detached) {
+                        detach(candidate.roomId(), buffer);
+                        evictions.increment();
+                    }
+                } finally {
+                    buffer.lock.unlock();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private int size() {
+        return rooms.size();
+    }
+
+    private long bytes() {
+        return totalBytes.get();
+    }
+
+    private record EvictionCandidate(String roomId, RoomBuffer buffer, long lastAccess) {
+    }
+
+    /**
+     * (createdAt, id) 역순 비교: message가 (createdAt, id)보다 최신이면 음수
+     * createdAt은 DB 저장 정밀도(ms)로 비교합니다.
+     */
+    private static int compareNewestFirst(ChatMessageDto message, Instant createdAt, String id) {
+        int result = Long.compare(createdAt.toEpochMilli(), message.getCreatedAt().toEpochMilli());
+        return result != 0 ? result : id.compareTo(message.getId());
+    }
+
+    private static long weigh(ChatMessageDto message) {
+        return ENTRY_OVERHEAD_BYTES + 2L * (length(message.getContent()) + length(message.getOriginalMessage())
+                + length(message.getS3Key()) + length(message.getCorrectedText()));
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
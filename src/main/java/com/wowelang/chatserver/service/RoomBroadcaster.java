@@ -0,0 +1,79 @@
+package com.wowelang.chatserver.service;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wowelang.chatserver.cluster.ClusterBus;
+import com.wowelang.chatserver.cluster.ClusterEvent;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 채팅방 토픽(/topic/chat.{roomId}) 브로드캐스트
+ * 
+ * 페이로드를 한 번만 JSON으로 직렬화하여 이 노드의 SimpleBroker 구독자에게 전달하고,
+ * 같은 JSON을 클러스터 버스로 한 번 발행합니다. 다른 노드는 버스에서 받은 JSON을 그대로 자신의 구독자에게 전달합니다.
+ * 각 노드는 RoomInterestTracker가 관리하는 관심 목록(로컬 구독자가 있는 방)의 이벤트만 받습니다.
+ */
+@Service
+@RequiredArgsConstructor
+public class RoomBroadcaster {
+
+    public static final String EVENT_TYPE = "room";
+    private static final String DESTINATION_PREFIX = "/topic/chat.";
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ClusterBus clusterBus;
+    private final ObjectMapper objectMapper;
+
+    @PostConstruct
+    public void init() {
+        clusterBus.subscribe(EVENT_TYPE, event -> deliverLocal(event.getChannel(), event.getPayload()));
+    }
+
+    /**
+     * 채팅방의 모든 구독자(전체 노드)에게 페이로드를 전달합니다.
+     */
+    public void broadcast(String roomId, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize broadcast payload", e);
+        }
+        
+        deliverLocal(roomId, json);
+        clusterBus.publish(ClusterEvent.builder()
+                .type(EVENT_TYPE)
+                .channel(roomId)
+                .payload(json)
+                .build());
+    }
+
+    private void deliverLocal(String roomId, String json) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        
+        messagingTemplate.send(DESTINATION_PREFIX + roomId,
+                MessageBuilder.createMessage(json.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders()));
+    }
+
+    /**
+     * 구독 destination이 채팅방 토픽이면 채팅방 ID를, 아니면 null을 반환합니다.
+     */
+    public static String roomIdOf(String destination) {
+        if (destination == null || !destination.startsWith(DESTINATION_PREFIX)) {
+            return null;
+        }
+        return destination.substring(DESTINATION_PREFIX.length());
+    }
+}
@@ -0,0 +1,60 @@
+package com.wowelang.chatserver.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wowelang.chatserver.exception.ResourceNotFoundException;
+import com.wowelang.chatserver.model.ChatRoom;
+import com.wowelang.chatserver.repository.ChatRoomRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * 채팅방 참여자 캐시
+ * 메시지 전송/조회 때마다 채팅방 문서를 읽지 않도록 roomId별 참여자 목록을 메모리에 보관합니다.
+ * 참여자는 채팅방 생성 후 바뀌지 않으므로 삭제 시에만 무효화하면 되고, 다른 노드에서의 삭제는 TTL로 반영됩니다.
+ * 
+ * 메트릭: cache.gets{cache=room.membership,result=hit|miss}, cache.evictions 등
+ */
+@Component
+public class RoomMembershipCache {
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final Cache<String, List<String>> cache;
+
+    public RoomMembershipCache(ChatRoomRepository chatRoomRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${chat.room.membership-cache.max-size:100000}") long maxSize,
+                               @Value("${chat.room.membership-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.chatRoomRepository = chatRoomRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "room.membership");
+    }
+
+    /**
+     * 삭제되지 않은 채팅방의 참여자 목록을 반환합니다.
+     * 
+     * @throws ResourceNotFoundException 채팅방이 없거나 삭제된 경우 (캐시되지 않음)
+     */
+    public List<String> getParticipants(String roomId) {
+        return cache.get(roomId, id -> chatRoomRepository.findById(id)
+                .filter(room -> !room.isDeleted())
+                .map(ChatRoom::getParticipants)
+                .map(List::copyOf)
+                .orElseThrow(() -> new ResourceNotFoundException("Chat room not found")));
+    }
+
+    public void invalidate(String roomId) {
+        cache.invalidate(roomId);
+    }
+}
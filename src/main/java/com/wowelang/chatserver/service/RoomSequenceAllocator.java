@@ -0,0 +1,152 @@
+package com.wowelang.chatserver.service;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.wowelang.chatserver.cluster.ClusterBus;
+import com.wowelang.chatserver.exception.ResourceNotFoundException;
+import com.wowelang.chatserver.model.ChatRoom;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 채팅방별 메시지 순번(seq) 할당기
+ *
+ * 순번은 ChatRoom.lastSeq에 대한 원자적 $inc로 할당합니다. 단일 노드에서는 한 번에 lease-size개를 예약(lease)해
+ * 메모리에서 나눠 주므로 메시지마다 DB 왕복이 생기지 않습니다. 사용하지 않은 예약분은 방이 캐시에서 빠지거나
+ * 종료될 때 lastSeq가 그대로이면 되돌립니다. 순번은 저장 전에 할당되므로 저장 실패(write-behind 큐 포화, 최종 저장 실패,
+ * insert 오류)나 비정상 종료 시에는 빈 순번이 생길 수 있습니다. 순번은 증가만 보장하며 연속성은 보장하지 않습니다.
+ *
+ * 다중 노드(ClusterBus.isClustered)에서는 노드마다 다른 구간을 예약하면 전송 순서와 순번이 어긋나므로
+ * 예약 없이 메시지마다 $inc로 할당합니다.
+ *
+ * 예약 갱신은 DB 왕복을 포함하므로 가상 스레드가 캐리어 스레드에 고정되지 않도록 synchronized 대신 예약마다 ReentrantLock을 사용합니다.
+ *
+ * 메트릭: chat.message.seq.leases (DB 왕복 횟수)
+ */
+@Slf4j
+@Component
+public class RoomSequenceAllocator {
+
+    private final MongoTemplate mongoTemplate;
+    private final int leaseSize;
+    private final Cache<String, Lease> leases;
+    private final Counter leaseRequests;
+
+    /**
+     * 예약된 순번 구간 [next, end]. lock으로 동기화
+     */
+    private static class Lease {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long next = 1;
+        private long end;
+        private boolean released;
+    }
+
+    public RoomSequenceAllocator(MongoTemplate mongoTemplate,
+                                 ClusterBus clusterBus,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${chat.message.seq.lease-size:100}") int leaseSize,
+                                 @Value("${chat.message.seq.max-rooms:100000}") long maxRooms,
+                                 @Value("${chat.message.seq.idle-seconds:300}") long idleSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.leaseSize = clusterBus.isClustered() ? 1 : Math.max(1, leaseSize);
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterAccess(Duration.ofSeconds(idleSeconds))
+                .executor(Runnable::run)
+                .removalListener((String roomId, Lease lease, RemovalCause cause) -> {
+                    if (roomId != null && lease != null) {
+                        release(roomId, lease);
+                    }
+                })
+                .build();
+        this.leaseRequests = Counter.builder("chat.message.seq.leases").register(meterRegistry);
+
+        if (this.leaseSize != leaseSize) {
+            log.info("클러스터 모드에서는 메시지 순번을 예약 없이 할당합니다. (lease-size={} 무시)", leaseSize);
+        }
+    }
+
+    /**
+     * 채팅방의 다음 메시지 순번을 반환합니다.
+     *
+     * @throws ResourceNotFoundException 채팅방이 없는 경우
+     */
+    public long next(String roomId) {
+        while (true) {
+            Lease lease = leases.get(roomId, id -> new Lease());
+            lease.lock.lock();
+            try {
+                if (lease.released) {
+                    continue; // 방금 캐시에서 빠져 예약분이 반환됨, 새 예약으로 다시 시도
+                }
+                if (lease.next > lease.end) {
+                    lease.end = acquire(roomId);
+                    lease.next = lease.end - leaseSize + 1;
+                }
+                return lease.next++;
+            } finally {
+                lease.lock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        leases.invalidateAll();
+        leases.cleanUp();
+    }
+
+    /**
+     * lastSeq를 lease-size만큼 올리고 예약 구간의 마지막 순번을 반환합니다.
+     */
+    private long acquire(String roomId) {
+        Query query = new Query(Criteria.where("_id").is(roomId));
+        query.fields().include("lastSeq");
+
+        ChatRoom room = mongoTemplate.findAndModify(query, new Update().inc("lastSeq", leaseSize),
+                FindAndModifyOptions.options().returnNew(true), ChatRoom.class);
+        leaseRequests.increment();
+        if (room == null || room.getLastSeq() == null) {
+            throw new ResourceNotFoundException("Chat room not found");
+        }
+        return room.getLastSeq();
+    }
+
+    /**
+     * 사용하지 않은 예약분을 되돌립니다. 그 사이 다른 예약이 있었다면 (lastSeq가 바뀌었으면) 빈틈으로 남깁니다.
+     */
+    private void release(String roomId, Lease lease) {
+        lease.lock.lock();
+        try {
+            lease.released = true;
+            if (lease.next > lease.end) {
+                return;
+            }
+
+            try {
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(roomId).and("lastSeq").is(lease.end)),
+                        new Update().set("lastSeq", lease.next - 1), ChatRoom.class);
+            } catch (Exception e) {
+                log.warn("메시지 순번 예약분 반환 실패: roomId={}, unused={}", roomId, lease.end - lease.next + 1, e);
+            }
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+}
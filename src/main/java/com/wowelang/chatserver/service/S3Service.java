@@ -1,14 +1,27 @@
 package com.wowelang.chatserver.service;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.wowelang.chatserver.dto.PresignedUrlResponse;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
@@ -17,11 +30,21 @@ import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequ
 import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+/**
+ * S3 Presigned URL 발급 서비스
+ * 
+ * GET URL은 서명(HMAC) 비용을 줄이기 위해 s3Key별로 캐시합니다. 캐시된 URL은 만료까지 safety-margin 이상 남아 있을 때만
+ * 재사용하므로, 응답받은 클라이언트는 최소 safety-margin 동안 URL을 쓸 수 있습니다.
+ * 
+ * 메트릭: cache.gets{cache=s3.presigned-get,result=hit|miss} (miss = 서명 횟수), cache.evictions 등
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class S3Service {
 
     private final S3Presigner s3Presigner;
+    private final MeterRegistry meterRegistry;
+    private final Executor presignExecutor;
 
     @Value("${aws.s3.bucket-name}")
     private String bucketName;
@@ -29,6 +52,47 @@ public class S3Service {
     @Value("${aws.s3.presigned-url-expiration}")
     private int presignedUrlExpirationMinutes;
 
+    @Value("${aws.s3.presigned-get-cache.max-size:100000}")
+    private long getUrlCacheMaxSize;
+
+    @Value("${aws.s3.presigned-get-cache.safety-margin-seconds:120}")
+    private long safetyMarginSeconds;
+
+    @Value("${aws.s3.presign-batch.max-size:100}")
+    private int maxBatchSize;
+
+    private Cache<String, SignedUrl> getUrlCache;
+
+    private record SignedUrl(String url, Instant expiresAt) {
+    }
+
+    public S3Service(S3Presigner s3Presigner,
+                     MeterRegistry meterRegistry,
+                     @Qualifier("presignExecutor") Executor presignExecutor) {
+        this.s3Presigner = s3Presigner;
+        this.meterRegistry = meterRegistry;
+        this.presignExecutor = presignExecutor;
+    }
+
+    @PostConstruct
+    public void init() {
+        Duration safetyMargin = Duration.ofSeconds(safetyMarginSeconds);
+        if (safetyMargin.compareTo(Duration.ofMinutes(presignedUrlExpirationMinutes)) >= 0) {
+            log.warn("presigned-get-cache.safety-margin-seconds({})가 URL 유효 시간 이상이므로 GET URL을 캐시하지 않습니다.",
+                    safetyMarginSeconds);
+            getUrlCacheMaxSize = 0;
+        }
+        
+        // 각 URL은 실제 만료 시각에서 safety-margin을 뺀 시점에 캐시에서 제거
+        getUrlCache = Caffeine.newBuilder()
+                .maximumSize(getUrlCacheMaxSize)
+                .expireAfter(Expiry.creating((String s3Key, SignedUrl signed) ->
+                        Duration.between(Instant.now(), signed.expiresAt().minus(safetyMargin))))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, getUrlCache, "s3.presigned-get");
+    }
+
     /**
      * 파일 업로드용 PUT Presigned URL을 생성합니다.
      * 
@@ -56,16 +120,79 @@ public class S3Service {
                 .url(presignedRequest.url().toString())
                 .s3Key(s3Key)
                 .expiresInMinutes(presignedUrlExpirationMinutes)
+                .expiresAt(presignedRequest.expiration())
                 .build();
     }
     
     /**
-     * 파일 다운로드/조회용 GET Presigned URL을 생성합니다.
+     * 파일 다운로드/조회용 GET Presigned URL을 반환합니다.
+     * 만료까지 safety-margin 이상 남은 URL이 캐시에 있으면 새로 서명하지 않고 재사용합니다.
      * 
      * @param s3Key 조회할 파일의 S3 객체 키
-     * @return Presigned URL 정보를 담은 응답 객체
+     * @return Presigned URL 정보를 담은 응답 객체 (expiresAt은 실제 URL 만료 시각)
      */
     public PresignedUrlResponse generatePresignedGetUrl(String s3Key) {
+        SignedUrl signed = getUrlCache.get(s3Key, this::presignGet);
+        
+        return PresignedUrlResponse.builder()
+                .url(signed.url())
+                .s3Key(s3Key)
+                .expiresInMinutes((int) Duration.between(Instant.now(), signed.expiresAt()).toMinutes())
+                .expiresAt(signed.expiresAt())
+                .build();
+    }
+
+    /**
+     * 여러 파일의 업로드용 PUT Presigned URL을 한 번에 생성합니다. 요청 순서대로 반환합니다.
+     * 
+     * @throws IllegalArgumentException 개수가 presign-batch.max-size를 넘는 경우
+     */
+    public List<PresignedUrlResponse> generatePresignedUrls(List<String> mimeTypes) {
+        return signAll(mimeTypes, this::generatePresignedUrl);
+    }
+
+    /**
+     * 여러 파일의 GET Presigned URL을 한 번에 반환합니다. 요청 순서대로 반환하며 캐시된 URL은 재사용합니다.
+     * 
+     * @throws IllegalArgumentException 개수가 presign-batch.max-size를 넘는 경우
+     */
+    public List<PresignedUrlResponse> generatePresignedGetUrls(List<String> s3Keys) {
+        return signAll(s3Keys, this::generatePresignedGetUrl);
+    }
+
+    /**
+     * 응답을 재사용해도 되는 시간 (초). URL 만료까지 safety-margin을 남기며, Cache-Control max-age로 사용합니다.
+     */
+    public long getReusableSeconds(PresignedUrlResponse response) {
+        long seconds = Duration.between(Instant.now(), response.getExpiresAt()).getSeconds() - safetyMarginSeconds;
+        return Math.max(0, seconds);
+    }
+
+    /**
+     * 항목별 서명을 presignExecutor에서 병렬로 실행하고 모두 끝나면 입력 순서대로 반환합니다.
+     */
+    private List<PresignedUrlResponse> signAll(List<String> inputs, Function<String, PresignedUrlResponse> signer) {
+        if (inputs.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Too many items in batch (max " + maxBatchSize + ")");
+        }
+        if (inputs.size() == 1) {
+            return List.of(signer.apply(inputs.get(0)));
+        }
+        
+        List<CompletableFuture<PresignedUrlResponse>> futures = inputs.stream()
+                .map(input -> CompletableFuture.supplyAsync(() -> signer.apply(input), presignExecutor))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private SignedUrl presignGet(String s3Key) {
         GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                 .bucket(bucketName)
                 .key(s3Key)
@@ -78,11 +205,7 @@ public class S3Service {
 
         PresignedGetObjectRequest presignedRequest = s3Presigner.presignGetObject(presignRequest);
         
-        return PresignedUrlResponse.builder()
-                .url(presignedRequest.url().toString())
-                .s3Key(s3Key)
-                .expiresInMinutes(presignedUrlExpirationMinutes)
-                .build();
+        return new SignedUrl(presignedRequest.url().toString(), presignedRequest.expiration());
     }
 
     private String getFileExtensionFromMimeType(String mimeType) {
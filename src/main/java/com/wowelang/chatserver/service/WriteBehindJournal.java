@@ -0,0 +1,257 @@
+package com.wowelang.chatserver.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wowelang.chatserver.model.ChatMessage;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 비동기 저장 대기 중인 메시지를 로컬 파일에 기록하는 저널
+ * 
+ * 메시지는 JSON 한 줄씩 세그먼트 파일에 추가되고, 세그먼트의 모든 메시지가 DB에 반영되면 파일을 삭제합니다.
+ * 활성 세그먼트는 반영 대기 중인 메시지가 없어질 때마다 비웁니다. 그렇지 않으면 한가한 노드에서는 활성 세그먼트에
+ * 며칠 치 메시지가 쌓이고, 재기동 시 이미 보관/영구 삭제된 메시지까지 다시 저장되어 메시지 수가 중복 집계됩니다.
+ * 프로세스가 비정상 종료되면 다음 기동 시 남아 있는 세그먼트를 읽어 다시 저장합니다.
+ * 메시지 ID가 미리 할당되어 있으므로 재저장은 중복 키 오류로 멱등 처리됩니다.
+ * 
+ * 파일 쓰기 중 가상 스레드가 캐리어 스레드에 고정(pinning)되지 않도록 synchronized 대신 ReentrantLock을 사용합니다.
+ */
+@Slf4j
+class WriteBehindJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long segmentMaxBytes;
+    private final boolean sync;
+    private final ObjectMapper objectMapper;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Segment> segments = new ConcurrentHashMap<>();
+    private Segment active;
+
+    WriteBehindJournal(Path directory, long segmentMaxBytes, boolean sync, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.sync = sync;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 이전 실행에서 남은 세그먼트를 읽어 메시지를 복구하고 새 활성 세그먼트를 엽니다.
+     * 복구된 세그먼트는 반환된 메시지가 모두 release될 때 삭제됩니다.
+     */
+    List<Entry> open() throws IOException {
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+
+            List<Entry> recovered = new ArrayList<>();
+            long nextId = 0;
+
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                        .sorted()
+                        .toList();
+            }
+
+            for (Path file : files) {
+                long segmentId = parseSegmentId(file);
+                nextId = Math.max(nextId, segmentId + 1);
+
+                List<ChatMessage> messages = readSegment(file);
+                if (messages.isEmpty()) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+
+                Segment segment = new Segment(segmentId, file, null);
+                segment.pending = messages.size();
+                segments.put(segmentId, segment);
+                messages.forEach(message -> recovered.add(new Entry(message, segmentId)));
+                log.info("저널 세그먼트 복구: {} ({}건)", file.getFileName(), messages.size());
+            }
+
+            active = openSegment(nextId);
+            return recovered;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 메시지를 활성 세그먼트에 추가합니다.
+     * 
+     * @return 메시지가 기록된 세그먼트 ID (release 시 사용)
+     */
+    long append(ChatMessage message) throws IOException {
+        // 직렬화는 락 밖에서 수행하여 임계 구역을 파일 쓰기로 한정
+        byte[] json = objectMapper.writeValueAsBytes(message);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+
+        lock.lock();
+        try {
+            if (active.size > 0 && active.size + buffer.remaining() > segmentMaxBytes) {
+                rotate();
+            }
+
+            while (buffer.hasRemaining()) {
+                active.size += active.channel.write(buffer);
+            }
+            if (sync) {
+                active.channel.force(false);
+            }
+
+            active.pending++;
+            return active.id;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 메시지가 DB에 반영되었음을 기록합니다. 비활성 세그먼트의 메시지가 모두 반영되면 파일을 삭제하고,
+     * 활성 세그먼트의 메시지가 모두 반영되면 파일을 비웁니다.
+     */
+    void release(long segmentId) {
+        lock.lock();
+        try {
+            Segment segment = segments.get(segmentId);
+            if (segment == null) {
+                return;
+            }
+
+            segment.pending--;
+            if (segment.pending > 0) {
+                return;
+            }
+            if (segment != active) {
+                delete(segment);
+            } else if (active.size > 0) {
+                truncateActive();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (active != null) {
+                active.channel.close();
+                if (active.pending <= 0) {
+                    delete(active);
+                }
+                active = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rotate() throws IOException {
+        Segment previous = active;
+        previous.channel.close();
+        active = openSegment(previous.id + 1);
+
+        if (previous.pending <= 0) {
+            delete(previous);
+        }
+    }
+
+    private void truncateActive() {
+        try {
+            active.channel.truncate(0);
+            if (sync) {
+                active.channel.force(true);
+            }
+            active.size = 0;
+        } catch (IOException e) {
+            // 비우지 못해도 재기동 시 이미 저장된 메시지를 다시 저장할 뿐이므로 다음 기회에 다시 시도
+            log.warn("저널 활성 세그먼트 비우기 실패: {}", active.file, e);
+        }
+    }
+
+    private Segment openSegment(long segmentId) throws IOException {
+        Path file = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        Segment segment = new Segment(segmentId, file, channel);
+        segment.size = channel.size();
+        segments.put(segmentId, segment);
+        return segment;
+    }
+
+    private void delete(Segment segment) {
+        segments.remove(segment.id);
+        try {
+            if (segment.channel != null && segment.channel.isOpen()) {
+                segment.channel.close();
+            }
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            log.warn("저널 세그먼트 삭제 실패: {}", segment.file, e);
+        }
+    }
+
+    private List<ChatMessage> readSegment(Path file) throws IOException {
+        List<ChatMessage> messages = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    messages.add(objectMapper.readValue(line, ChatMessage.class));
+                } catch (IOException e) {
+                    // 기록 도중 종료되어 잘린 마지막 줄
+                    log.warn("손상된 저널 레코드 건너뜀: {}", file.getFileName());
+                }
+            }
+        }
+        return messages;
+    }
+
+    private long parseSegmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    record Entry(ChatMessage message, long segmentId) {
+    }
+
+    private static class Segment {
+        private final long id;
+        private final Path file;
+        private final FileChannel channel;
+        private long size;
+        private long pending;
+
+        private Segment(long id, Path file, FileChannel channel) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.wowelang.chatserver.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.wowelang.chatserver.model.ChatMessage;
+
+/**
+ * 메시지 기록 페이지 커서 (createdAt, _id)
+ * 
+ * 클라이언트에는 "epochMillis:messageId"를 URL-safe Base64로 인코딩한 불투명 문자열로 전달합니다.
+ * createdAt이 같은 메시지는 _id로 순서를 정하므로 페이지 경계에서 메시지가 누락되거나 중복되지 않습니다.
+ * 
+ * 매치 요청 페이지도 같은 형식으로 (updatedAt, _id)를 커서로 사용합니다.
+ * 
+ * 재연결 워터마크는 클라이언트가 마지막으로 받은 메시지로 직접 만드는 "messageId@createdAt(ISO-8601)" 형식입니다.
+ */
+public record MessageCursor(Instant createdAt, String id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public static MessageCursor of(ChatMessage message) {
+        return new MessageCursor(message.getCreatedAt(), message.getId());
+    }
+
+    public String encode() {
+        return ENCODER.encodeToString((createdAt.toEpochMilli() + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * "messageId@createdAt" 형식의 워터마크를 해석합니다.
+     * 
+     * @throws IllegalArgumentException 형식이 잘못된 경우
+     */
+    public static MessageCursor parseWatermark(String watermark) {
+        int separator = watermark.lastIndexOf('@');
+        if (separator <= 0 || separator == watermark.length() - 1) {
+            throw new IllegalArgumentException("Invalid watermark");
+        }
+        
+        try {
+            return new MessageCursor(Instant.parse(watermark.substring(separator + 1)), watermark.substring(0, separator));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid watermark", e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException 커서 형식이 잘못된 경우
+     */
+    public static MessageCursor decode(String cursor) {
+        try {
+            String decoded = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            if (separator <= 0 || separator == decoded.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            
+            Instant createdAt = Instant.ofEpochMilli(Long.parseLong(decoded.substring(0, separator)));
+            return new MessageCursor(createdAt, decoded.substring(separator + 1));
+        } catch (IllegalArgumentException e) { // NumberFormatException, Base64 오류 포함
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
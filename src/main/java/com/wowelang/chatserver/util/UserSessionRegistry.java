@@ -1,32 +1,117 @@
 package com.wowelang.chatserver.util;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
-import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wowelang.chatserver.cluster.ClusterBus;
+import com.wowelang.chatserver.cluster.ClusterEvent;
+import com.wowelang.chatserver.cluster.RemoteSessionView;
+import com.wowelang.chatserver.cluster.SessionSyncMessage;
+import com.wowelang.chatserver.cluster.SessionSyncMessage.Kind;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * 사용자 ID별 WebSocket 세션을 관리하는 레지스트리
  * 같은 사용자가 여러 세션에 연결되는 경우 이를 추적하고 관리합니다.
+ *
+ * 조회는 클러스터 전체 기준입니다. 이 노드의 세션은 로컬 맵에, 다른 노드의 세션은 RemoteSessionView 복제본에 있으며
+ * 둘 다 메모리에서 읽습니다. 복제본은 클러스터 버스로 다음과 같이 유지됩니다.
+ * - 로컬 세션 변경은 delta-interval-ms 동안 모아(등록 후 바로 해제된 세션은 상쇄) DELTA 한 건으로 발행
+ * - heartbeat-interval-ms마다 HEARTBEAT 발행, lease-ms 동안 소식이 없는 노드의 세션은 제거
+ * - 기동 시와 DELTA 누락 감지 시 SYNC_REQUEST로 전체 스냅샷(snapshot-chunk-size 단위)을 요청
+ * - 종료 시 LEAVE 발행, 다른 노드의 세션 정리는 소유 노드에 KICK 전송
+ *
+ * 메트릭: cluster.session.sync.bytes (tag kind), cluster.session.remote (복제된 원격 세션 수)
  */
 @Slf4j
 @Component
 public class UserSessionRegistry {
-    
+
+    public static final String EVENT_TYPE = "session";
+    private static final String ALL_NODES = "*";
+
     // 사용자 ID를 키로 하여 해당 사용자의 세션 ID 집합을 저장
     private final Map<String, Set<String>> userSessionMap = new ConcurrentHashMap<>();
-    
+
     // 세션 ID를 키로 하여 해당 세션의 사용자 ID를 저장
     private final Map<String, String> sessionUserMap = new ConcurrentHashMap<>();
-    
+
+    private final RemoteSessionView remoteSessions = new RemoteSessionView();
+
+    private final ClusterBus clusterBus;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final long epoch = System.currentTimeMillis();
+
+    // 발행 대기 중인 변경 (pendingLock으로 보호)
+    private final Object pendingLock = new Object();
+    private Map<String, String> pendingAdded = new LinkedHashMap<>();
+    private Set<String> pendingRemoved = new LinkedHashSet<>();
+
+    // seq 할당과 발행 순서를 맞추기 위한 락 (DELTA와 SNAPSHOT 청크가 섞이지 않도록)
+    private final Object publishLock = new Object();
+    private long seq;
+
+    private final Map<String, Long> syncRequestedAt = new ConcurrentHashMap<>();
+    private final Map<Kind, DistributionSummary> syncBytes = new EnumMap<>(Kind.class);
+
+    @Value("${chat.cluster.session.lease-ms:15000}")
+    private long leaseMs;
+
+    @Value("${chat.cluster.session.snapshot-chunk-size:5000}")
+    private int snapshotChunkSize;
+
+    public UserSessionRegistry(ClusterBus clusterBus, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.clusterBus = clusterBus;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("cluster.session.remote", remoteSessions, RemoteSessionView::getSessionCount)
+                .register(meterRegistry);
+        for (Kind kind : Kind.values()) {
+            syncBytes.put(kind, DistributionSummary.builder("cluster.session.sync.bytes")
+                    .tag("kind", kind.name())
+                    .baseUnit("bytes")
+                    .register(meterRegistry));
+        }
+
+        clusterBus.subscribe(EVENT_TYPE, this::handleClusterEvent);
+        // 합류 시 다른 노드들의 현재 세션을 요청
+        publish(ALL_NODES, SessionSyncMessage.builder().kind(Kind.SYNC_REQUEST).epoch(epoch).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publish(ALL_NODES, SessionSyncMessage.builder().kind(Kind.LEAVE).epoch(epoch).build());
+    }
+
     /**
      * 새로운 사용자 세션을 등록합니다.
-     * 
+     *
      * @param userId 사용자 ID
      * @param sessionId 세션 ID
      */
@@ -34,107 +119,309 @@ public class UserSessionRegistry {
         // 사용자 ID로 세션 ID 집합 조회 (없으면 새로 생성)
         userSessionMap.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(sessionId);
         sessionUserMap.put(sessionId, userId);
-        log.debug("세션 등록: 사용자 ID={}, 세션 ID={}, 활성 세션 수={}", 
+        synchronized (pendingLock) {
+            pendingRemoved.remove(sessionId);
+            pendingAdded.put(sessionId, userId);
+        }
+        log.debug("세션 등록: 사용자 ID={}, 세션 ID={}, 활성 세션 수={}",
                  userId, sessionId, userSessionMap.get(userId).size());
     }
-    
+
     /**
      * 세션이 종료되면 레지스트리에서 제거합니다.
-     * 
+     *
      * @param sessionId 세션 ID
      * @return 세션이 제거된 사용자 ID (세션이 존재하지 않는 경우 null)
      */
     public String removeSession(String sessionId) {
         String userId = sessionUserMap.remove(sessionId);
-        
+
         if (userId != null) {
             Set<String> userSessions = userSessionMap.get(userId);
             if (userSessions != null) {
                 userSessions.remove(sessionId);
-                
+
                 // 사용자의 세션이 모두 종료된 경우 맵에서 사용자 제거
                 if (userSessions.isEmpty()) {
                     userSessionMap.remove(userId);
                 }
-                
-                log.debug("세션 제거: 사용자 ID={}, 세션 ID={}, 남은 세션 수={}", 
+
+                log.debug("세션 제거: 사용자 ID={}, 세션 ID={}, 남은 세션 수={}",
                          userId, sessionId, userSessions.size());
             }
+            recordRemoved(sessionId);
         }
-        
+
         return userId;
     }
-    
+
     /**
-     * 특정 사용자의 모든 활성 세션 ID를 반환합니다.
-     * 
+     * 특정 사용자의 모든 활성 세션 ID를 반환합니다. (클러스터 전체)
+     *
      * @param userId 사용자 ID
      * @return 사용자의 활성 세션 ID 집합 (없으면 빈 집합)
      */
     public Set<String> getUserSessions(String userId) {
-        return userSessionMap.getOrDefault(userId, Collections.emptySet());
+        Set<String> local = userSessionMap.getOrDefault(userId, Collections.emptySet());
+        Set<String> remote = remoteSessions.getUserSessions(userId);
+        if (remote.isEmpty()) {
+            return local;
+        }
+
+        Set<String> sessions = new HashSet<>(local);
+        sessions.addAll(remote);
+        return sessions;
     }
-    
+
     /**
-     * 특정 세션의 사용자 ID를 반환합니다.
-     * 
+     * 특정 세션의 사용자 ID를 반환합니다. (클러스터 전체)
+     *
      * @param sessionId 세션 ID
      * @return 세션의 사용자 ID (없으면 null)
      */
     public String getUserIdBySessionId(String sessionId) {
-        return sessionUserMap.get(sessionId);
+        String userId = sessionUserMap.get(sessionId);
+        if (userId != null) {
+            return userId;
+        }
+
+        RemoteSessionView.SessionOwner owner = remoteSessions.getOwner(sessionId);
+        return owner != null ? owner.userId() : null;
     }
-    
+
     /**
-     * 특정 사용자의 활성 세션 수를 반환합니다.
-     * 
+     * 특정 사용자의 활성 세션 수를 반환합니다. (클러스터 전체)
+     *
      * @param userId 사용자 ID
      * @return 활성 세션 수
      */
     public int getUserSessionCount(String userId) {
         Set<String> sessions = userSessionMap.get(userId);
-        return sessions != null ? sessions.size() : 0;
+        return (sessions != null ? sessions.size() : 0) + remoteSessions.getUserSessionCount(userId);
     }
-    
+
     /**
      * 사용자의 이전 세션을 제거하고 새 세션만 남깁니다.
-     * 
+     * 다른 노드의 세션은 복제본에서 바로 제거하고, 소유 노드에 KICK을 보내 그 노드의 레지스트리에서도 제거합니다.
+     *
      * @param userId 사용자 ID
      * @param newSessionId 유지할 새 세션 ID
      * @return 제거된 세션 ID 집합
      */
     public Set<String> disconnectPreviousSessions(String userId, String newSessionId) {
+        if (getUserSessionCount(userId) <= 1) {
+            return Collections.emptySet();
+        }
+
+        Set<String> sessionsToRemove = ConcurrentHashMap.newKeySet();
+
         Set<String> sessions = userSessionMap.get(userId);
-        if (sessions != null && sessions.size() > 1) {
-            Set<String> sessionsToRemove = ConcurrentHashMap.newKeySet();
-            
+        if (sessions != null) {
             for (String sessionId : sessions) {
                 if (!sessionId.equals(newSessionId)) {
                     sessionsToRemove.add(sessionId);
                 }
             }
-            
+
             // 세션 맵에서 이전 세션들 제거
             for (String sessionId : sessionsToRemove) {
                 sessions.remove(sessionId);
                 sessionUserMap.remove(sessionId);
+                recordRemoved(sessionId);
             }
-            
-            log.debug("이전 세션 제거: 사용자 ID={}, 새 세션 ID={}, 제거된 세션 수={}", 
-                     userId, newSessionId, sessionsToRemove.size());
-            
-            return sessionsToRemove;
         }
-        
-        return Collections.emptySet();
+
+        // 다른 노드의 세션은 소유 노드별로 모아 KICK 전송
+        Map<String, List<String>> remoteByNode = new HashMap<>();
+        for (String sessionId : remoteSessions.getUserSessions(userId)) {
+            if (!sessionId.equals(newSessionId)) {
+                RemoteSessionView.SessionOwner owner = remoteSessions.getOwner(sessionId);
+                if (owner != null) {
+                    remoteByNode.computeIfAbsent(owner.nodeId(), k -> new ArrayList<>()).add(sessionId);
+                }
+            }
+        }
+        remoteByNode.forEach((nodeId, sessionIds) -> {
+            remoteSessions.removeSessions(sessionIds);
+            sessionsToRemove.addAll(sessionIds);
+            publish(nodeId, SessionSyncMessage.builder().kind(Kind.KICK).epoch(epoch).removed(sessionIds).build());
+        });
+
+        log.debug("이전 세션 제거: 사용자 ID={}, 새 세션 ID={}, 제거된 세션 수={} (원격 노드 {}개)",
+                 userId, newSessionId, sessionsToRemove.size(), remoteByNode.size());
+
+        return sessionsToRemove;
     }
-    
+
     /**
-     * 현재 등록된 모든 사용자 ID를 반환합니다.
-     * 
+     * 현재 등록된 모든 사용자 ID를 반환합니다. (클러스터 전체)
+     *
      * @return 활성 사용자 ID 집합
      */
     public Set<String> getAllActiveUsers() {
-        return userSessionMap.keySet();
+        Set<String> remote = remoteSessions.getUsers();
+        if (remote.isEmpty()) {
+            return userSessionMap.keySet();
+        }
+
+        Set<String> users = new HashSet<>(userSessionMap.keySet());
+        users.addAll(remote);
+        return users;
+    }
+
+    /**
+     * 모아 둔 로컬 세션 변경을 DELTA로 발행합니다. 변경이 많으면 snapshot-chunk-size 단위로 나눕니다.
+     */
+    @Scheduled(fixedDelayString = "${chat.cluster.session.delta-interval-ms:100}")
+    public void flushDeltas() {
+        Map<String, String> added;
+        Set<String> removed;
+        synchronized (pendingLock) {
+            if (pendingAdded.isEmpty() && pendingRemoved.isEmpty()) {
+                return;
+            }
+            added = pendingAdded;
+            removed = pendingRemoved;
+            pendingAdded = new LinkedHashMap<>();
+            pendingRemoved = new LinkedHashSet<>();
+        }
+
+        synchronized (publishLock) {
+            for (Map<String, String> addedChunk : chunk(added)) {
+                publish(ALL_NODES, SessionSyncMessage.builder()
+                        .kind(Kind.DELTA).epoch(epoch).seq(++seq).added(addedChunk).build());
+            }
+            List<String> removedList = new ArrayList<>(removed);
+            for (int from = 0; from < removedList.size(); from += snapshotChunkSize) {
+                List<String> removedChunk = removedList.subList(from, Math.min(from + snapshotChunkSize, removedList.size()));
+                publish(ALL_NODES, SessionSyncMessage.builder()
+                        .kind(Kind.DELTA).epoch(epoch).seq(++seq).removed(new ArrayList<>(removedChunk)).build());
+            }
+        }
+    }
+
+    /**
+     * 하트비트를 발행하고 lease가 만료된 노드의 세션을 정리합니다.
+     */
+    @Scheduled(fixedDelayString = "${chat.cluster.session.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        synchronized (publishLock) {
+            publish(ALL_NODES, SessionSyncMessage.builder().kind(Kind.HEARTBEAT).epoch(epoch).seq(seq).build());
+        }
+
+        for (String nodeId : remoteSessions.expire(System.currentTimeMillis(), leaseMs)) {
+            log.warn("노드 lease 만료로 세션 정리: 노드 ID={}", nodeId);
+        }
+    }
+
+    private void handleClusterEvent(ClusterEvent event) {
+        if (!ALL_NODES.equals(event.getChannel()) && !clusterBus.getNodeId().equals(event.getChannel())) {
+            return; // 다른 노드 대상 메시지
+        }
+
+        SessionSyncMessage message;
+        try {
+            message = objectMapper.readValue(event.getPayload(), SessionSyncMessage.class);
+        } catch (JsonProcessingException e) {
+            log.warn("세션 동기화 메시지 파싱 실패: source={}", event.getSourceNodeId(), e);
+            return;
+        }
+
+        String source = event.getSourceNodeId();
+        long now = System.currentTimeMillis();
+        switch (message.getKind()) {
+            case DELTA -> {
+                if (!remoteSessions.applyDelta(source, message.getEpoch(), message.getSeq(),
+                        message.getAdded(), message.getRemoved(), now)) {
+                    requestSync(source);
+                }
+            }
+            case HEARTBEAT -> {
+                if (!remoteSessions.heartbeat(source, message.getEpoch(), message.getSeq(), now)) {
+                    requestSync(source);
+                }
+            }
+            case SNAPSHOT -> remoteSessions.applySnapshot(source, message.getEpoch(), message.getSeq(),
+                    message.getAdded(), message.isReset(), now);
+            case SYNC_REQUEST -> publishSnapshot(source);
+            case KICK -> message.getRemoved().forEach(sessionId -> {
+                String userId = removeSession(sessionId);
+                log.info("다른 노드의 요청으로 세션 제거: 사용자 ID={}, 세션 ID={}, 요청 노드={}", userId, sessionId, source);
+            });
+            case LEAVE -> remoteSessions.removeNode(source);
+        }
+    }
+
+    /**
+     * 이 노드의 전체 세션을 요청 노드에 보냅니다. 발행 중에는 DELTA가 끼어들지 않으므로
+     * 스냅샷의 seq 이후 DELTA부터 이어서 적용하면 됩니다.
+     */
+    private void publishSnapshot(String targetNodeId) {
+        synchronized (publishLock) {
+            // 발행 대기 중인 변경까지 포함하도록 먼저 DELTA로 내보냄
+            flushDeltas();
+
+            Map<String, String> sessions = new HashMap<>(sessionUserMap);
+            List<Map<String, String>> chunks = chunk(sessions);
+            if (chunks.isEmpty()) {
+                chunks = List.of(Map.of());
+            }
+            for (int i = 0; i < chunks.size(); i++) {
+                publish(targetNodeId, SessionSyncMessage.builder()
+                        .kind(Kind.SNAPSHOT).epoch(epoch).seq(seq).added(chunks.get(i)).reset(i == 0).build());
+            }
+        }
+    }
+
+    private void requestSync(String nodeId) {
+        long now = System.currentTimeMillis();
+        Long last = syncRequestedAt.get(nodeId);
+        if (last != null && now - last < leaseMs / 3) {
+            return; // 스냅샷을 기다리는 중
+        }
+        syncRequestedAt.put(nodeId, now);
+        log.info("세션 스냅샷 요청: 노드 ID={}", nodeId);
+        publish(nodeId, SessionSyncMessage.builder().kind(Kind.SYNC_REQUEST).epoch(epoch).build());
+    }
+
+    private void recordRemoved(String sessionId) {
+        synchronized (pendingLock) {
+            if (pendingAdded.remove(sessionId) == null) {
+                pendingRemoved.add(sessionId);
+            }
+        }
+    }
+
+    private List<Map<String, String>> chunk(Map<String, String> sessions) {
+        List<Map<String, String>> chunks = new ArrayList<>();
+        Map<String, String> current = new HashMap<>();
+        for (Map.Entry<String, String> entry : sessions.entrySet()) {
+            current.put(entry.getKey(), entry.getValue());
+            if (current.size() >= snapshotChunkSize) {
+                chunks.add(current);
+                current = new HashMap<>();
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    private void publish(String targetNodeId, SessionSyncMessage message) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize session sync message", e);
+        }
+
+        syncBytes.get(message.getKind()).record(payload.length());
+
+        clusterBus.publish(ClusterEvent.builder()
+                .type(EVENT_TYPE)
+                .channel(targetNodeId)
+                .payload(payload)
+                .build());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package com.wowelang.chatserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.ChatRoom;
+import com.wowelang.chatserver.model.MatchRequest;
+import com.wowelang.chatserver.model.MessageBucket;
+import com.wowelang.chatserver.model.MessageSegment;
+import com.wowelang.chatserver.model.ReadCursor;
+
+/**
+ * 실제 MongoDB(Testcontainers)를 쓰는 테스트의 공통 설정
+ *
+ * 컨테이너는 테스트 JVM에서 한 번만 띄우고, 테스트 클래스마다 별도 데이터베이스를 사용합니다.
+ * 자동 인덱스 생성을 켠 매핑 컨텍스트를 쓰므로 모델 클래스에 선언된 인덱스(운영은 MongoIndexJob 또는 배포 절차로 생성)가 그대로 만들어집니다.
+ * 테스트마다 문서만 지우고 인덱스는 유지합니다.
+ *
+ * explain으로 저장소 쿼리의 실행 계획을 확인할 때는 저장소가 MongoTemplate에 넘긴 Query를 그대로 실행합니다.
+ */
+public abstract class MongoTestSupport {
+
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    static {
+        MONGO.start();
+    }
+
+    protected static MongoClient client;
+    protected static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void connect(TestInfo testInfo) {
+        client = MongoClients.create(MONGO.getConnectionString());
+
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setAutoIndexCreation(true);
+        mappingContext.setInitialEntitySet(Set.of(ChatRoom.class, ChatMessage.class, MatchRequest.class,
+                ReadCursor.class, MessageBucket.class, MessageSegment.class));
+        mappingContext.afterPropertiesSet();
+
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        String database = "chat_test_" + testInfo.getTestClass().map(Class::getSimpleName).orElse("default");
+        mongoTemplate = new MongoTemplate(new SimpleMongoClientDatabaseFactory(client, database), converter);
+    }
+
+    @BeforeEach
+    void clearCollections() {
+        for (String name : mongoTemplate.getCollectionNames()) {
+            mongoTemplate.getCollection(name).deleteMany(new Document());
+        }
+    }
+
+    /**
+     * 쿼리를 저장소가 보내는 형태(필드 이름, ID 변환)로 바꿔 explain(executionStats)을 실행합니다.
+     */
+    protected static Document explain(Query query, Class<?> entityClass) {
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(entityClass);
+
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(entityClass))
+                .find(queryMapper.getMappedObject(query.getQueryObject(), entity))
+                .sort(queryMapper.getMappedSort(query.getSortObject(), entity))
+                .limit(query.getLimit())
+                .explain(ExplainVerbosity.EXECUTION_STATS);
+    }
+
+    /**
+     * 실행 계획(queryPlanner.winningPlan)에서 key에 해당하는 값을 모두 모읍니다. (stage, indexName 등, 하위 단계 포함)
+     */
+    protected static List<Object> planValues(Document explain, String key) {
+        List<Object> values = new ArrayList<>();
+        collect(explain.get("queryPlanner", Document.class).get("winningPlan"), key, values);
+        return values;
+    }
+
+    private static void collect(Object node, String key, List<Object> values) {
+        if (node instanceof Document document) {
+            document.forEach((name, value) -> {
+                if (name.equals(key)) {
+                    values.add(value);
+                }
+                collect(value, key, values);
+            });
+        } else if (node instanceof List<?> list) {
+            list.forEach(item -> collect(item, key, values));
+        }
+    }
+
+    protected static long docsExamined(Document explain) {
+        return explain.get("executionStats", Document.class).get("totalDocsExamined", Number.class).longValue();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+}
@@ -0,0 +1,102 @@
+package com.wowelang.chatserver.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.wowelang.chatserver.MongoTestSupport;
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.ChatMessage.MessageType;
+import com.wowelang.chatserver.util.MessageCursor;
+
+/**
+ * 기록 페이지 조회(findRoomPage)가 room_created_id_idx 순서로 읽혀 메모리 정렬(SORT) 단계가 없는지 확인합니다.
+ */
+class ChatMessageRepositoryExplainTest extends MongoTestSupport {
+
+    private static final String ROOM_ID = "room-explain";
+    private static final int PAGE_SIZE = 30;
+
+    private MongoTemplate template;
+    private ChatMessageRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        // 다른 채팅방 메시지가 섞여 있어도 대상 채팅방 구간만 읽어야 함
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        List<ChatMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            messages.add(ChatMessage.builder()
+                    .roomId(i % 3 == 0 ? ROOM_ID : "room-other-" + (i % 3))
+                    .senderId("user-" + (i % 2))
+                    .type(MessageType.TEXT)
+                    .content("message " + i)
+                    .createdAt(start.plusSeconds(i))
+                    .build());
+        }
+        mongoTemplate.insert(messages, ChatMessage.class);
+
+        template = spy(mongoTemplate);
+        repository = new ChatMessageRepositoryCustomImpl(template);
+    }
+
+    @Test
+    void firstPageUsesCompoundIndexWithoutSort() {
+        List<ChatMessage> page = repository.findRoomPage(ROOM_ID, null, null, PAGE_SIZE);
+        assertThat(page).hasSize(PAGE_SIZE);
+
+        Document explain = explain(capturedQuery(), ChatMessage.class);
+        assertIndexOrderScan(explain);
+        assertThat(docsExamined(explain)).isEqualTo(PAGE_SIZE);
+    }
+
+    @Test
+    void cursorPageUsesCompoundIndexWithoutSort() {
+        List<ChatMessage> first = repository.findRoomPage(ROOM_ID, null, null, PAGE_SIZE);
+        ChatMessage last = first.get(first.size() - 1);
+
+        List<ChatMessage> next = repository.findRoomPage(ROOM_ID, new MessageCursor(last.getCreatedAt(), last.getId()), null, PAGE_SIZE);
+        assertThat(next).hasSize(PAGE_SIZE);
+        assertThat(next.get(0).getCreatedAt()).isBefore(last.getCreatedAt());
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(template, times(2)).find(queries.capture(), eq(ChatMessage.class));
+        Document explain = explain(queries.getAllValues().get(1), ChatMessage.class);
+        assertIndexOrderScan(explain);
+        // $or가 분기별 인덱스 구간(SORT_MERGE)으로 풀려도 커서 근처만 읽고 채팅방 전체(200개)를 읽지 않음
+        assertThat(docsExamined(explain)).isLessThanOrEqualTo(2 * PAGE_SIZE + 1);
+    }
+
+    @Test
+    void beforePageUsesCompoundIndexWithoutSort() {
+        repository.findRoomPage(ROOM_ID, null, Instant.parse("2025-01-01T00:05:00Z"), PAGE_SIZE);
+
+        Document explain = explain(capturedQuery(), ChatMessage.class);
+        assertIndexOrderScan(explain);
+        assertThat(docsExamined(explain)).isEqualTo(PAGE_SIZE);
+    }
+
+    private Query capturedQuery() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(template).find(query.capture(), eq(ChatMessage.class));
+        return query.getValue();
+    }
+
+    private static void assertIndexOrderScan(Document explain) {
+        assertThat(planValues(explain, "stage")).contains("IXSCAN").doesNotContain("SORT");
+        assertThat(planValues(explain, "indexName")).containsOnly("room_created_id_idx");
+    }
+}
@@ -0,0 +1,106 @@
+package com.wowelang.chatserver.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.wowelang.chatserver.MongoTestSupport;
+import com.wowelang.chatserver.model.MatchRequest;
+import com.wowelang.chatserver.model.MatchRequest.MatchStatus;
+import com.wowelang.chatserver.util.MessageCursor;
+
+/**
+ * 받은/보낸 요청함 페이지 조회가 각 요청함 인덱스 순서로 읽혀 메모리 정렬(SORT) 단계가 없는지 확인합니다.
+ */
+class MatchRequestRepositoryExplainTest extends MongoTestSupport {
+
+    private static final String USER = "user-popular";
+    private static final int REQUESTS = 300;
+    private static final int PAGE_SIZE = 30;
+
+    private MongoTemplate template;
+    private MatchRequestRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        // 받은 요청과 보낸 요청을 번갈아 만들고, 절반은 이미 처리된 상태
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        List<MatchRequest> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS * 2; i++) {
+            String other = "user-" + (i / 2);
+            boolean received = i % 2 == 0;
+            Instant at = start.plusSeconds(i);
+            requests.add(MatchRequest.builder()
+                    .requesterId(received ? other : USER)
+                    .targetId(received ? USER : other)
+                    .status(i % 4 < 2 ? MatchStatus.PENDING : MatchStatus.REJECTED)
+                    .createdAt(at)
+                    .updatedAt(at)
+                    .build());
+        }
+        mongoTemplate.insert(requests, MatchRequest.class);
+
+        template = spy(mongoTemplate);
+        repository = new MatchRequestRepositoryCustomImpl(template);
+    }
+
+    @Test
+    void inboxPageUsesTargetIndexWithoutSort() {
+        List<MatchRequest> page = repository.findInboxPage(USER, MatchStatus.PENDING, null, PAGE_SIZE);
+        assertThat(page).hasSize(PAGE_SIZE).allMatch(request -> request.getTargetId().equals(USER));
+
+        Document explain = explain(capturedQueries(1).get(0), MatchRequest.class);
+        assertIndexOrderScan(explain, "target_status_updated_idx");
+        assertThat(docsExamined(explain)).isEqualTo(PAGE_SIZE);
+    }
+
+    @Test
+    void outboxPageUsesRequesterIndexWithoutSort() {
+        List<MatchRequest> page = repository.findOutboxPage(USER, MatchStatus.PENDING, null, PAGE_SIZE);
+        assertThat(page).hasSize(PAGE_SIZE).allMatch(request -> request.getRequesterId().equals(USER));
+
+        Document explain = explain(capturedQueries(1).get(0), MatchRequest.class);
+        assertIndexOrderScan(explain, "requester_status_updated_idx");
+        assertThat(docsExamined(explain)).isEqualTo(PAGE_SIZE);
+    }
+
+    @Test
+    void cursorPageUsesInboxIndexWithoutSort() {
+        List<MatchRequest> first = repository.findInboxPage(USER, MatchStatus.PENDING, null, PAGE_SIZE);
+        MatchRequest last = first.get(first.size() - 1);
+
+        List<MatchRequest> next = repository.findInboxPage(USER, MatchStatus.PENDING,
+                new MessageCursor(last.getUpdatedAt(), last.getId()), PAGE_SIZE);
+        assertThat(next).hasSize(PAGE_SIZE);
+        assertThat(next.get(0).getUpdatedAt()).isBefore(last.getUpdatedAt());
+
+        Document explain = explain(capturedQueries(2).get(1), MatchRequest.class);
+        assertIndexOrderScan(explain, "target_status_updated_idx");
+        // $or가 분기별 인덱스 구간(SORT_MERGE)으로 풀려도 커서 근처만 읽고 요청함 전체를 읽지 않음
+        assertThat(docsExamined(explain)).isLessThanOrEqualTo(2 * PAGE_SIZE + 1);
+    }
+
+    private List<Query> capturedQueries(int count) {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(template, times(count)).find(queries.capture(), eq(MatchRequest.class));
+        return queries.getAllValues();
+    }
+
+    private static void assertIndexOrderScan(Document explain, String indexName) {
+        assertThat(planValues(explain, "stage")).contains("IXSCAN").doesNotContain("SORT");
+        assertThat(planValues(explain, "indexName")).containsOnly(indexName);
+    }
+}
@@ -0,0 +1,143 @@
+package com.wowelang.chatserver.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import com.wowelang.chatserver.MongoTestSupport;
+import com.wowelang.chatserver.dto.MatchRequestDto;
+import com.wowelang.chatserver.model.ChatRoom;
+import com.wowelang.chatserver.model.MatchRequest;
+import com.wowelang.chatserver.model.MatchRequest.MatchStatus;
+import com.wowelang.chatserver.repository.ChatRoomRepository;
+import com.wowelang.chatserver.repository.MatchRequestRepository;
+import com.wowelang.chatserver.repository.MatchRequestRepositoryCustomImpl;
+import com.wowelang.chatserver.repository.MessageArchive;
+import com.wowelang.chatserver.repository.MessageStore;
+import com.wowelang.chatserver.util.UserContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 상호 요청/수락이 동시에 들어와도 쌍마다 채팅방 하나, ACCEPTED 요청 하나만 남는지 확인합니다.
+ */
+class MatchRequestServiceConcurrencyTest extends MongoTestSupport {
+
+    private static final int ROUNDS = 50;
+
+    private ExecutorService executor;
+    private MatchRequestService matchRequestService;
+
+    @BeforeEach
+    void setUp() {
+        MongoRepositoryFactory factory = new MongoRepositoryFactory(mongoTemplate);
+        MatchRequestRepository matchRequestRepository = factory.getRepository(MatchRequestRepository.class,
+                RepositoryFragments.just(new MatchRequestRepositoryCustomImpl(mongoTemplate)));
+        ChatRoomRepository chatRoomRepository = factory.getRepository(ChatRoomRepository.class);
+
+        ChatRoomService chatRoomService = new ChatRoomService(chatRoomRepository, mock(MessageStore.class), mock(MessageArchive.class),
+                mongoTemplate, mock(ReadCursorService.class),
+                new RoomMembershipCache(chatRoomRepository, new SimpleMeterRegistry(), 1000, 300));
+        matchRequestService = new MatchRequestService(matchRequestRepository, chatRoomService, mongoTemplate);
+
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void crossedRequestsCreateOneRoomAndOneAcceptedRequest() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            String a = "crossed-a-" + round;
+            String b = "crossed-b-" + round;
+
+            runConcurrently(List.of(
+                    as(a, () -> matchRequestService.sendMatchRequest(b)),
+                    as(b, () -> matchRequestService.sendMatchRequest(a))));
+
+            // 엇갈린 PENDING 요청이 남지 않아야 함
+            assertThat(assertMatched(a, b)).noneMatch(request -> request.getStatus() == MatchStatus.PENDING);
+        }
+    }
+
+    @Test
+    void acceptRacingReverseRequestCreatesOneRoomAndOneAcceptedRequest() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            String a = "accept-a-" + round;
+            String b = "accept-b-" + round;
+            String requestId = as(a, () -> matchRequestService.sendMatchRequest(b)).call().getId();
+
+            runConcurrently(List.of(
+                    as(b, () -> matchRequestService.acceptMatchRequest(requestId)),
+                    as(b, () -> matchRequestService.sendMatchRequest(a)),
+                    as(b, () -> matchRequestService.acceptMatchRequest(requestId)),
+                    as(b, () -> matchRequestService.sendMatchRequest(a))));
+
+            assertMatched(a, b);
+        }
+    }
+
+    /**
+     * 두 사용자의 채팅방이 하나이고 ACCEPTED 요청이 하나이며 그 채팅방에 연결되었는지 확인하고, 두 사용자 사이의 요청을 반환합니다.
+     */
+    private List<MatchRequest> assertMatched(String a, String b) {
+        List<ChatRoom> rooms = mongoTemplate.find(new Query(Criteria.where("participants").all(a, b)), ChatRoom.class);
+        assertThat(rooms).hasSize(1);
+
+        List<MatchRequest> requests = mongoTemplate.find(new Query(new Criteria().orOperator(
+                Criteria.where("requesterId").is(a).and("targetId").is(b),
+                Criteria.where("requesterId").is(b).and("targetId").is(a))), MatchRequest.class);
+        assertThat(requests).filteredOn(request -> request.getStatus() == MatchStatus.ACCEPTED)
+                .singleElement()
+                .extracting(MatchRequest::getChatRoomId)
+                .isEqualTo(rooms.get(0).getId());
+        return requests;
+    }
+
+    /**
+     * 모든 호출을 동시에 시작하고 끝날 때까지 기다립니다. 호출 중 예외가 있으면 그대로 던집니다.
+     */
+    private void runConcurrently(List<Callable<MatchRequestDto>> calls) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MatchRequestDto>> futures = new ArrayList<>();
+        for (Callable<MatchRequestDto> call : calls) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        start.countDown();
+        for (Future<MatchRequestDto> future : futures) {
+            future.get();
+        }
+    }
+
+    private static Callable<MatchRequestDto> as(String userId, Callable<MatchRequestDto> call) {
+        return () -> {
+            UserContext.setUserId(userId);
+            try {
+                return call.call();
+            } finally {
+                UserContext.clear();
+            }
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package com.wowelang.chatserver.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.wowelang.chatserver.model.ChatMessage;
+import com.wowelang.chatserver.model.ChatMessage.MessageType;
+import com.wowelang.chatserver.repository.DocumentMessageStore;
+import com.wowelang.chatserver.repository.MessageArchive;
+
+/**
+ * 100만 메시지 방을 내보내는 동안 힙 사용량이 방 크기에 비례하여 늘지 않는지 확인합니다.
+ *
+ * MongoTemplate.stream을 메시지를 지연 생성하는 대역으로 바꾸고, 출력을 버리면서 일정 바이트마다 GC 후 힙 사용량을 기록합니다.
+ * 메시지를 모두 모아 두면 수백 MB가 필요하므로 증가분 한도(MAX_HEAP_GROWTH_BYTES)를 넘습니다.
+ */
+class MessageExportServiceTest {
+
+    private static final String ROOM_ID = "6650f1a2b3c4d5e6f7a8b9c1";
+    private static final int MESSAGES = 1_000_000;
+    private static final long MAX_HEAP_GROWTH_BYTES = 64L * 1024 * 1024;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private MessageExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.stream(any(Query.class), eq(ChatMessage.class))).thenAnswer(invocation ->
+                LongStream.range(0, MESSAGES).mapToObj(i -> ChatMessage.builder()
+                        .id(new ObjectId().toHexString())
+                        .roomId(ROOM_ID)
+                        .senderId(i % 2 == 0 ? "user-a" : "user-b")
+                        .type(MessageType.TEXT)
+                        .content("안녕하세요! Nice to meet you. 오늘 날씨가 정말 좋네요. #" + i)
+                        .createdAt(start.plusMillis(i))
+                        .seq(i + 1)
+                        .build()));
+
+        ChatMessageService chatMessageService = new ChatMessageService(null, null, null, null, null, null, null, Optional.empty());
+        exportService = new MessageExportService(new DocumentMessageStore(null, mongoTemplate), mock(MessageArchive.class), null,
+                chatMessageService, Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(exportService, "batchSize", 1000);
+    }
+
+    @Test
+    void exportKeepsHeapGrowthBounded() throws Exception {
+        HeapSamplingOutputStream sink = new HeapSamplingOutputStream();
+
+        long count = exportService.writeNdjson(ROOM_ID, null, null, null, sink);
+
+        assertThat(count).isEqualTo(MESSAGES);
+        assertThat(sink.samples).isPositive();
+        assertThat(sink.peakGrowth).isLessThan(MAX_HEAP_GROWTH_BYTES);
+    }
+
+    @Test
+    void gzipExportKeepsHeapGrowthBounded() throws Exception {
+        HeapSamplingOutputStream sink = new HeapSamplingOutputStream();
+
+        long count;
+        try (GZIPOutputStream compressed = new GZIPOutputStream(sink, 8192)) {
+            count = exportService.writeNdjson(ROOM_ID, null, null, null, compressed);
+        }
+
+        assertThat(count).isEqualTo(MESSAGES);
+        assertThat(sink.samples).isPositive();
+        assertThat(sink.peakGrowth).isLessThan(MAX_HEAP_GROWTH_BYTES);
+    }
+
+    /**
+     * 출력을 버리면서 일정 바이트마다 GC 후 힙 사용량의 증가분을 기록하는 스트림
+     */
+    private class HeapSamplingOutputStream extends OutputStream {
+
+        private static final long SAMPLE_INTERVAL_BYTES = 4L * 1024 * 1024;
+
+        private final long baseline;
+        private long written;
+        private int samples;
+        private long peakGrowth;
+
+        HeapSamplingOutputStream() {
+            System.gc();
+            baseline = memory.getHeapMemoryUsage().getUsed();
+        }
+
+        @Override
+        public void write(int b) {
+            advance(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            advance(len);
+        }
+
+        private void advance(int bytes) {
+            long before = written;
+            written += bytes;
+            if (before / SAMPLE_INTERVAL_BYTES != written / SAMPLE_INTERVAL_BYTES) {
+                System.gc();
+                peakGrowth = Math.max(peakGrowth, memory.getHeapMemoryUsage().getUsed() - baseline);
+                samples++;
+            }
+        }
+    }
+}